@@ -14,7 +14,8 @@ public class DotenvConfig {
 
     @Bean
     public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer(ConfigurableEnvironment environment) {
-        Dotenv dotenv = Dotenv.configure().load();
+        // a missing .env is fine when the variables come from the real environment (containers, CI, tests)
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
 
         Properties props = new Properties();
 
@@ -0,0 +1,10 @@
+package com.example.tsh.web.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// drives EmailOutboxDispatcher's polling; its worker pool lives in the dispatcher itself
+@Configuration
+@EnableScheduling
+public class MailConfig {
+}
@@ -1,10 +1,14 @@
 package com.example.tsh.web.Config;
 
+import com.example.tsh.web.Service.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -12,10 +16,10 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -31,7 +35,7 @@ import static org.springframework.security.config.Customizer.withDefaults;
 public class SecConfig {
 
 @Autowired
-private final UserDetailsService userDetailsService;
+private final UserDetailsServiceImpl userDetailsService;
 
 @Autowired
 private JwtFilter jwtFilter;
@@ -55,7 +59,8 @@ private JwtFilter jwtFilter;
                                 "/hr/**",
                                 "/api/hr/time-logs/**",
                                 "/api/payrolls/**",
-                                "/api/payslips/generate/{payrollId}"
+                                "/api/payslips/generate/{payrollId}",
+                                "/api/payslips/runs/**"
                         ).hasRole("HR")
                         .requestMatchers(
                                 "/employee/**",
@@ -67,6 +72,10 @@ private JwtFilter jwtFilter;
                         .requestMatchers("/hr/available-hr-for-leave").hasAnyRole("EMPLOYEE", "HR")
                         .anyRequest().authenticated()
                 )
+                // a missing, expired or revoked token is 401 so the frontend sends the user back to login;
+                // 403 stays for an authenticated user without the role
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
@@ -75,10 +84,12 @@ private JwtFilter jwtFilter;
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider(){
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder){
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
-        daoAuthenticationProvider.setPasswordEncoder(new BCryptPasswordEncoder());
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
         daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        // hashes stored at a lower cost than app.security.bcrypt-strength are rewritten on the next login
+        daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsService);
         return daoAuthenticationProvider;
     }
 
@@ -89,8 +100,8 @@ private JwtFilter jwtFilter;
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -99,6 +110,10 @@ private JwtFilter jwtFilter;
         config.setAllowedOrigins(List.of("http://localhost:5173"));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        // the security CORS filter answers before MVC, so the page cursor has to be exposed here as well.
+        // ETag and the range headers let the frontend revalidate and resume payslip downloads
+        config.setExposedHeaders(List.of("X-Next-Cursor", HttpHeaders.ETAG, HttpHeaders.CONTENT_RANGE,
+                HttpHeaders.ACCEPT_RANGES, HttpHeaders.CONTENT_DISPOSITION));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
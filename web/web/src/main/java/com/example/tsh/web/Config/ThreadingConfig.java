@@ -0,0 +1,44 @@
+package com.example.tsh.web.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    // Boot silently falls back to platform threads below Java 21, so say which mode is actually running.
+    // Only what Boot moved is listed: there are no @Async methods, and the services build their own pools
+    @EventListener(ApplicationReadyEvent.class)
+    public void logThreadingMode(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        Environment environment = context.getEnvironment();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            List<String> virtual = new ArrayList<>();
+            virtual.add("Tomcat requests");
+            if (context.containsBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)) {
+                virtual.add("MVC async requests (applicationTaskExecutor)");
+            }
+            if (context.getBeanNamesForType(TaskScheduler.class).length > 0) {
+                virtual.add("@Scheduled jobs");
+            }
+            logger.info("Virtual threads run {}; the login, clock journal, payroll, payslip and mail pools stay on "
+                    + "platform threads", String.join(", ", virtual));
+        } else if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads: build with -Pjava21 "
+                    + "and run on Java 21", Runtime.version().feature());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.tsh.web.Config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -12,6 +13,9 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:5173")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                // keyset page cursor of the time log listings, and the validators and ranges of payslip downloads
+                .exposedHeaders("X-Next-Cursor", HttpHeaders.ETAG, HttpHeaders.CONTENT_RANGE,
+                        HttpHeaders.ACCEPT_RANGES, HttpHeaders.CONTENT_DISPOSITION)
                 .allowCredentials(true);
     }
 }
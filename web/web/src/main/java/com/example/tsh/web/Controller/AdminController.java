@@ -1,6 +1,6 @@
 package com.example.tsh.web.Controller;
 
-
+import com.example.tsh.web.DTO.EmployeeDTO;
 import com.example.tsh.web.Entity.Admin;
 import com.example.tsh.web.Entity.Employee;
 import com.example.tsh.web.Entity.HR;
@@ -9,6 +9,10 @@ import com.example.tsh.web.Entity.Role;
 import com.example.tsh.web.Service.HRService;
 import com.example.tsh.web.Service.AdminService;
 import com.example.tsh.web.Service.EmployeeService;
+import com.example.tsh.web.Service.EmailOutboxDispatcher;
+import com.example.tsh.web.Service.LoginExecutor;
+import com.example.tsh.web.Service.RenderedPayslipCache;
+import com.example.tsh.web.Service.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +20,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/admin")
@@ -25,6 +30,10 @@ public class AdminController {
     private final AdminService adminService;
     private final HRService hrService;  // final + private is better
     private final EmployeeService employeeService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final LoginExecutor loginExecutor;
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+    private final RenderedPayslipCache renderedPayslipCache;
 
 
     //get tanan admin
@@ -36,21 +45,23 @@ public class AdminController {
 
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestBody Admin admin) {
-        String result = adminService.verify(admin);
-        if (result.equals("failed")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.singletonMap("error", result));
-        }
-
-        if (admin.getRole() != Role.ADMIN) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Collections.singletonMap("error", "Access denied: Not an admin."));
-        }
-
-        Map<String, String> response = new HashMap<>();
-        response.put("token", result);               // JWT token
-        response.put("role", admin.getRole().name());
-        response.put("username",admin.getUsername());
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Admin admin) {
+        return loginExecutor.submit(() -> {
+            String result = adminService.verify(admin);
+            if (result.equals("failed")) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.singletonMap("error", result));
+            }
+
+            if (admin.getRole() != Role.ADMIN) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Collections.singletonMap("error", "Access denied: Not an admin."));
+            }
+
+            Map<String, String> response = new HashMap<>();
+            response.put("token", result);               // JWT token
+            response.put("role", admin.getRole().name());
+            response.put("username",admin.getUsername());
+            return ResponseEntity.ok(response);
+        });
     }
 
 
@@ -95,10 +106,31 @@ public class AdminController {
 
     //get employee via admin
     @GetMapping("/all-employee")
-    public List<Employee> getAllEmployee(){
+    public List<EmployeeDTO> getAllEmployee(){
         return employeeService.getAllEmployee();
     }
 
+    //principal cache hit/miss counters
+    @GetMapping("/principal-cache/stats")
+    public Map<String, Object> getPrincipalCacheStats(){
+        return userDetailsService.getPrincipalCacheStats();
+    }
+
+    @GetMapping("/login-executor/stats")
+    public Map<String, Object> getLoginExecutorStats(){
+        return loginExecutor.getStats();
+    }
+
+    @GetMapping("/email-outbox/stats")
+    public Map<String, Object> getEmailOutboxStats(){
+        return emailOutboxDispatcher.getStats();
+    }
+
+    @GetMapping("/payslip-render-cache/stats")
+    public Map<String, Object> getPayslipRenderCacheStats(){
+        return renderedPayslipCache.getStats();
+    }
+
     //get hr via admin
     @GetMapping("/all-hr")
     public List<HR> getAllHrs(){
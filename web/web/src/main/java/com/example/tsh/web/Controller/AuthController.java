@@ -0,0 +1,33 @@
+package com.example.tsh.web.Controller;
+
+import com.example.tsh.web.Service.JwtService;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/auth")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AuthController {
+
+    @Autowired
+    private JwtService jwtService;
+
+    // denylists the presented token until it would have expired anyway
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Bearer token is required"));
+        }
+
+        try {
+            jwtService.revokeToken(jwtService.parseToken(authHeader.substring(7)));
+            return ResponseEntity.ok(Map.of("message", "Logged out"));
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid token"));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.tsh.web.Controller;
 
+import com.example.tsh.web.DTO.TimeLogDTO;
 import com.example.tsh.web.Entity.*;
 import com.example.tsh.web.Repository.EmployeeRepo;
 import com.example.tsh.web.Service.*;
@@ -13,6 +14,7 @@ import java.io.Serializable;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/employee")
@@ -26,34 +28,34 @@ public class EmployeeController {
     private final HRService hrService;
     private final TimeLogService timeLogService;
     private final PayslipService payslipService;
+    private final LoginExecutor loginExecutor;
+    private final JwtService jwtService;
 
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@RequestBody Employee employee) {
-        String result = employeeService.verify(employee, Role.EMPLOYEE);
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Employee employee) {
+        return loginExecutor.submit(() -> {
+            String result = employeeService.verify(employee, Role.EMPLOYEE);
 
-        if (result.equals("failed")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.singletonMap("error", result));
-        }
-
-        if (employee.getRole() != Role.EMPLOYEE) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Collections.singletonMap("error", "Access denied: Not an employee."));
-        }
+            if (result.equals("failed")) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.singletonMap("error", result));
+            }
 
-        Optional<Employee> dbEmployeeOpt = employeeRepo.findByUsername(employee.getUsername());
-        if (dbEmployeeOpt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.singletonMap("error", "Employee not found"));
-        }
+            if (result.equals("unauthorized") || employee.getRole() != Role.EMPLOYEE) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Collections.singletonMap("error", "Access denied: Not an employee."));
+            }
 
-        Employee dbEmployee = dbEmployeeOpt.get();
+            // the token already carries the employee id, no need to load the row again
+            AuthPrincipal principal = jwtService.toPrincipal(jwtService.parseToken(result));
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("token", result);
-        response.put("role", dbEmployee.getRole().name());
-        response.put("username", dbEmployee.getUsername());
-        response.put("employeeId", dbEmployee.getEmployeeId());
+            Map<String, Object> response = new HashMap<>();
+            response.put("token", result);
+            response.put("role", principal.getRole().name());
+            response.put("username", principal.getUsername());
+            response.put("employeeId", principal.getUserId());
 
-        return ResponseEntity.ok(response);
+            return ResponseEntity.ok(response);
+        });
     }
 
 
@@ -257,7 +259,7 @@ public class EmployeeController {
         response.put("year", queryYear);
         response.put("month", queryMonth);
 
-        List<TimeLog> logs = timeLogService.getAttendanceForMonth(
+        List<TimeLogDTO> logs = timeLogService.getAttendanceForMonth(
                 employee.get().getEmployeeId(),
                 queryYear,
                 queryMonth
@@ -265,7 +267,7 @@ public class EmployeeController {
 
         Map<LocalDate, Map<String, Object>> attendanceMap = new LinkedHashMap<>();
 
-        for (TimeLog log : logs) {
+        for (TimeLogDTO log : logs) {
             LocalDate logDate = log.getDate().toLocalDate();
             Map<String, Object> attendanceDetails = new HashMap<>();
             attendanceDetails.put("status", "P");
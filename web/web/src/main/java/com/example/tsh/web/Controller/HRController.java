@@ -1,20 +1,27 @@
 package com.example.tsh.web.Controller;
 
 import com.example.tsh.web.DTO.AttendanceRecord;
+import com.example.tsh.web.DTO.EmployeeDTO;
+import com.example.tsh.web.DTO.TimeLogDTO;
 import com.example.tsh.web.Entity.*;
 import com.example.tsh.web.Repository.EmployeeRepo;
 import com.example.tsh.web.Repository.HRRepo;
 import com.example.tsh.web.Service.*;
+import com.example.tsh.web.Util.NdjsonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/hr")
@@ -30,23 +37,31 @@ public class HRController {
     @Autowired
     private TimeLogService timeLogService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoginExecutor loginExecutor;
+
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestBody HR hr) {
-        String result = hrService.verify(hr, Role.HR);
-        if (result.equals("failed")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.singletonMap("error", result));
-        }
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody HR hr) {
+        return loginExecutor.submit(() -> {
+            String result = hrService.verify(hr, Role.HR);
+            if (result.equals("failed")) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.singletonMap("error", result));
+            }
 
-        if (hr.getRole() != Role.HR) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Collections.singletonMap("error", "Access denied: Not an hr."));
-        }
+            if (result.equals("unauthorized") || hr.getRole() != Role.HR) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Collections.singletonMap("error", "Access denied: Not an hr."));
+            }
 
-        Map<String, String> response = new HashMap<>();
-        response.put("token", result);
-        response.put("role", hr.getRole().name());
-        response.put("username",hr.getUsername());
+            Map<String, String> response = new HashMap<>();
+            response.put("token", result);
+            response.put("role", hr.getRole().name());
+            response.put("username",hr.getUsername());
 
-        return ResponseEntity.ok(response);
+            return ResponseEntity.ok(response);
+        });
     }
 
     @CrossOrigin(origins = "http://localhost:5173")
@@ -79,13 +94,13 @@ public class HRController {
     }
 
     @GetMapping("/all-employee")
-    public List<Employee> getAllEmployee(){
+    public List<EmployeeDTO> getAllEmployee(){
         return employeeService.getAllEmployee();
     }
 
 
     @GetMapping("/get-all")
-    public ResponseEntity<List<TimeLog>> getAllTimeLogs(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<List<TimeLogDTO>> getAllTimeLogs(@RequestHeader("Authorization") String token) {
         try {
 
             return ResponseEntity.ok(timeLogService.findAllTimeLogs());
@@ -94,6 +109,30 @@ public class HRController {
         }
     }
 
+    // one keyset page at a time, X-Next-Cursor is the after value for the next page
+    @GetMapping("/get-all/page")
+    public ResponseEntity<List<TimeLogDTO>> getTimeLogPage(@RequestHeader("Authorization") String token,
+                                                          @RequestParam(required = false) Long after,
+                                                          @RequestParam(required = false) Integer limit) {
+        try {
+            List<TimeLogDTO> page = timeLogService.findTimeLogPage(after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (!page.isEmpty()) {
+                response.header("X-Next-Cursor", String.valueOf(page.get(page.size() - 1).getTimeLogId()));
+            }
+            return response.body(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    @GetMapping(value = "/get-all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTimeLogs() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonUtil.stream(objectMapper, timeLogService::forEachTimeLog));
+    }
+
     @GetMapping("/me")
     @CrossOrigin(origins = "http://localhost:5173")
     public ResponseEntity<Map<String, Serializable>> getCurrentUserProfile(Authentication authentication) {
@@ -202,13 +241,20 @@ public class HRController {
 
     //view attendance employee in calendar
     @GetMapping("/attendance-calendar")
-    public ResponseEntity<List<AttendanceRecord>> getAttendanceCalendar(
+    public ResponseEntity<?> getAttendanceCalendar(
             @RequestParam(required = false) Long employeeId,
             @RequestParam int month,
             @RequestParam int year,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+
+        // page and size page over employees, every day of the month is returned for each one
+        if ((page == null) != (size == null) || (page != null && (page < 0 || size < 1))) {
+            return ResponseEntity.badRequest().body(Map.of("error", "page must be >= 0 and size >= 1, and both must be given together"));
+        }
 
-        List<AttendanceRecord> records = hrService.getAttendanceRecords(employeeId, month, year, status);
+        List<AttendanceRecord> records = hrService.getAttendanceRecords(employeeId, month, year, status, page, size);
         return ResponseEntity.ok(records);
     }
 }
@@ -1,19 +1,27 @@
 package com.example.tsh.web.Controller;
 
+import com.example.tsh.web.DTO.TimeLogDTO;
 import com.example.tsh.web.Entity.Employee;
 import com.example.tsh.web.Entity.HR;
 import com.example.tsh.web.Entity.TimeLog;
 import com.example.tsh.web.Repository.EmployeeRepo;
 import com.example.tsh.web.Repository.HRRepo;
 import com.example.tsh.web.Repository.TimeLogRepo;
+import com.example.tsh.web.Service.ClockEventIngestService;
+import com.example.tsh.web.Service.DailyAttendanceService;
 import com.example.tsh.web.Service.TimeLogService;
+import com.example.tsh.web.Util.NdjsonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.sql.Time;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -36,6 +44,15 @@ public class HrTimeLogController {
     @Autowired
     private TimeLogRepo timeLogRepo;
 
+    @Autowired
+    private DailyAttendanceService dailyAttendanceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClockEventIngestService clockEventIngestService;
+
     @PutMapping("/adjust")
     public ResponseEntity<?> adjustTimeLog(
             @RequestBody Map<String, Object> request,
@@ -60,29 +77,84 @@ public class HrTimeLogController {
                 .orElseThrow(() -> new RuntimeException("Employee not found"));
 
         TimeLog updatedLog = timeLogService.adjustTimeLog(timeLogId, employee, timeIn, timeOut);
-        return ResponseEntity.ok(updatedLog);
+        return ResponseEntity.ok(TimeLogDTO.from(updatedLog));
     }
 
 
 
     @GetMapping("/all")
-    public ResponseEntity<List<TimeLog>> getAllTimeLogs(Authentication authentication) {
+    public ResponseEntity<List<TimeLogDTO>> getAllTimeLogs(Authentication authentication) {
         String username = authentication.getName();
         HR hr = hrRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Unauthorized: HR not found"));
 
-        List<TimeLog> logs = timeLogService.findAllTimeLogs();
+        List<TimeLogDTO> logs = timeLogService.findAllTimeLogs();
         return ResponseEntity.ok(logs);
     }
 
+    // one keyset page at a time, X-Next-Cursor is the after value for the next page
+    @GetMapping("/all/page")
+    public ResponseEntity<List<TimeLogDTO>> getTimeLogPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        String username = authentication.getName();
+        HR hr = hrRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Unauthorized: HR not found"));
+
+        List<TimeLogDTO> logs = timeLogService.findTimeLogPage(after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!logs.isEmpty()) {
+            response.header("X-Next-Cursor", String.valueOf(logs.get(logs.size() - 1).getTimeLogId()));
+        }
+        return response.body(logs);
+    }
+
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTimeLogs(Authentication authentication) {
+        String username = authentication.getName();
+        hrRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Unauthorized: HR not found"));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonUtil.stream(objectMapper, timeLogService::forEachTimeLog));
+    }
+
+
+    @PostMapping("/backfill-derived-minutes")
+    public ResponseEntity<?> backfillDerivedMinutes() {
+        int updated = timeLogService.backfillDerivedMinutes();
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    // rebuilds the daily attendance rollup from the raw logs, e.g. for data written before the rollup existed
+    @PostMapping("/attendance/rebuild")
+    public ResponseEntity<?> rebuildDailyAttendance(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "'to' must not be before 'from'"));
+        }
+
+        int backfilled = timeLogService.backfillDerivedMinutes();
+        int rows = dailyAttendanceService.rebuild(from, to);
+        return ResponseEntity.ok(Map.of("backfilledTimeLogs", backfilled, "dailyAttendanceRows", rows));
+    }
+
+    @GetMapping("/ingest/stats")
+    public ResponseEntity<?> getIngestStats() {
+        return ResponseEntity.ok(clockEventIngestService.getStats());
+    }
+
 
     @GetMapping("/assigned-logs")
-    public ResponseEntity<List<TimeLog>> getAssignedTimeLogs(Authentication authentication) {
+    public ResponseEntity<List<TimeLogDTO>> getAssignedTimeLogs(Authentication authentication) {
         String username = authentication.getName();
         HR hr = hrRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Unauthorized: HR not found"));
 
-        List<TimeLog> logs = timeLogRepo.findByAssignedHr(hr);
+        List<TimeLogDTO> logs = timeLogService.findAssignedLogs(hr);
         return ResponseEntity.ok(logs);
     }
 }
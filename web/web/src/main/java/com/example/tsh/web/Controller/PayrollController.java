@@ -1,6 +1,10 @@
 package com.example.tsh.web.Controller;
 
+import com.example.tsh.web.DTO.PayrollAuditEntry;
+import com.example.tsh.web.DTO.PayrollDTO;
 import com.example.tsh.web.Entity.Payroll;
+import com.example.tsh.web.Entity.PayrollRun;
+import com.example.tsh.web.Service.PayrollRunService;
 import com.example.tsh.web.Service.PayrollService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,15 +23,17 @@ import java.util.Map;
 public class PayrollController {
 
     private final PayrollService payrollService;
+    private final PayrollRunService payrollRunService;
 
     @Autowired
-    public PayrollController(PayrollService payrollService) {
+    public PayrollController(PayrollService payrollService, PayrollRunService payrollRunService) {
         this.payrollService = payrollService;
+        this.payrollRunService = payrollRunService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Payroll>> getAllPayrolls() {
-        List<Payroll> payrolls = payrollService.getAllPayrolls();
+    public ResponseEntity<List<PayrollDTO>> getAllPayrolls() {
+        List<PayrollDTO> payrolls = payrollService.getAllPayrolls();
         return new ResponseEntity<>(payrolls, HttpStatus.OK);
     }
 
@@ -42,25 +48,25 @@ public class PayrollController {
     }
 
     @GetMapping("/employee/{employeeId}")
-    public ResponseEntity<List<Payroll>> getPayrollsByEmployeeId(@PathVariable Long employeeId) {
-        List<Payroll> payrolls = payrollService.getPayrollsByEmployeeId(employeeId);
+    public ResponseEntity<List<PayrollDTO>> getPayrollsByEmployeeId(@PathVariable Long employeeId) {
+        List<PayrollDTO> payrolls = payrollService.getPayrollsByEmployeeId(employeeId);
         return new ResponseEntity<>(payrolls, HttpStatus.OK);
     }
 
     @GetMapping("/dateRange")
-    public ResponseEntity<List<Payroll>> getPayrollsByDateRange(
+    public ResponseEntity<List<PayrollDTO>> getPayrollsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<Payroll> payrolls = payrollService.getPayrollsByDateRange(startDate, endDate);
+        List<PayrollDTO> payrolls = payrollService.getPayrollsByDateRange(startDate, endDate);
         return new ResponseEntity<>(payrolls, HttpStatus.OK);
     }
 
     @GetMapping("/employee/{employeeId}/dateRange")
-    public ResponseEntity<List<Payroll>> getPayrollsByEmployeeAndDateRange(
+    public ResponseEntity<List<PayrollDTO>> getPayrollsByEmployeeAndDateRange(
             @PathVariable Long employeeId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<Payroll> payrolls = payrollService.getPayrollsByEmployeeAndDateRange(employeeId, startDate, endDate);
+        List<PayrollDTO> payrolls = payrollService.getPayrollsByEmployeeAndDateRange(employeeId, startDate, endDate);
         return new ResponseEntity<>(payrolls, HttpStatus.OK);
     }
 
@@ -117,6 +123,43 @@ public class PayrollController {
         return new ResponseEntity<>(HttpStatus.NOT_IMPLEMENTED);
     }
 
+    //payroll run for all employees in one pass, 409 when the pay period already has a running or completed run
+    @PostMapping("/runs")
+    public ResponseEntity<?> runPayroll(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodDate,
+            @RequestParam(required = false) Boolean parallel) {
+        LocalDate date = periodDate != null ? periodDate : LocalDate.now();
+        try {
+            PayrollRun run = parallel != null
+                    ? payrollRunService.runPayroll(date, parallel)
+                    : payrollRunService.runPayroll(date);
+            return new ResponseEntity<>(run, HttpStatus.CREATED);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/runs")
+    public ResponseEntity<List<PayrollRun>> getAllPayrollRuns() {
+        return new ResponseEntity<>(payrollRunService.getAllPayrollRuns(), HttpStatus.OK);
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<PayrollRun> getPayrollRun(@PathVariable Long runId) {
+        try {
+            return new ResponseEntity<>(payrollRunService.getPayrollRun(runId), HttpStatus.OK);
+        } catch (EntityNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    //sampled calculation breakdowns, empty when app.payroll.audit.level=OFF
+    @GetMapping("/audit")
+    public ResponseEntity<List<PayrollAuditEntry>> getRecentAuditEntries(
+            @RequestParam(defaultValue = "100") int limit) {
+        return new ResponseEntity<>(payrollService.getRecentAuditEntries(limit), HttpStatus.OK);
+    }
+
     @GetMapping("/test")
     public String test(){
         return "Hello";
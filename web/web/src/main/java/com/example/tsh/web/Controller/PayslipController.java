@@ -4,9 +4,17 @@ import com.example.tsh.web.Entity.Employee;
 import com.example.tsh.web.Entity.Payslip;
 import com.example.tsh.web.Repository.EmployeeRepo;
 import com.example.tsh.web.Service.EmployeeService;
+import com.example.tsh.web.Service.PayslipArchiveService;
+import com.example.tsh.web.Service.PayslipBatchService;
 import com.example.tsh.web.Service.PayslipService;
+import com.example.tsh.web.Service.PayrollSelection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -14,11 +22,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 @RestController
@@ -31,21 +44,101 @@ public class PayslipController {
 
     private final EmployeeRepo employeeRepo;
 
+    private final PayslipBatchService payslipBatchService;
+
+    private final PayslipArchiveService payslipArchiveService;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.payslip.download.max-age-seconds:31536000}")
+    private long downloadMaxAgeSeconds;
+
     @Autowired
-    public PayslipController(PayslipService payslipService, EmployeeRepo employeeRepo) {
+    public PayslipController(PayslipService payslipService, EmployeeRepo employeeRepo,
+                             PayslipBatchService payslipBatchService, PayslipArchiveService payslipArchiveService,
+                             ObjectMapper objectMapper) {
         this.payslipService = payslipService;
         this.employeeRepo = employeeRepo;
+        this.payslipBatchService = payslipBatchService;
+        this.payslipArchiveService = payslipArchiveService;
+        this.objectMapper = objectMapper;
     }
 
    //gen payslip
     @PostMapping("/generate/{payrollId}")
 
-    public ResponseEntity<Payslip> generatePayslip(@PathVariable Long payrollId) {
+    public ResponseEntity<?> generatePayslip(@PathVariable Long payrollId,
+                                             @RequestParam(required = false) String template) {
         LOGGER.info("Generating payslip for payroll ID: " + payrollId);
-        Payslip payslip = payslipService.generatePayslip(payrollId);
-        return ResponseEntity.ok(payslip);
+        try {
+            Payslip payslip = payslipService.generatePayslip(payrollId, template);
+            return ResponseEntity.ok(payslip);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    //payslip templates that generate accepts as ?template=
+    @GetMapping("/templates")
+    public ResponseEntity<List<Map<String, Object>>> getPayslipTemplates() {
+        return ResponseEntity.ok(payslipService.getPayslipTemplates());
+    }
+
+    //gen payslips for a whole payroll run id or pay date (yyyy-MM-dd), runs in the background
+    @PostMapping("/runs/{payrollRunOrDate}")
+    public ResponseEntity<?> generatePayslipsForRun(@PathVariable String payrollRunOrDate,
+                                                    @RequestParam(required = false) String template) {
+        LOGGER.info("Generating payslips for payroll run/date: " + payrollRunOrDate);
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(payslipBatchService.startBatch(payrollRunOrDate, template));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    //progress of a bulk payslip run
+    @GetMapping("/runs/jobs/{jobId}")
+    public ResponseEntity<?> getPayslipBatch(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(payslipBatchService.getBatch(jobId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    //all payslips of a payroll run id or pay date as one ZIP with a manifest.csv, streamed as it is written.
+    //Spring only streams a ResponseEntity declared as StreamingResponseBody, so the errors are written the same way
+    @GetMapping("/runs/{payrollRunOrDate}/archive")
+    public ResponseEntity<StreamingResponseBody> downloadPayslipArchive(@PathVariable String payrollRunOrDate) {
+        PayrollSelection selection;
+        try {
+            selection = PayrollSelection.parse(payrollRunOrDate);
+        } catch (IllegalArgumentException e) {
+            return archiveError(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (payslipArchiveService.countPayslips(selection) == 0) {
+            return archiveError(HttpStatus.NOT_FOUND, "No payslips for " + selection);
+        }
+
+        StreamingResponseBody body = out -> payslipArchiveService.writeArchive(selection, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=payslips_" + selection + ".zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> archiveError(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, Map.of("error", message)));
     }
 
+    @GetMapping("/runs/jobs")
+    public ResponseEntity<List<Map<String, Object>>> getRecentPayslipBatches() {
+        return ResponseEntity.ok(payslipBatchService.getRecentBatches());
+    }
 
     @PutMapping("/{payslipId}/send")
     public ResponseEntity<Payslip> sendPayslipToEmployee(@PathVariable Long payslipId) {
@@ -54,21 +147,53 @@ public class PayslipController {
         return ResponseEntity.ok(payslip);
     }
 
-    //dl payslip
+    //dl payslip, streamed from the blob store (or rendered on demand in lazy mode). The ETag is the content hash:
+    //a cached copy gets 304, Range requests get 206 from Spring's Resource handling unless If-Range names another copy
     @GetMapping("/{payslipId}/download")
-    public ResponseEntity<ByteArrayResource> downloadPayslip(@PathVariable Long payslipId) {
-        LOGGER.info("Downloading payslip ID: " + payslipId);
+    public ResponseEntity<Resource> downloadPayslip(@PathVariable Long payslipId,
+                                                    @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                    WebRequest webRequest) throws IOException {
         Payslip payslip = payslipService.getPayslipById(payslipId);
 
-        payslipService.markPayslipAsDownloaded(payslipId);
-
-        ByteArrayResource resource = new ByteArrayResource(payslip.getFileContent());
-
-        return ResponseEntity.ok()
+        PayslipService.PayslipContent content;
+        try {
+            content = payslipService.getPayslipContent(payslip);
+        } catch (NoSuchFileException e) {
+            LOGGER.warning("No stored PDF for payslip ID " + payslipId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        String etag = "\"" + content.getContentHash() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        // a resume whose If-Range is not the current PDF (the payroll was corrected since) would splice two documents,
+        // so it gets the whole file. Spring ignores If-Range and ranges any Resource except an InputStreamResource
+        String ifRange = webRequest.getHeader(HttpHeaders.IF_RANGE);
+        boolean wholeFile = range != null && ifRange != null && !ifRange.equals(etag);
+
+        // resumed or partial reads of the same download are not a new download
+        if (range == null || wholeFile || range.startsWith("bytes=0-")) {
+            LOGGER.info("Downloading payslip ID: " + payslipId);
+            payslipService.markPayslipAsDownloaded(payslipId);
+        }
+
+        // a stored PDF never changes; one rendered on demand follows later payroll corrections, so revalidate it
+        CacheControl cacheControl = payslip.getContentHash() != null
+                ? CacheControl.maxAge(downloadMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + payslip.getPayslipFileName())
-                .contentLength(payslip.getFileContent().length)
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(resource);
+                .contentType(MediaType.APPLICATION_PDF);
+        if (wholeFile) {
+            return response.contentLength(content.getContentSize())
+                    .body(new InputStreamResource(content.getResource().getInputStream()));
+        }
+        return response.body(content.getResource());
     }
 
    //get all payslip para hr
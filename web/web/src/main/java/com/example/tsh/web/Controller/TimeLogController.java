@@ -1,13 +1,18 @@
 package com.example.tsh.web.Controller;
 
+import com.example.tsh.web.DTO.TimeLogDTO;
 import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Role;
 import com.example.tsh.web.Entity.TimeLog;
 import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Service.AuthPrincipal;
+import com.example.tsh.web.Service.ClockEventIngestService;
 import com.example.tsh.web.Service.JwtService;
 import com.example.tsh.web.Service.TimeLogService;
 import com.example.tsh.web.Service.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -21,6 +26,7 @@ import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -44,14 +50,15 @@ public class TimeLogController {
     @Autowired
     private EmployeeRepo employeeRepo;
 
+    @Autowired
+    private ClockEventIngestService clockEventIngestService;
+
 
 
     // Get time log by ID
     @GetMapping("/{id}")
-    public ResponseEntity<TimeLog> getTimeLogById(@PathVariable Long id, Authentication authentication) {
-        String username = authentication.getName();
-        Employee employee = employeeRepo.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Employee not found"));
+    public ResponseEntity<TimeLogDTO> getTimeLogById(@PathVariable Long id, Authentication authentication) {
+        Employee employee = currentEmployee(authentication);
 
         TimeLog timeLog = timeLogService.findTimeLogById(id).orElse(null);
 
@@ -63,28 +70,24 @@ public class TimeLogController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        return ResponseEntity.ok(timeLog);
+        return ResponseEntity.ok(TimeLogDTO.from(timeLog));
     }
 
     //get all
     @GetMapping
-    public ResponseEntity<List<TimeLog>> getAllTimeLogsForEmployee(Authentication authentication) {
-        String username = authentication.getName();
-        Employee employee = employeeRepo.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Employee not found"));
+    public ResponseEntity<List<TimeLogDTO>> getAllTimeLogsForEmployee(Authentication authentication) {
+        Employee employee = currentEmployee(authentication);
 
-        List<TimeLog> logs = timeLogService.findTimeLogsByEmployee(employee);
+        List<TimeLogDTO> logs = timeLogService.findTimeLogsByEmployee(employee);
         return ResponseEntity.ok(logs);
     }
 
 
     @GetMapping("/today")
     public ResponseEntity<?> getTodayLogs(Authentication authentication) {
-        String username = authentication.getName();
-        Employee employee = employeeRepo.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Employee not found"));
+        Employee employee = currentEmployee(authentication);
 
-        List<TimeLog> logs = timeLogService.findTodayLogsByEmployee(employee);
+        List<TimeLogDTO> logs = timeLogService.findTodayLogsByEmployee(employee);
         System.out.println("Logs before serialization: " + logs);
         return ResponseEntity.ok(logs);
     }
@@ -93,26 +96,28 @@ public class TimeLogController {
     public ResponseEntity<?> getLogsByDate(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
             Authentication authentication) {
-        String username = authentication.getName();
-        Employee employee = employeeRepo.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Employee not found"));
+        Employee employee = currentEmployee(authentication);
 
-        List<TimeLog> logs = timeLogService.findLogsByEmployeeAndDate(employee, date);
+        List<TimeLogDTO> logs = timeLogService.findLogsByEmployeeAndDate(employee, date);
         return ResponseEntity.ok(logs);
     }
 
 
+    // clients may send an Idempotency-Key per tap, a retried request then returns the log it already wrote
     @PostMapping("/time-in")
-    public ResponseEntity<?> timeIn(Authentication authentication) {
+    public ResponseEntity<?> timeIn(Authentication authentication,
+                                    @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            String username = authentication.getName();
-            Employee employee = employeeRepo.findByUsername(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("Employee not found"));
-            System.out.println("Start timeIn: " + System.currentTimeMillis());
-            TimeLog timeLog = timeLogService.timeIn(employee);
-            System.out.println("End timeIn: " + System.currentTimeMillis());
-            return ResponseEntity.ok(timeLog);
-        } catch (IllegalStateException e) {
+            Employee employee = currentEmployee(authentication);
+            if (clockEventIngestService.isAsync()) {
+                return accepted(clockEventIngestService.submit(
+                        ClockEventIngestService.EventType.TIME_IN, employee.getEmployeeId(), idempotencyKey));
+            }
+            return ResponseEntity.ok(timeLogService.timeIn(employee.getEmployeeId(), idempotencyKey));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -122,15 +127,19 @@ public class TimeLogController {
 
 
     @PostMapping("/time-out")
-    public ResponseEntity<?> timeOut(Authentication authentication) {
+    public ResponseEntity<?> timeOut(Authentication authentication,
+                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            String username = authentication.getName();
-            Employee employee = employeeRepo.findByUsername(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("Employee not found"));
-
-            TimeLog timeLog = timeLogService.timeOut(employee);
-            return ResponseEntity.ok(timeLog);
-        } catch (IllegalStateException e) {
+            Employee employee = currentEmployee(authentication);
+            if (clockEventIngestService.isAsync()) {
+                return accepted(clockEventIngestService.submit(
+                        ClockEventIngestService.EventType.TIME_OUT, employee.getEmployeeId(), idempotencyKey));
+            }
+            return ResponseEntity.ok(timeLogService.timeOut(employee.getEmployeeId(), idempotencyKey));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -139,12 +148,21 @@ public class TimeLogController {
     }
 
 
+    // async ingest mode: the event is durable but not yet in time_logs, the writer applies it shortly
+    private ResponseEntity<?> accepted(ClockEventIngestService.Acknowledgement ack) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", ack.isDuplicate() ? "DUPLICATE" : "ACCEPTED");
+        body.put("eventId", ack.getEvent().getSequence());
+        body.put("type", ack.getEvent().getType().name());
+        body.put("employeeId", ack.getEvent().getEmployeeId());
+        body.put("eventTime", ack.getEvent().getEventTime());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+    }
+
+
     @GetMapping("/status")
     public ResponseEntity<?> getCurrentStatus(Authentication authentication) {
-        String username = authentication.getName(); // should return the username from JWT
-
-        Employee employee = employeeRepo.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Employee not found"));
+        Employee employee = currentEmployee(authentication);
 
         TimeLog activeLog = timeLogService.getCurrentStatus(employee);
         Map<String, Object> response = new HashMap<>();
@@ -173,9 +191,7 @@ public class TimeLogController {
             @RequestParam Long hrId,
             Authentication authentication) {
         try {
-            String username = authentication.getName();
-            Employee employee = employeeRepo.findByUsername(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("Employee not found"));
+            Employee employee = currentEmployee(authentication);
 
             TimeLog timeLog = timeLogService.findTimeLogById(timeLogId)
                     .orElseThrow(() -> new IllegalArgumentException("TimeLog not found"));
@@ -185,7 +201,7 @@ public class TimeLogController {
             }
 
             TimeLog updatedLog = timeLogService.assignHrToTimeLog(timeLogId, hrId);
-            return ResponseEntity.ok(updatedLog);
+            return ResponseEntity.ok(TimeLogDTO.from(updatedLog));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to assign HR: " + e.getMessage()));
@@ -194,12 +210,19 @@ public class TimeLogController {
 
     @GetMapping("/cutoff-hours")
     public ResponseEntity<?> getCutoffHours(Authentication authentication) {
-        String username = authentication.getName();
-        Employee employee = employeeRepo.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Employee not found"));
+        Employee employee = currentEmployee(authentication);
 
         List<Map<String, Object>> result = timeLogService.getEmployeeHoursByCutoff(employee.getEmployeeId());
 
         return ResponseEntity.ok(result);
     }
-}
\ No newline at end of file
+
+    // the JWT filter already resolved the employee id, so this is a reference rather than another lookup by username
+    private Employee currentEmployee(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AuthPrincipal principal && principal.getRole() == Role.EMPLOYEE) {
+            return employeeRepo.getReferenceById(principal.getUserId());
+        }
+        return employeeRepo.findByUsername(authentication.getName())
+                .orElseThrow(() -> new UsernameNotFoundException("Employee not found"));
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.tsh.web.DTO;
 
-import com.example.tsh.web.Entity.Employee;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -9,14 +8,14 @@ import lombok.Setter;
 public class AttendanceRecord {
 
     private Long employeeId;
-    private Employee employee;
+    private EmployeeSummary employee;
     private String date;
     private String status;
 
 
     public AttendanceRecord() {}
 
-    public AttendanceRecord(Long employeeId, Employee employee, String date, String status) {
+    public AttendanceRecord(Long employeeId, EmployeeSummary employee, String date, String status) {
         this.employeeId = employeeId;
         this.employee = employee;
         this.date = date;
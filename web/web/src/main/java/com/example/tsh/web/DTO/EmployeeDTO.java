@@ -0,0 +1,43 @@
+package com.example.tsh.web.DTO;
+
+import com.example.tsh.web.Entity.Role;
+import lombok.Getter;
+import lombok.Setter;
+
+// employee listing row, the entity minus credentials and the timeLogs/payrolls collections
+@Setter
+@Getter
+public class EmployeeDTO {
+
+    private Long employeeId;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String contact;
+    private String position;
+    private float baseSalary;
+    private float regularHolidayPay;
+    private float specialHolidayPay;
+    private int absenceDays;
+    private Role role;
+
+    public EmployeeDTO() {}
+
+    public EmployeeDTO(Long employeeId, String username, String email, String firstName, String lastName,
+                       String contact, String position, float baseSalary, float regularHolidayPay,
+                       float specialHolidayPay, int absenceDays, Role role) {
+        this.employeeId = employeeId;
+        this.username = username;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.contact = contact;
+        this.position = position;
+        this.baseSalary = baseSalary;
+        this.regularHolidayPay = regularHolidayPay;
+        this.specialHolidayPay = specialHolidayPay;
+        this.absenceDays = absenceDays;
+        this.role = role;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.tsh.web.DTO;
+
+import com.example.tsh.web.Entity.Employee;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class EmployeeSummary {
+
+    private Long employeeId;
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String position;
+
+    public EmployeeSummary() {}
+
+    public EmployeeSummary(Long employeeId, String username, String firstName, String lastName,
+                           String email, String position) {
+        this.employeeId = employeeId;
+        this.username = username;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.position = position;
+    }
+
+    public static EmployeeSummary from(Employee employee) {
+        if (employee == null) {
+            return null;
+        }
+        return new EmployeeSummary(employee.getEmployeeId(), employee.getUsername(), employee.getFirstName(),
+                employee.getLastName(), employee.getEmail(), employee.getPosition());
+    }
+}
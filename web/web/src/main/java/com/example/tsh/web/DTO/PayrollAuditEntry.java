@@ -0,0 +1,65 @@
+package com.example.tsh.web.DTO;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class PayrollAuditEntry {
+
+    private long employeeId;
+    private LocalDate payrollDate;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private LocalDateTime recordedAt;
+
+    // attendance step
+    private int timeLogCount;
+    private int presentDays;
+    private int workingDays;
+    private int absenceDays;
+
+    // salary step
+    private float dailyRate;
+    private float proratedSalary;
+    private float absenceDeduction;
+
+    // overtime step
+    private float overtimeHours;
+    private float overtimeRate;
+    private float overtimePay;
+
+    // deductions step
+    private float grossIncome;
+    private float sssContribution;
+    private float philhealthContribution;
+    private float pagibigContribution;
+    private float incomeTax;
+    private float totalDeductions;
+    private float netIncome;
+
+    // anomalies hit during the calculation, e.g. NO_TIME_LOGS
+    private List<String> flags = new ArrayList<>();
+
+    // only filled at DETAIL level: epoch day, worked minutes, overtime minutes per day
+    private List<long[]> days;
+
+    public PayrollAuditEntry() {}
+
+    public PayrollAuditEntry(long employeeId, LocalDate payrollDate, LocalDate periodStart, LocalDate periodEnd) {
+        this.employeeId = employeeId;
+        this.payrollDate = payrollDate;
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.recordedAt = LocalDateTime.now();
+    }
+
+    public void flag(String flag) {
+        this.flags.add(flag);
+    }
+}
@@ -29,6 +29,38 @@ public class PayrollDTO {
     private float totalDeductions;
     private float grossIncome;
     private float netIncome;
+    private EmployeeSummary employee;
 
+    public PayrollDTO() {}
 
+    // used by JPQL constructor expressions in PayrollRepository
+    public PayrollDTO(Long payrollId, LocalDate payrollDate, float baseSalary, float regularHolidayPay,
+                      float specialHolidayPay, float overtimeHours, float overtimeRate, float overtimePay,
+                      int absenceDays, float absenceDeduction, float sssContribution, float philhealthContribution,
+                      float pagibigContribution, float incomeTax, float totalDeductions, float grossIncome,
+                      float netIncome, Long employeeId, String username, String firstName, String lastName,
+                      String email, String position) {
+        this.payrollId = payrollId;
+        this.payrollDate = payrollDate;
+        this.baseSalary = baseSalary;
+        this.regularHolidayPay = regularHolidayPay;
+        this.specialHolidayPay = specialHolidayPay;
+        this.overtimeHours = overtimeHours;
+        this.overtimeRate = overtimeRate;
+        this.overtimePay = overtimePay;
+        this.absenceDays = absenceDays;
+        this.absenceDeduction = absenceDeduction;
+        this.sssContribution = sssContribution;
+        this.philhealthContribution = philhealthContribution;
+        this.pagibigContribution = pagibigContribution;
+        this.incomeTax = incomeTax;
+        this.totalDeductions = totalDeductions;
+        this.grossIncome = grossIncome;
+        this.netIncome = netIncome;
+        this.employeeId = employeeId;
+        this.employeeFirstName = firstName;
+        this.employeeLastName = lastName;
+        this.employeePosition = position;
+        this.employee = new EmployeeSummary(employeeId, username, firstName, lastName, email, position);
+    }
 }
\ No newline at end of file
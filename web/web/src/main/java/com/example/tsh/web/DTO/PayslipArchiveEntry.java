@@ -0,0 +1,39 @@
+package com.example.tsh.web.DTO;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+// one payslip of a bulk archive: what the manifest lists and where its PDF is stored
+@Getter
+public class PayslipArchiveEntry {
+
+    private final Long payslipId;
+    private final String fileName;
+    private final String status;
+    private final String contentHash;
+    private final Long contentSize;
+    private final Long payrollId;
+    private final LocalDate payrollDate;
+    private final float netIncome;
+    private final Long employeeId;
+    private final String firstName;
+    private final String lastName;
+
+    // used by JPQL constructor expressions, so no entity is loaded or managed
+    public PayslipArchiveEntry(Long payslipId, String fileName, String status, String contentHash, Long contentSize,
+                               Long payrollId, LocalDate payrollDate, float netIncome,
+                               Long employeeId, String firstName, String lastName) {
+        this.payslipId = payslipId;
+        this.fileName = fileName;
+        this.status = status;
+        this.contentHash = contentHash;
+        this.contentSize = contentSize;
+        this.payrollId = payrollId;
+        this.payrollDate = payrollDate;
+        this.netIncome = netIncome;
+        this.employeeId = employeeId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.tsh.web.DTO;
+
+import com.example.tsh.web.Entity.HR;
+import com.example.tsh.web.Entity.TimeLog;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// same fields the TimeLog entity used to serialize, with the employee and HR reduced to summaries
+@Setter
+@Getter
+public class TimeLogDTO {
+
+    private Long timeLogId;
+    private Long employeeId;
+    private EmployeeSummary employee;
+    private LocalDateTime timeIn;
+    private LocalDateTime timeOut;
+    private Integer durationMinutes;
+    private LocalDateTime date;
+    private String cutoffPeriod;
+    private Integer overtimeMinutes;
+    private Long assignedHrId;
+    private String assignedHrName;
+
+    public TimeLogDTO() {}
+
+    // used by JPQL constructor expressions, so no entity is loaded or managed
+    public TimeLogDTO(Long timeLogId, LocalDateTime timeIn, LocalDateTime timeOut, Integer durationMinutes,
+                      LocalDateTime date, String cutoffPeriod, Integer overtimeMinutes,
+                      Long employeeId, String username, String firstName, String lastName, String email, String position,
+                      Long assignedHrId, String hrFirstName, String hrLastName) {
+        this.timeLogId = timeLogId;
+        this.timeIn = timeIn;
+        this.timeOut = timeOut;
+        this.durationMinutes = durationMinutes;
+        this.date = date;
+        this.cutoffPeriod = cutoffPeriod;
+        this.overtimeMinutes = overtimeMinutes;
+        this.employeeId = employeeId;
+        if (employeeId != null) {
+            this.employee = new EmployeeSummary(employeeId, username, firstName, lastName, email, position);
+        }
+        this.assignedHrId = assignedHrId;
+        if (assignedHrId != null) {
+            this.assignedHrName = hrFirstName + " " + hrLastName;
+        }
+    }
+
+    public static TimeLogDTO from(TimeLog log) {
+        TimeLogDTO dto = new TimeLogDTO();
+        dto.timeLogId = log.getTimeLogId();
+        dto.timeIn = log.getTimeIn();
+        dto.timeOut = log.getTimeOut();
+        dto.durationMinutes = log.getDurationMinutes();
+        dto.date = log.getDate();
+        dto.cutoffPeriod = log.getCutoffPeriod();
+        dto.overtimeMinutes = log.getOvertimeMinutes();
+        if (log.getEmployee() != null) {
+            dto.employeeId = log.getEmployee().getEmployeeId();
+            dto.employee = EmployeeSummary.from(log.getEmployee());
+        }
+        HR hr = log.getAssignedHr();
+        if (hr != null) {
+            dto.assignedHrId = hr.getHrId();
+            dto.assignedHrName = hr.getFirstName() + " " + hr.getLastName();
+        }
+        return dto;
+    }
+}
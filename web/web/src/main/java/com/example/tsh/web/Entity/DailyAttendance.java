@@ -0,0 +1,50 @@
+package com.example.tsh.web.Entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+@Entity
+@Table(name = "daily_attendance",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_attendance_employee_date", columnNames = {"employee_id", "work_date"}),
+        indexes = @Index(name = "idx_daily_attendance_work_date", columnList = "work_date"))
+public class DailyAttendance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long dailyAttendanceId;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @Column(name = "employee_id", insertable = false, updatable = false)
+    private Long employeeId;
+
+    @Column(name = "work_date", nullable = false)
+    private LocalDate workDate;
+
+    // number of time logs started that day
+    @Column(name = "log_count", nullable = false)
+    private int logCount;
+
+    // worked_minutes > 0: a day counts once time has been clocked out, the same rule payroll pays by.
+    // A log that is still open (or closed at zero minutes) does not make the day present
+    @Column(name = "present", nullable = false)
+    private boolean present;
+
+    @Column(name = "worked_minutes", nullable = false)
+    private int workedMinutes;
+
+    @Column(name = "overtime_minutes", nullable = false)
+    private int overtimeMinutes;
+
+    public DailyAttendance() {
+    }
+}
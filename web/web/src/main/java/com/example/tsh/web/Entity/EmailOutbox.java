@@ -0,0 +1,47 @@
+package com.example.tsh.web.Entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// mail waiting for EmailOutboxDispatcher; rows stay PENDING until sent or out of attempts (FAILED)
+@Setter
+@Getter
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at")
+})
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long outboxId;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    // at most one PENDING row per key (see schema.sql), a newer message for the same key replaces its content
+    @Column(length = 200)
+    private String dedupeKey;
+
+    private String status;
+
+    private int attempts;
+
+    // bumped whenever the content is replaced, so a send of the old content does not mark the new one as sent
+    private int revision;
+
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -1,6 +1,7 @@
 package com.example.tsh.web.Entity;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -9,6 +10,7 @@ import lombok.Setter;
 @Getter
 @Entity
 @Table(name = "hr")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class HR {
 
     @Id
@@ -0,0 +1,31 @@
+package com.example.tsh.web.Entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// one row per one-off data job that has completed, so startup checks a primary key instead of re-running it
+@Setter
+@Getter
+@Entity
+@Table(name = "maintenance_job")
+public class MaintenanceJob {
+
+    @Id
+    private String jobName;
+
+    private String result;
+
+    private LocalDateTime completedAt;
+
+    public MaintenanceJob() {
+    }
+
+    public MaintenanceJob(String jobName, String result) {
+        this.jobName = jobName;
+        this.result = result;
+        this.completedAt = LocalDateTime.now();
+    }
+}
@@ -14,11 +14,11 @@ public class PasswordResetToken {
 
     private String token;
 
-    @OneToOne(targetEntity = Employee.class, fetch = FetchType.EAGER)
+    @OneToOne(targetEntity = Employee.class, fetch = FetchType.LAZY)
     @JoinColumn(name = "employee_id")
     private Employee employee;
 
-    @OneToOne(targetEntity = HR.class, fetch = FetchType.EAGER)
+    @OneToOne(targetEntity = HR.class, fetch = FetchType.LAZY)
     @JoinColumn(name = "hr_id")
     private HR hr;
 
@@ -1,24 +1,24 @@
 package com.example.tsh.web.Entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import java.time.LocalDate;
-import java.util.logging.Logger;
 
 @Setter
 @Getter
 @Entity
 @Table(name = "payroll")
+@NamedEntityGraph(name = "Payroll.employee", attributeNodes = @NamedAttributeNode("employee"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Payroll {
-    private static final Logger LOGGER = Logger.getLogger(Payroll.class.getName());
-
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long payrollId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "employee_id", nullable = false)
     @JsonBackReference
     private Employee employee;
@@ -30,6 +30,9 @@ public class Payroll {
 
     private LocalDate payrollDate;
 
+    @Column(name = "payroll_run_id")
+    private Long payrollRunId;
+
     private float baseSalary;
     private float regularHolidayPay;
     private float specialHolidayPay;
@@ -62,23 +65,14 @@ public class Payroll {
     }
 
     public void calculatePayroll() {
-        LOGGER.info("Starting payroll calculation");
-        LOGGER.info("Base salary (already prorated): " + this.baseSalary);
-        LOGGER.info("Overtime hours: " + this.overtimeHours);
-        LOGGER.info("Overtime rate: " + this.overtimeRate);
-
         this.grossIncome = this.baseSalary +
                 this.regularHolidayPay +
                 this.specialHolidayPay +
                 this.overtimePay;
 
-        LOGGER.info("Calculated gross income: " + this.grossIncome);
-
         calculatePhilippineDeductions();
-        LOGGER.info("Total deductions: " + this.totalDeductions);
 
         this.netIncome = this.grossIncome - this.totalDeductions;
-        LOGGER.info("Calculated net income: " + this.netIncome);
     }
 
     private void calculatePhilippineDeductions() {
@@ -89,21 +83,13 @@ public class Payroll {
         } else {
             this.sssContribution = 1350.0f;
         }
-        LOGGER.info("SSS contribution: " + this.sssContribution);
-
 
         float philhealthRate = 0.04f;
         this.philhealthContribution = Math.min(3200.0f, Math.max(400.0f, this.grossIncome * philhealthRate));
-        LOGGER.info("PhilHealth contribution: " + this.philhealthContribution);
-
 
         this.pagibigContribution = Math.min(100.0f, this.grossIncome * 0.02f);
-        LOGGER.info("Pag-IBIG contribution: " + this.pagibigContribution);
-
 
         calculateIncomeTax();
-        LOGGER.info("Income tax: " + this.incomeTax);
-
 
         this.totalDeductions = this.sssContribution + this.philhealthContribution +
                 this.pagibigContribution + this.incomeTax;
@@ -114,8 +100,6 @@ public class Payroll {
 
         float taxableIncome = this.grossIncome - (this.sssContribution +
                 this.philhealthContribution + this.pagibigContribution);
-        LOGGER.info("Taxable income: " + taxableIncome);
-
 
         if (taxableIncome <= 20833) {
             this.incomeTax = 0; // 0%
@@ -0,0 +1,57 @@
+package com.example.tsh.web.Entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Setter
+@Getter
+@Entity
+@Table(name = "payroll_run")
+public class PayrollRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long payrollRunId;
+
+    private LocalDate payrollDate;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+
+    private String status;
+
+    private String computeMode;
+
+    private int employeeCount;
+    private int timeLogCount;
+    private int payrollCount;
+
+    // timing stats for the run, in millis
+    private long loadMillis;
+    private long computeMillis;
+    private long persistMillis;
+    private long totalMillis;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    public PayrollRun() {
+        this.status = "RUNNING";
+        this.startedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollRun{" +
+                "payrollRunId=" + payrollRunId +
+                ", payrollDate=" + payrollDate +
+                ", status='" + status + '\'' +
+                ", employeeCount=" + employeeCount +
+                ", payrollCount=" + payrollCount +
+                ", totalMillis=" + totalMillis +
+                '}';
+    }
+}
@@ -18,12 +18,12 @@ public class Payslip {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long payslipId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payroll_id", nullable = false)
     @JsonBackReference
     private Payroll payroll;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "employee_id", nullable = false)
     @JsonBackReference
     private Employee employee;
@@ -44,9 +44,11 @@ public class Payslip {
 
     private String fileFormat;
 
-    @Lob
-    @Column
-    private byte[] fileContent;
+    // the PDF itself lives in PayslipBlobStore under this SHA-256
+    @Column(length = 64)
+    private String contentHash;
+
+    private Long contentSize;
 
 
     public Payslip() {
@@ -12,14 +12,21 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "time_logs")
+@NamedEntityGraph(name = "TimeLog.employee", attributeNodes = {
+        @NamedAttributeNode("employee"),
+        @NamedAttributeNode("assignedHr")
+})
+@Table(name = "time_logs", indexes = {
+        @Index(name = "idx_time_logs_employee_date", columnList = "employee_id, date"),
+        @Index(name = "idx_time_logs_date", columnList = "date")
+})
 public class TimeLog {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long timeLogId;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "employee_id")
     private Employee employee;
 
@@ -43,10 +50,17 @@ public class TimeLog {
 
 
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_hr_id")
     private HR assignedHr;
 
+    // client idempotency keys of the clock-in/clock-out events, unique per employee (see schema.sql)
+    @Column(name = "clock_in_key", length = 64)
+    private String clockInKey;
+
+    @Column(name = "clock_out_key", length = 64)
+    private String clockOutKey;
+
     public TimeLog(){
 
     }
@@ -62,9 +76,7 @@ public class TimeLog {
         this.timeIn = timeIn;
         this.timeOut = timeOut;
         this.date = timeIn;
-        if (timeIn != null && timeOut != null) {
-            this.durationMinutes = calculateDurationInMinutes(timeIn, timeOut);
-        }
+        recalculateOvertimeMutates();
     }
 
 
@@ -72,6 +84,21 @@ public class TimeLog {
         return (int) java.time.Duration.between(start, end).toMinutes();
     }
 
+    // read-only fallbacks for legacy rows saved before duration/overtime were derived on write
+    public Integer resolveDurationMinutes() {
+        if ((this.durationMinutes == null || this.durationMinutes <= 0) && this.timeIn != null && this.timeOut != null) {
+            return Math.max(0, calculateDurationInMinutes(this.timeIn, this.timeOut));
+        }
+        return this.durationMinutes;
+    }
+
+    public Integer resolveOvertimeMinutes() {
+        if ((this.overtimeMinutes == null || this.overtimeMinutes < 0) && this.timeIn != null && this.timeOut != null) {
+            return Math.max(0, resolveDurationMinutes() - STANDARD_WORK_MINUTES);
+        }
+        return this.overtimeMinutes;
+    }
+
     public String getCutoffPeriod() {
         return cutoffPeriod;
     }
@@ -90,6 +117,14 @@ public class TimeLog {
     }
 
 
+    public String getClockInKey() {
+        return clockInKey;
+    }
+
+    public String getClockOutKey() {
+        return clockOutKey;
+    }
+
     public Long getTimeLogId() {
         return timeLogId;
     }
@@ -113,34 +148,27 @@ public class TimeLog {
     public void setTimeIn(LocalDateTime timeIn) {
         this.timeIn = timeIn;
         this.date = timeIn;
+        recalculateOvertimeMutates();
     }
 
     public LocalDateTime getTimeOut() {
         return timeOut;
     }
 
+    // duration and overtime are derived here, whenever a log is closed or its times are adjusted
     public void recalculateOvertimeMutates() {
         if (this.timeIn != null && this.timeOut != null) {
             this.durationMinutes = (int) Duration.between(this.timeIn, this.timeOut).toMinutes();
 
-            int standardWorkMinutes = 8 * 60;
-            this.overtimeMinutes = Math.max(0, this.durationMinutes - standardWorkMinutes);
+            // Standard workday is 8 hours (480 minutes)
+            this.overtimeMinutes = Math.max(0, this.durationMinutes - STANDARD_WORK_MINUTES);
         }
     }
 
 
     public void setTimeOut(LocalDateTime timeOut) {
         this.timeOut = timeOut;
-
-        // Recalculate duration and overtime when timeOut is set
-        if (this.timeIn != null && timeOut != null) {
-            this.durationMinutes = (int) Duration.between(this.timeIn, timeOut).toMinutes();
-
-            // Standard workday is 8 hours (480 minutes)
-            int standardWorkMinutes = 8 * 60;
-            this.overtimeMinutes = Math.max(0, this.durationMinutes - standardWorkMinutes);
-
-        }
+        recalculateOvertimeMutates();
     }
 
     public Integer getDurationMinutes() {
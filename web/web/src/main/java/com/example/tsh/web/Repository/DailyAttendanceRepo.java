@@ -0,0 +1,67 @@
+package com.example.tsh.web.Repository;
+
+import com.example.tsh.web.Entity.DailyAttendance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyAttendanceRepo extends JpaRepository<DailyAttendance, Long> {
+
+    // deltas are added on the latest row version, so concurrent clock events on the same day never overwrite each other.
+    // present is worked_minutes > 0 everywhere the rollup is written, see DailyAttendance
+    @Modifying
+    @Query(value = "INSERT INTO daily_attendance (employee_id, work_date, log_count, present, worked_minutes, overtime_minutes) " +
+            "VALUES (:employeeId, :workDate, :logCount, :workedMinutes > 0, :workedMinutes, :overtimeMinutes) " +
+            "ON CONFLICT (employee_id, work_date) DO UPDATE SET " +
+            "log_count = daily_attendance.log_count + EXCLUDED.log_count, " +
+            "present = daily_attendance.worked_minutes + EXCLUDED.worked_minutes > 0, " +
+            "worked_minutes = daily_attendance.worked_minutes + EXCLUDED.worked_minutes, " +
+            "overtime_minutes = daily_attendance.overtime_minutes + EXCLUDED.overtime_minutes",
+            nativeQuery = true)
+    int applyDelta(@Param("employeeId") Long employeeId,
+                   @Param("workDate") LocalDate workDate,
+                   @Param("logCount") int logCount,
+                   @Param("workedMinutes") int workedMinutes,
+                   @Param("overtimeMinutes") int overtimeMinutes);
+
+    // blocks clock-in/out writers on the rollup (not readers) while a range is rebuilt
+    @Modifying
+    @Query(value = "LOCK TABLE daily_attendance IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query("DELETE FROM DailyAttendance d WHERE d.workDate >= :from AND d.workDate < :to")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_attendance (employee_id, work_date, log_count, present, worked_minutes, overtime_minutes) " +
+            "SELECT t.employee_id, CAST(t.time_in AS date), COUNT(*), " +
+            "COALESCE(SUM(GREATEST(COALESCE(t.duration_minutes, 0), 0)), 0) > 0, " +
+            "COALESCE(SUM(GREATEST(COALESCE(t.duration_minutes, 0), 0)), 0), " +
+            "COALESCE(SUM(GREATEST(COALESCE(t.overtime_minutes, 0), 0)), 0) " +
+            "FROM time_logs t " +
+            "WHERE t.employee_id IS NOT NULL AND t.time_in >= :fromTime AND t.time_in < :toTime " +
+            "GROUP BY t.employee_id, CAST(t.time_in AS date)",
+            nativeQuery = true)
+    int insertRangeFromTimeLogs(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+
+    List<DailyAttendance> findByEmployeeIdAndWorkDateBetween(Long employeeId, LocalDate start, LocalDate end);
+
+    List<DailyAttendance> findByWorkDateBetween(LocalDate start, LocalDate end);
+
+    List<DailyAttendance> findByEmployeeIdInAndWorkDateBetween(Collection<Long> employeeIds, LocalDate start, LocalDate end);
+
+    @Query("SELECT COUNT(DISTINCT d.workDate) FROM DailyAttendance d WHERE d.present = true")
+    long countDistinctPresentDates();
+
+    @Query("SELECT COALESCE(SUM(d.workedMinutes), 0) FROM DailyAttendance d")
+    long sumWorkedMinutes();
+}
@@ -0,0 +1,35 @@
+package com.example.tsh.web.Repository;
+
+import com.example.tsh.web.Entity.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // per-key dedupe: while a message for the key is still pending, a new one only replaces its content
+    @Modifying
+    @Query(value = "INSERT INTO email_outbox (recipient, subject, body, dedupe_key, status, attempts, revision, " +
+            "next_attempt_at, created_at) " +
+            "VALUES (:recipient, :subject, :body, :dedupeKey, 'PENDING', 0, 0, :now, :now) " +
+            "ON CONFLICT (dedupe_key) WHERE status = 'PENDING' DO UPDATE SET " +
+            "recipient = EXCLUDED.recipient, subject = EXCLUDED.subject, body = EXCLUDED.body, " +
+            "revision = email_outbox.revision + 1, " +
+            "next_attempt_at = LEAST(email_outbox.next_attempt_at, EXCLUDED.next_attempt_at)",
+            nativeQuery = true)
+    int enqueue(@Param("recipient") String recipient,
+                @Param("subject") String subject,
+                @Param("body") String body,
+                @Param("dedupeKey") String dedupeKey,
+                @Param("now") LocalDateTime now);
+
+    long countByStatus(String status);
+
+    @Query("SELECT COUNT(o) FROM EmailOutbox o WHERE o.status = 'PENDING' AND o.nextAttemptAt <= :now")
+    long countDue(@Param("now") LocalDateTime now);
+}
@@ -1,7 +1,10 @@
 package com.example.tsh.web.Repository;
 
+import com.example.tsh.web.DTO.EmployeeDTO;
+import com.example.tsh.web.DTO.EmployeeSummary;
 import com.example.tsh.web.Entity.Employee;
 import com.example.tsh.web.Entity.TimeLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,8 +16,26 @@ import java.util.Optional;
 
 @Repository
 public interface EmployeeRepo extends JpaRepository<Employee, Long> {
+
+    String EMPLOYEE_SUMMARY_SELECT = "SELECT new com.example.tsh.web.DTO.EmployeeSummary(" +
+            "e.employeeId, e.username, e.firstName, e.lastName, e.email, e.position) FROM Employee e ";
+
     Optional<Employee> findByUsername(String username);
     Optional<Employee> findByEmail(String email);
 
+    // listing projections, only the selected columns are read and nothing is managed
+    @Query("SELECT new com.example.tsh.web.DTO.EmployeeDTO(e.employeeId, e.username, e.email, e.firstName, " +
+            "e.lastName, e.contact, e.position, e.baseSalary, e.regularHolidayPay, e.specialHolidayPay, " +
+            "e.absenceDays, e.role) FROM Employee e ORDER BY e.employeeId")
+    List<EmployeeDTO> findAllListItems();
+
+    @Query(EMPLOYEE_SUMMARY_SELECT + "ORDER BY e.employeeId")
+    List<EmployeeSummary> findAllSummaries();
+
+    @Query(EMPLOYEE_SUMMARY_SELECT + "ORDER BY e.employeeId")
+    List<EmployeeSummary> findSummaries(Pageable pageable);
+
+    @Query(EMPLOYEE_SUMMARY_SELECT + "WHERE e.employeeId = :employeeId")
+    Optional<EmployeeSummary> findSummaryById(@Param("employeeId") Long employeeId);
 
 }
@@ -1,11 +1,23 @@
 package com.example.tsh.web.Repository;
 
 import com.example.tsh.web.Entity.LeaveRequest;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
+import java.util.Optional;
 
 public interface LeaveRequestRepo extends JpaRepository<LeaveRequest, Long> {
+    // leave listings are serialized with the employee and HR, so both are fetched in the same query
+    @EntityGraph(attributePaths = {"employee", "assignedHR"})
     List<LeaveRequest> findByEmployee_EmployeeId(Long employeeId);
+
+    @EntityGraph(attributePaths = {"employee", "assignedHR"})
     List<LeaveRequest> findByStatus(String status);
+
+    @EntityGraph(attributePaths = {"employee", "assignedHR"})
     List<LeaveRequest> findByStatusAndAssignedHR_HrId(String status, Long hrId);
+
+    @Override
+    @EntityGraph(attributePaths = {"employee", "assignedHR"})
+    Optional<LeaveRequest> findById(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.tsh.web.Repository;
+
+import com.example.tsh.web.Entity.MaintenanceJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MaintenanceJobRepository extends JpaRepository<MaintenanceJob, String> {
+}
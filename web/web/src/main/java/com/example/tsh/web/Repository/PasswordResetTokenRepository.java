@@ -3,6 +3,7 @@ package com.example.tsh.web.Repository;
 import com.example.tsh.web.Entity.Employee;
 import com.example.tsh.web.Entity.HR;
 import com.example.tsh.web.Entity.PasswordResetToken;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,6 +11,7 @@ import java.util.Optional;
 
 @Repository
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
+    @EntityGraph(attributePaths = {"employee", "hr"})
     PasswordResetToken findByToken(String token);
     Optional<PasswordResetToken> findByEmployee(Employee employee);
     Optional<PasswordResetToken> findByHr(HR hr);
@@ -1,16 +1,56 @@
 package com.example.tsh.web.Repository;
 
+import com.example.tsh.web.DTO.PayrollDTO;
 import com.example.tsh.web.Entity.Employee;
 import com.example.tsh.web.Entity.Payroll;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PayrollRepository extends JpaRepository<Payroll, Long> {
+
+    String PAYROLL_DTO_SELECT = "SELECT new com.example.tsh.web.DTO.PayrollDTO(" +
+            "p.payrollId, p.payrollDate, p.baseSalary, p.regularHolidayPay, p.specialHolidayPay, " +
+            "p.overtimeHours, p.overtimeRate, p.overtimePay, p.absenceDays, p.absenceDeduction, " +
+            "p.sssContribution, p.philhealthContribution, p.pagibigContribution, p.incomeTax, " +
+            "p.totalDeductions, p.grossIncome, p.netIncome, " +
+            "e.employeeId, e.username, e.firstName, e.lastName, e.email, e.position) " +
+            "FROM Payroll p JOIN p.employee e ";
+
+    // recalculation and payslip generation both need the employee
+    @Override
+    @EntityGraph("Payroll.employee")
+    Optional<Payroll> findById(Long id);
+
     List<Payroll> findByEmployee(Employee employee);
-    List<Payroll> findByEmployeeEmployeeId(Long employeeId);
-    List<Payroll> findByPayrollDateBetween(LocalDate startDate, LocalDate endDate);
-    List<Payroll> findByEmployeeEmployeeIdAndPayrollDateBetween(Long employeeId, LocalDate startDate, LocalDate endDate);
+
+    // bulk payslip generation renders every payroll of a run or a pay date with its employee
+    @EntityGraph("Payroll.employee")
+    List<Payroll> findByPayrollRunIdOrderByPayrollId(Long payrollRunId);
+
+    @EntityGraph("Payroll.employee")
+    List<Payroll> findByPayrollDateOrderByPayrollId(LocalDate payrollDate);
+
+    // listing projections: one query, payroll columns plus the employee summary
+    @Query(PAYROLL_DTO_SELECT + "ORDER BY p.payrollId")
+    List<PayrollDTO> findAllDtos();
+
+    @Query(PAYROLL_DTO_SELECT + "WHERE e.employeeId = :employeeId ORDER BY p.payrollId")
+    List<PayrollDTO> findDtosByEmployeeId(@Param("employeeId") Long employeeId);
+
+    @Query(PAYROLL_DTO_SELECT + "WHERE p.payrollDate BETWEEN :startDate AND :endDate ORDER BY p.payrollId")
+    List<PayrollDTO> findDtosByPayrollDateBetween(@Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
+    @Query(PAYROLL_DTO_SELECT + "WHERE e.employeeId = :employeeId AND p.payrollDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY p.payrollId")
+    List<PayrollDTO> findDtosByEmployeeIdAndPayrollDateBetween(@Param("employeeId") Long employeeId,
+                                                               @Param("startDate") LocalDate startDate,
+                                                               @Param("endDate") LocalDate endDate);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.tsh.web.Repository;
+
+import com.example.tsh.web.Entity.PayrollRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollRunRepository extends JpaRepository<PayrollRun, Long> {
+    List<PayrollRun> findByPayrollDate(LocalDate payrollDate);
+
+    Optional<PayrollRun> findFirstByPeriodStartAndPeriodEndAndStatusIn(LocalDate periodStart, LocalDate periodEnd,
+                                                                      Collection<String> statuses);
+}
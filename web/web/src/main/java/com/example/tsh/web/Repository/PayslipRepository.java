@@ -1,18 +1,33 @@
 package com.example.tsh.web.Repository;
 
+import com.example.tsh.web.DTO.PayslipArchiveEntry;
 import com.example.tsh.web.Entity.Payslip;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PayslipRepository extends JpaRepository<Payslip, Long> {
 
+    String ARCHIVE_ENTRY_SELECT = "SELECT new com.example.tsh.web.DTO.PayslipArchiveEntry(" +
+            "p.payslipId, p.payslipFileName, p.status, p.contentHash, p.contentSize, " +
+            "r.payrollId, r.payrollDate, r.netIncome, e.employeeId, e.firstName, e.lastName) " +
+            "FROM Payslip p JOIN p.payroll r JOIN p.employee e ";
+
+    // sending and regenerating a payslip reads the employee and the payroll
+    @Override
+    @EntityGraph(attributePaths = {"payroll", "employee"})
+    Optional<Payslip> findById(Long id);
 
     @Query("SELECT p FROM Payslip p WHERE p.employee.employeeId = :employeeId")
     List<Payslip> findPayslipsByEmployeeId(@Param("employeeId") Long employeeId);
@@ -21,9 +36,25 @@ public interface PayslipRepository extends JpaRepository<Payslip, Long> {
 
     Optional<Payslip> findByPayrollPayrollIdAndEmployeeEmployeeId(Long payrollId, Long employeeId);
 
+    @Query("SELECT p.payroll.payrollId FROM Payslip p WHERE p.payroll.payrollId IN :payrollIds")
+    List<Long> findPayrollIdsWithPayslip(@Param("payrollIds") List<Long> payrollIds);
+
     List<Payslip> findByGeneratedDateBetween(LocalDate startDate, LocalDate endDate);
 
     List<Payslip> findByEmployeeEmployeeIdAndGeneratedDateBetween(Long employeeId, LocalDate startDate, LocalDate endDate);
 
     List<Payslip> findByStatus(String status);
+
+    // forward-only cursors for the bulk ZIP download, must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(ARCHIVE_ENTRY_SELECT + "WHERE r.payrollRunId = :payrollRunId ORDER BY p.payslipId")
+    Stream<PayslipArchiveEntry> streamArchiveEntriesByPayrollRunId(@Param("payrollRunId") Long payrollRunId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(ARCHIVE_ENTRY_SELECT + "WHERE r.payrollDate = :payrollDate ORDER BY p.payslipId")
+    Stream<PayslipArchiveEntry> streamArchiveEntriesByPayrollDate(@Param("payrollDate") LocalDate payrollDate);
+
+    long countByPayrollPayrollRunId(Long payrollRunId);
+
+    long countByPayrollPayrollDate(LocalDate payrollDate);
 }
\ No newline at end of file
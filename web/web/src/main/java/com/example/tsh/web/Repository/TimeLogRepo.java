@@ -1,41 +1,62 @@
 package com.example.tsh.web.Repository;
 
+import com.example.tsh.web.DTO.TimeLogDTO;
 import com.example.tsh.web.DTO.TimeLogSummary;
 import com.example.tsh.web.Entity.Employee;
 import com.example.tsh.web.Entity.HR;
 import com.example.tsh.web.Entity.TimeLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TimeLogRepo extends JpaRepository<TimeLog, Long> {
+
+    String TIME_LOG_DTO_SELECT = "SELECT new com.example.tsh.web.DTO.TimeLogDTO(" +
+            "t.timeLogId, t.timeIn, t.timeOut, t.durationMinutes, t.date, t.cutoffPeriod, t.overtimeMinutes, " +
+            "e.employeeId, e.username, e.firstName, e.lastName, e.email, e.position, " +
+            "h.hrId, h.firstName, h.lastName) " +
+            "FROM TimeLog t LEFT JOIN t.employee e LEFT JOIN t.assignedHr h ";
+
+    // single-log lookups feed responses that always show the employee and assigned HR
+    @Override
+    @EntityGraph("TimeLog.employee")
+    Optional<TimeLog> findById(Long id);
+
     List<TimeLog> findByEmployee(Employee employee);
 
-    @Query("SELECT t FROM TimeLog t WHERE t.employee = :employee AND CAST(t.date AS date) = CAST(:date AS date)")
-    List<TimeLog> findByEmployeeAndDate(@Param("employee") Employee employee, @Param("date") LocalDateTime date);
+    // half-open [start, end) ranges on the raw column so the (employee_id, date) and (date) indexes apply
+    @Query(TIME_LOG_DTO_SELECT + "WHERE t.date >= :start AND t.date < :end ORDER BY t.timeLogId")
+    List<TimeLogDTO> findDtosByDateRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query(TIME_LOG_DTO_SELECT + "WHERE e.employeeId = :employeeId AND t.date >= :start AND t.date < :end " +
+            "ORDER BY t.timeLogId")
+    List<TimeLogDTO> findDtosByEmployeeAndDateRange(
+            @Param("employeeId") Long employeeId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
 
-    @Query("SELECT t FROM TimeLog t WHERE t.employee = :employee AND CAST(t.date AS date) = CURRENT_DATE")
-    List<TimeLog> findTodayLogsByEmployee(@Param("employee") Employee employee);
+    @Query(TIME_LOG_DTO_SELECT + "WHERE e.employeeId = :employeeId ORDER BY t.timeLogId")
+    List<TimeLogDTO> findDtosByEmployee(@Param("employeeId") Long employeeId);
+
+    @Query(TIME_LOG_DTO_SELECT + "WHERE h.hrId = :hrId ORDER BY t.timeLogId")
+    List<TimeLogDTO> findDtosByAssignedHr(@Param("hrId") Long hrId);
 
     @Query("SELECT t FROM TimeLog t WHERE t.employee = :employee AND t.timeOut IS NULL")
     TimeLog findActiveLogByEmployee(@Param("employee") Employee employee);
 
     List<TimeLog> findByAssignedHr(HR hr);
 
-    @Query("SELECT t FROM TimeLog t WHERE YEAR(t.date) = :year AND MONTH(t.date) = :month")
-    List<TimeLog> findByMonthAndYear(@Param("month") int month, @Param("year") int year);
-
-    @Query("SELECT t FROM TimeLog t WHERE t.employee = :employee AND YEAR(t.date) = :year AND MONTH(t.date) = :month")
-    List<TimeLog> findByEmployeeAndMonthAndYear(
-            @Param("employee") Employee employee,
-            @Param("month") int month,
-            @Param("year") int year);
-
 
     //newly added para trace sa timelog cutoff
     @Query("SELECT t.cutoffPeriod AS cutoff, SUM(t.durationMinutes) AS totalMinutes " +
@@ -54,5 +75,28 @@ public interface TimeLogRepo extends JpaRepository<TimeLog, Long> {
 
     List<TimeLog> findByEmployeeEmployeeIdAndTimeInBetween(Long employeeId, LocalDateTime start, LocalDateTime end);
 
+    @Query(TIME_LOG_DTO_SELECT + "ORDER BY t.timeLogId")
+    List<TimeLogDTO> findAllDtos();
+
+    // keyset page: the next rows after the last timeLogId the client has seen
+    @Query(TIME_LOG_DTO_SELECT + "WHERE t.timeLogId > :after ORDER BY t.timeLogId")
+    List<TimeLogDTO> findPageAfter(@Param("after") long after, Pageable pageable);
+
+    // forward-only cursor for the NDJSON export, must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(TIME_LOG_DTO_SELECT + "ORDER BY t.timeLogId")
+    Stream<TimeLogDTO> streamAll();
+
+    // legacy closed logs saved before duration/overtime were derived on write
+    @Query("SELECT t FROM TimeLog t WHERE t.timeIn IS NOT NULL AND t.timeOut IS NOT NULL " +
+            "AND (t.durationMinutes IS NULL OR t.overtimeMinutes IS NULL) ORDER BY t.timeLogId")
+    List<TimeLog> findClosedLogsMissingDerivedMinutes(Pageable pageable);
+
+    // the span of days the daily attendance rollup has to cover, null when there are no logs
+    @Query("SELECT MIN(t.timeIn) FROM TimeLog t WHERE t.employee IS NOT NULL")
+    LocalDateTime findEarliestTimeIn();
+
+    @Query("SELECT MAX(t.timeIn) FROM TimeLog t WHERE t.employee IS NOT NULL")
+    LocalDateTime findLatestTimeIn();
 
 }
@@ -14,6 +14,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.List;
@@ -33,6 +34,9 @@ public class AdminService {
     @Autowired
     JwtService jwtService;
 
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
 
     public Admin authenticateAdmin(String user, String password) {
         Optional<Admin> adminOptional = adminRepository.findByUsername(user);
@@ -59,7 +63,9 @@ public class AdminService {
     public Admin saveAdmin(Admin admin){
         admin.setPassword(passwordEncoder.encode(admin.getPassword()));
         admin.setRole(Role.ADMIN);
-        return adminRepository.save(admin);
+        Admin saved = adminRepository.save(admin);
+        userDetailsService.evictPrincipal(saved.getUsername());
+        return saved;
     }
 
     //retrieve all
@@ -74,6 +80,10 @@ public class AdminService {
 
     // Delete an admin by ID
     public void deleteAdmin(Long id) {
+        adminRepository.findById(id).ifPresent(admin -> {
+            userDetailsService.evictPrincipal(admin.getUsername());
+            jwtService.revokeAllTokens(admin.getUsername());
+        });
         adminRepository.deleteById(id);
     }
 
@@ -92,10 +102,15 @@ public class AdminService {
         }
     }
     public String verify(Admin admin){
-        Authentication authentication =
-                authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(admin.getUsername(), admin.getPassword()));
-        if(authentication.isAuthenticated())
-            return jwtService.generateToken(admin.getUsername());
+        Authentication authentication;
+        try {
+            authentication =
+                    authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(admin.getUsername(), admin.getPassword()));
+        } catch (AuthenticationException e) {
+            return "failed";
+        }
+        if(authentication.isAuthenticated() && authentication.getPrincipal() instanceof AuthPrincipal principal)
+            return jwtService.generateToken(principal);
 
         return "failed";
     }
@@ -0,0 +1,33 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.Role;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+// authenticated user with the resolved entity id and role, so controllers can skip the lookup by username
+public class AuthPrincipal extends User {
+
+    private final Long userId;
+    private final Role role;
+
+    public AuthPrincipal(String username, String password, Role role, Long userId) {
+        super(username, password, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        this.userId = userId;
+        this.role = role;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    // the authentication manager erases credentials on whatever instance it is handed, so never hand out the cached one
+    AuthPrincipal copy() {
+        return new AuthPrincipal(getUsername(), getPassword(), role, userId);
+    }
+}
@@ -0,0 +1,567 @@
+package com.example.tsh.web.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// app.timelog.ingest-mode=async: clock events are appended to a local journal, acknowledged once fsync'd and
+// written to time_logs in batches by a single writer thread, which keeps each employee's events in order.
+// On startup every journaled event after the last checkpoint is replayed; each event carries an idempotency key
+// (the client's or a generated one), so an event written just before a crash is a no-op when replayed.
+@Service
+public class ClockEventIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClockEventIngestService.class);
+
+    private static final String JOURNAL_FILE = "clock-events.journal";
+    private static final String CHECKPOINT_FILE = "clock-events.checkpoint";
+
+    public enum EventType {
+        TIME_IN,
+        TIME_OUT
+    }
+
+    public static class ClockEvent {
+        final long sequence;
+        final EventType type;
+        final long employeeId;
+        final LocalDateTime eventTime;
+        final String key;
+
+        ClockEvent(long sequence, EventType type, long employeeId, LocalDateTime eventTime, String key) {
+            this.sequence = sequence;
+            this.type = type;
+            this.employeeId = employeeId;
+            this.eventTime = eventTime;
+            this.key = key;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public EventType getType() {
+            return type;
+        }
+
+        public long getEmployeeId() {
+            return employeeId;
+        }
+
+        public LocalDateTime getEventTime() {
+            return eventTime;
+        }
+    }
+
+    // what the client gets back: the accepted event, or the earlier one when the key was already seen
+    public static class Acknowledgement {
+        private final ClockEvent event;
+        private final boolean duplicate;
+
+        Acknowledgement(ClockEvent event, boolean duplicate) {
+            this.event = event;
+            this.duplicate = duplicate;
+        }
+
+        public ClockEvent getEvent() {
+            return event;
+        }
+
+        public boolean isDuplicate() {
+            return duplicate;
+        }
+    }
+
+    private static class PendingEvent {
+        final ClockEvent event;
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        PendingEvent(ClockEvent event) {
+            this.event = event;
+        }
+    }
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean async;
+    private final Path journalDir;
+    private final int batchSize;
+    private final int recentKeyCapacity;
+    private final long ackTimeoutMillis;
+
+    // accepted but not yet written; bounds the journal and the apply queue together
+    private final int queueCapacity;
+    private Semaphore capacity;
+    private final LinkedBlockingQueue<PendingEvent> journalQueue = new LinkedBlockingQueue<>();
+    private final LinkedBlockingQueue<ClockEvent> applyQueue = new LinkedBlockingQueue<>();
+
+    // journalLock guards the sequence and the recent keys and is only held briefly by request threads;
+    // fileLock guards the journal channel, so a request never waits on a monitor held across an fsync
+    // (which would pin its carrier when running on virtual threads). Lock order: fileLock, then journalLock.
+    private final Object journalLock = new Object();
+    private final ReentrantLock fileLock = new ReentrantLock();
+    private FileChannel journal;
+    private long lastSequence;
+    private volatile long checkpoint;
+    private final Map<String, ClockEvent> recentKeys;
+
+    private volatile boolean running;
+    // set when a failed append could not be cut back off the journal: nothing more may be appended after it
+    private volatile boolean journalBroken;
+    private Thread journalThread;
+    private Thread writerThread;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder noops = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+
+    public ClockEventIngestService(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${app.timelog.ingest-mode:sync}") String ingestMode,
+                                   @Value("${app.timelog.ingest.journal-dir:./data/clock-journal}") String journalDir,
+                                   @Value("${app.timelog.ingest.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${app.timelog.ingest.batch-size:500}") int batchSize,
+                                   @Value("${app.timelog.ingest.recent-keys:100000}") int recentKeyCapacity,
+                                   @Value("${app.timelog.ingest.ack-timeout-ms:5000}") long ackTimeoutMillis) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.async = "async".equalsIgnoreCase(ingestMode.trim());
+        this.journalDir = Paths.get(journalDir);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.recentKeyCapacity = Math.max(1, recentKeyCapacity);
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.recentKeys = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ClockEvent> eldest) {
+                return size() > ClockEventIngestService.this.recentKeyCapacity;
+            }
+        };
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!async) {
+            return;
+        }
+        Files.createDirectories(journalDir);
+        checkpoint = readCheckpoint();
+        List<ClockEvent> unapplied = recoverJournal();
+        journal = openJournal(journalDir.resolve(JOURNAL_FILE));
+
+        // replayed events hold capacity like new ones until they are written, even past the configured limit
+        capacity = new Semaphore(queueCapacity - unapplied.size());
+        applyQueue.addAll(unapplied);
+        if (!unapplied.isEmpty()) {
+            logger.info("Replaying {} clock events journaled after checkpoint {}", unapplied.size(), checkpoint);
+        }
+
+        running = true;
+        journalThread = new Thread(this::runJournal, "clock-journal");
+        writerThread = new Thread(this::runWriter, "clock-writer");
+        journalThread.start();
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        journalThread.interrupt();
+        writerThread.interrupt();
+        journalThread.join(TimeUnit.SECONDS.toMillis(10));
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        fileLock.lock();
+        try {
+            journal.close();
+        } finally {
+            fileLock.unlock();
+        }
+        // anything still queued is in the journal and is replayed on the next start
+        logger.info("Clock event ingestion stopped with {} events pending", applyQueue.size());
+    }
+
+    // returns once the event is durable in the journal; throws RejectedExecutionException when the queue is full
+    public Acknowledgement submit(EventType type, long employeeId, String idempotencyKey) {
+        TimeLogService.validateIdempotencyKey(idempotencyKey);
+        String key = idempotencyKey != null ? idempotencyKey : UUID.randomUUID().toString();
+
+        PendingEvent pending;
+        synchronized (journalLock) {
+            if (!running) {
+                throw new IllegalStateException("Clock event ingestion is not running");
+            }
+            if (journalBroken) {
+                throw new UncheckedIOException(new IOException("Clock event journal is unavailable"));
+            }
+            ClockEvent seen = recentKeys.get(recentKey(type, employeeId, key));
+            if (seen != null) {
+                duplicates.increment();
+                return new Acknowledgement(seen, true);
+            }
+            if (!capacity.tryAcquire()) {
+                rejected.increment();
+                throw new RejectedExecutionException("Too many clock events in progress, please try again");
+            }
+            ClockEvent event = new ClockEvent(++lastSequence, type, employeeId, LocalDateTime.now(), key);
+            recentKeys.put(recentKey(type, employeeId, key), event);
+            pending = new PendingEvent(event);
+            journalQueue.add(pending);
+        }
+
+        try {
+            pending.durable.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException("Interrupted while waiting for the clock event journal", e));
+        } catch (ExecutionException | TimeoutException e) {
+            throw new UncheckedIOException(new IOException("Clock event could not be journaled", e));
+        }
+        accepted.increment();
+        return new Acknowledgement(pending.event, false);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", async ? "async" : "sync");
+        stats.put("accepted", accepted.sum());
+        stats.put("duplicates", duplicates.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("pending", applyQueue.size() + journalQueue.size());
+        stats.put("written", written.sum());
+        stats.put("noops", noops.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        stats.put("fsyncs", fsyncs.sum());
+        stats.put("checkpoint", checkpoint);
+        return stats;
+    }
+
+    // group commit: everything queued while the previous fsync ran shares the next one
+    private void runJournal() {
+        List<PendingEvent> group = new ArrayList<>();
+        while (running || !journalQueue.isEmpty()) {
+            try {
+                PendingEvent first = journalQueue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                journalQueue.drainTo(group);
+
+                StringBuilder lines = new StringBuilder();
+                for (PendingEvent pending : group) {
+                    lines.append(encode(pending.event));
+                }
+                fileLock.lock();
+                try {
+                    if (journalBroken) {
+                        throw new IOException("Clock event journal is unavailable");
+                    }
+                    long size = journal.size();
+                    try {
+                        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                        while (buffer.hasRemaining()) {
+                            journal.write(buffer);
+                        }
+                        journal.force(false);
+                    } catch (IOException | RuntimeException e) {
+                        rollBack(size);
+                        throw e;
+                    }
+                } finally {
+                    fileLock.unlock();
+                }
+                fsyncs.increment();
+
+                for (PendingEvent pending : group) {
+                    applyQueue.add(pending.event);
+                    pending.durable.complete(null);
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts; whatever is still queued is journaled before the loop ends
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to journal {} clock events", group.size(), e);
+                for (PendingEvent pending : group) {
+                    forget(pending.event);
+                    capacity.release();
+                    pending.durable.completeExceptionally(e);
+                }
+            }
+            group.clear();
+        }
+    }
+
+    // cuts a failed append back to the last complete line, so the next group is not written after a partial one
+    // (recovery would drop the partial line and the acknowledged line glued to it); when even that fails the
+    // journal stops taking events. Called with fileLock held
+    private void rollBack(long size) {
+        try {
+            journal.truncate(size);
+            journal.force(false);
+        } catch (IOException | RuntimeException e) {
+            journalBroken = true;
+            logger.error("Could not cut the clock event journal back to {} bytes, refusing new clock events", size, e);
+        }
+    }
+
+    private void runWriter() {
+        List<ClockEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    ClockEvent first = applyQueue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    applyQueue.drainTo(batch, batchSize - 1);
+                }
+
+                writeBatch(batch);
+                capacity.release(batch.size());
+                checkpoint(batch.get(batch.size() - 1).sequence);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // stop() interrupts; the loop condition ends the writer
+            } catch (RuntimeException | IOException e) {
+                // database or disk unavailable: keep the batch and retry, the journal still has it
+                logger.warn("Clock event batch of {} failed, retrying: {}", batch.size(), e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ignored) {
+                    // stopping
+                }
+            }
+        }
+    }
+
+    private void writeBatch(List<ClockEvent> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeInOrder(batch));
+        } catch (DataIntegrityViolationException e) {
+            // one bad event (e.g. an employee deleted meanwhile) must not hold back the rest
+            for (ClockEvent event : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writeInOrder(List.of(event)));
+                } catch (DataIntegrityViolationException rejectedEvent) {
+                    failed.increment();
+                    logger.error("Dropping clock event {} ({} for employee {}): {}", event.sequence, event.type,
+                            event.employeeId, rejectedEvent.getMessage());
+                }
+            }
+        }
+        batches.increment();
+    }
+
+    // consecutive events of the same type go out as one JDBC batch, so journal order is kept across types
+    private void writeInOrder(List<ClockEvent> events) {
+        int start = 0;
+        while (start < events.size()) {
+            EventType type = events.get(start).type;
+            int end = start;
+            while (end < events.size() && events.get(end).type == type) {
+                end++;
+            }
+
+            List<ClockEvent> run = events.subList(start, end);
+            SqlParameterSource[] params = new SqlParameterSource[run.size()];
+            for (int i = 0; i < run.size(); i++) {
+                ClockEvent event = run.get(i);
+                params[i] = type == EventType.TIME_IN
+                        ? TimeLogService.clockInParams(event.employeeId, event.key, event.eventTime)
+                        : TimeLogService.clockOutParams(event.employeeId, event.key, event.eventTime);
+            }
+            int[] counts = namedParameterJdbcTemplate.batchUpdate(
+                    type == EventType.TIME_IN ? TimeLogService.CLOCK_IN_WRITE_SQL : TimeLogService.CLOCK_OUT_WRITE_SQL,
+                    params);
+            for (int count : counts) {
+                if (count == 0) {
+                    noops.increment();
+                } else {
+                    written.increment();
+                }
+            }
+            start = end;
+        }
+    }
+
+    // persists the last written sequence, and empties the journal once everything in it is written
+    private void checkpoint(long sequence) throws IOException {
+        Path temp = journalDir.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(sequence).getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        }
+        Files.move(temp, journalDir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = sequence;
+
+        fileLock.lock();
+        try {
+            boolean allWritten;
+            synchronized (journalLock) {
+                allWritten = sequence == lastSequence && journalQueue.isEmpty() && applyQueue.isEmpty();
+            }
+            // anything submitted after the check cannot reach the file before the lock is released
+            if (allWritten) {
+                journal.truncate(0);
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = journalDir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+    }
+
+    // replays every intact line after the checkpoint. A torn last line was never acknowledged; a corrupt line in
+    // the middle is skipped without losing the acknowledged lines after it. Either way the journal is rewritten
+    // with the intact lines only, so new appends start on a clean line
+    private List<ClockEvent> recoverJournal() throws IOException {
+        Path file = journalDir.resolve(JOURNAL_FILE);
+        lastSequence = checkpoint;
+        List<ClockEvent> unapplied = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return unapplied;
+        }
+
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        int complete = content.lastIndexOf('\n') + 1;
+        boolean dirty = complete < content.length();
+        if (dirty) {
+            logger.warn("Clock event journal ends in a torn line, discarding it");
+        }
+        StringBuilder intact = new StringBuilder();
+        for (String line : content.substring(0, complete).split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            ClockEvent event = decode(line);
+            if (event == null) {
+                logger.warn("Skipping corrupt clock event journal line after sequence {}", lastSequence);
+                dirty = true;
+                continue;
+            }
+            intact.append(line).append('\n');
+            lastSequence = Math.max(lastSequence, event.sequence);
+            recentKeys.put(recentKey(event.type, event.employeeId, event.key), event);
+            if (event.sequence > checkpoint) {
+                unapplied.add(event);
+            }
+        }
+
+        if (dirty) {
+            Path temp = journalDir.resolve(JOURNAL_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(intact.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return unapplied;
+    }
+
+    // package-private so tests can hand in a channel that fails
+    FileChannel openJournal(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void forget(ClockEvent event) {
+        synchronized (journalLock) {
+            recentKeys.remove(recentKey(event.type, event.employeeId, event.key));
+        }
+    }
+
+    private static String recentKey(EventType type, long employeeId, String key) {
+        return type + ":" + employeeId + ":" + key;
+    }
+
+    // sequence, type, employee, time, base64url key, then a CRC32 of everything before it
+    static String encode(ClockEvent event) {
+        String body = event.sequence + "\t" + event.type + "\t" + event.employeeId + "\t" + event.eventTime + "\t" +
+                Base64.getUrlEncoder().withoutPadding().encodeToString(event.key.getBytes(StandardCharsets.UTF_8));
+        return body + "\t" + Long.toHexString(crc(body)) + "\n";
+    }
+
+    private static ClockEvent decode(String line) {
+        int lastTab = line.lastIndexOf('\t');
+        if (lastTab < 0) {
+            return null;
+        }
+        String body = line.substring(0, lastTab);
+        try {
+            if (Long.parseLong(line.substring(lastTab + 1), 16) != crc(body)) {
+                return null;
+            }
+            String[] fields = body.split("\t");
+            return new ClockEvent(Long.parseLong(fields[0]), EventType.valueOf(fields[1]), Long.parseLong(fields[2]),
+                    LocalDateTime.parse(fields[3]),
+                    new String(Base64.getUrlDecoder().decode(fields[4]), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long crc(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.DailyAttendance;
+import com.example.tsh.web.Entity.MaintenanceJob;
+import com.example.tsh.web.Entity.TimeLog;
+import com.example.tsh.web.Repository.DailyAttendanceRepo;
+import com.example.tsh.web.Repository.MaintenanceJobRepository;
+import com.example.tsh.web.Repository.TimeLogRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Service
+public class DailyAttendanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyAttendanceService.class);
+
+    static final String REBUILD_ALL_JOB = "daily-attendance-rebuild-all";
+
+    private final DailyAttendanceRepo dailyAttendanceRepo;
+    private final TimeLogRepo timeLogRepo;
+    private final MaintenanceJobRepository maintenanceJobRepository;
+
+    @Autowired
+    public DailyAttendanceService(DailyAttendanceRepo dailyAttendanceRepo, TimeLogRepo timeLogRepo,
+                                  MaintenanceJobRepository maintenanceJobRepository) {
+        this.dailyAttendanceRepo = dailyAttendanceRepo;
+        this.timeLogRepo = timeLogRepo;
+        this.maintenanceJobRepository = maintenanceJobRepository;
+    }
+
+    // what a single time log adds to its (employee, day) row
+    public static class Contribution {
+        final Long employeeId;
+        final LocalDate workDate;
+        final int workedMinutes;
+        final int overtimeMinutes;
+
+        Contribution(Long employeeId, LocalDate workDate, int workedMinutes, int overtimeMinutes) {
+            this.employeeId = employeeId;
+            this.workDate = workDate;
+            this.workedMinutes = workedMinutes;
+            this.overtimeMinutes = overtimeMinutes;
+        }
+    }
+
+    public Contribution contributionOf(TimeLog log) {
+        if (log == null || log.getEmployee() == null || log.getTimeIn() == null) {
+            return null;
+        }
+        Integer worked = log.resolveDurationMinutes();
+        Integer overtime = log.resolveOvertimeMinutes();
+        return new Contribution(
+                log.getEmployee().getEmployeeId(),
+                log.getTimeIn().toLocalDate(),
+                worked != null ? Math.max(0, worked) : 0,
+                overtime != null ? Math.max(0, overtime) : 0);
+    }
+
+    // clock-in/clock-out update the rollup inside their own statements (TimeLogService.CLOCK_IN_SQL / CLOCK_OUT_SQL)
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Contribution before, TimeLog after) {
+        Contribution now = contributionOf(after);
+
+        if (before != null && now != null
+                && Objects.equals(before.employeeId, now.employeeId) && before.workDate.equals(now.workDate)) {
+            int workedDelta = now.workedMinutes - before.workedMinutes;
+            int overtimeDelta = now.overtimeMinutes - before.overtimeMinutes;
+            if (workedDelta != 0 || overtimeDelta != 0) {
+                dailyAttendanceRepo.applyDelta(now.employeeId, now.workDate, 0, workedDelta, overtimeDelta);
+            }
+            return;
+        }
+
+        if (before != null) {
+            dailyAttendanceRepo.applyDelta(before.employeeId, before.workDate, -1, -before.workedMinutes, -before.overtimeMinutes);
+        }
+        if (now != null) {
+            dailyAttendanceRepo.applyDelta(now.employeeId, now.workDate, 1, now.workedMinutes, now.overtimeMinutes);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoval(TimeLog log) {
+        recordChange(contributionOf(log), null);
+    }
+
+    // rebuilds [from, to] from the raw time logs
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        LocalDate endExclusive = to.plusDays(1);
+        dailyAttendanceRepo.lockForRebuild();
+        int deleted = dailyAttendanceRepo.deleteRange(from, endExclusive);
+        int inserted = dailyAttendanceRepo.insertRangeFromTimeLogs(from.atStartOfDay(), endExclusive.atStartOfDay());
+        logger.info("Rebuilt daily attendance {} to {}: {} rows removed, {} rows inserted", from, to, deleted, inserted);
+        return inserted;
+    }
+
+    public boolean hasRebuiltAll() {
+        return maintenanceJobRepository.existsById(REBUILD_ALL_JOB);
+    }
+
+    // one-off: replaces the whole rollup with one built from the time logs, which also repairs days that were only
+    // partly rolled up, and records the run so later startups skip it. Holds the rebuild lock across the check, so of
+    // several nodes starting together only the first rebuilds. Returns false when it had already run
+    @Transactional
+    public boolean rebuildAllOnce() {
+        dailyAttendanceRepo.lockForRebuild();
+        if (maintenanceJobRepository.existsById(REBUILD_ALL_JOB)) {
+            return false;
+        }
+        dailyAttendanceRepo.deleteAllInBatch();
+        LocalDateTime earliest = timeLogRepo.findEarliestTimeIn();
+        LocalDateTime latest = timeLogRepo.findLatestTimeIn();
+        int inserted = earliest == null ? 0 : dailyAttendanceRepo.insertRangeFromTimeLogs(
+                earliest.toLocalDate().atStartOfDay(), latest.toLocalDate().plusDays(1).atStartOfDay());
+        maintenanceJobRepository.save(new MaintenanceJob(REBUILD_ALL_JOB, inserted + " rows"));
+        logger.info("Rebuilt the daily attendance rollup from all time logs: {} rows", inserted);
+        return true;
+    }
+
+    public List<DailyAttendance> getEmployeeDays(Long employeeId, LocalDate start, LocalDate end) {
+        return dailyAttendanceRepo.findByEmployeeIdAndWorkDateBetween(employeeId, start, end);
+    }
+
+    public Map<Long, List<DailyAttendance>> getDaysByEmployee(LocalDate start, LocalDate end) {
+        return dailyAttendanceRepo.findByWorkDateBetween(start, end).stream()
+                .collect(Collectors.groupingBy(DailyAttendance::getEmployeeId));
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// polls the outbox, sends due messages on the mail worker pool and records the outcome.
+// Claiming pushes next_attempt_at out by the lease, so a message whose sender died is picked up again afterwards.
+@Service
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private static final String CLAIM_SQL =
+            "UPDATE email_outbox o SET next_attempt_at = :leaseUntil " +
+            "FROM (SELECT outbox_id FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "      ORDER BY next_attempt_at, outbox_id LIMIT :limit FOR UPDATE SKIP LOCKED) due " +
+            "WHERE o.outbox_id = due.outbox_id " +
+            "RETURNING o.outbox_id, o.recipient, o.subject, o.body, o.attempts, o.revision, o.created_at";
+
+    // a revision mismatch means the content was replaced while sending; the row stays pending for the new content
+    private static final String MARK_SENT_SQL =
+            "UPDATE email_outbox SET status = 'SENT', sent_at = :now, last_error = NULL " +
+            "WHERE outbox_id = :outboxId AND revision = :revision";
+
+    // same revision guard: a failure of the old content must not back off or fail the replacement
+    private static final String MARK_FAILED_SQL =
+            "UPDATE email_outbox SET attempts = attempts + 1, last_error = :error, next_attempt_at = :nextAttemptAt, " +
+            "status = CASE WHEN attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END " +
+            "WHERE outbox_id = :outboxId AND revision = :revision AND status = 'PENDING'";
+
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender emailSender;
+    private final int workers;
+
+    // each worker sends its share of a dispatch batch over one SMTP connection.
+    // Kept private: an Executor bean would stop Boot from creating applicationTaskExecutor
+    private final ExecutorService mailWorkerPool;
+
+    @Value("${app.mail.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.mail.outbox.base-backoff-seconds:30}")
+    private long baseBackoffSeconds;
+
+    @Value("${app.mail.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    // most recent SMTP round trips per message and enqueue-to-sent times, in millis
+    private final long[] sendMillis = new long[LATENCY_SAMPLES];
+    private final long[] deliveryMillis = new long[LATENCY_SAMPLES];
+    private long samples;
+
+    public EmailOutboxDispatcher(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                 EmailOutboxRepository emailOutboxRepository,
+                                 JavaMailSender emailSender,
+                                 @Value("${app.mail.outbox.workers:4}") int workers) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailSender = emailSender;
+        this.workers = Math.max(1, workers);
+        AtomicInteger counter = new AtomicInteger();
+        this.mailWorkerPool = Executors.newFixedThreadPool(this.workers, runnable -> {
+            Thread thread = new Thread(runnable, "mail-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static class OutboxMessage {
+        final long outboxId;
+        final String recipient;
+        final String subject;
+        final String body;
+        final int attempts;
+        final int revision;
+        final LocalDateTime createdAt;
+
+        OutboxMessage(long outboxId, String recipient, String subject, String body, int attempts, int revision,
+                      LocalDateTime createdAt) {
+            this.outboxId = outboxId;
+            this.recipient = recipient;
+            this.subject = subject;
+            this.body = body;
+            this.attempts = attempts;
+            this.revision = revision;
+            this.createdAt = createdAt;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        List<OutboxMessage> claimed;
+        do {
+            claimed = claim();
+            if (claimed.isEmpty()) {
+                return;
+            }
+            sendAll(claimed);
+        } while (claimed.size() >= batchSize);
+    }
+
+    private List<OutboxMessage> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("leaseUntil", now.plusSeconds(leaseSeconds))
+                .addValue("limit", Math.max(1, batchSize));
+        return namedParameterJdbcTemplate.query(CLAIM_SQL, params, (rs, rowNum) -> new OutboxMessage(
+                rs.getLong("outbox_id"),
+                rs.getString("recipient"),
+                rs.getString("subject"),
+                rs.getString("body"),
+                rs.getInt("attempts"),
+                rs.getInt("revision"),
+                rs.getObject("created_at", LocalDateTime.class)));
+    }
+
+    // one chunk per worker, each chunk goes out through a single send call and so a single SMTP connection
+    private void sendAll(List<OutboxMessage> claimed) {
+        int chunks = Math.min(workers, claimed.size());
+        int chunkSize = (claimed.size() + chunks - 1) / chunks;
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int from = 0; from < claimed.size(); from += chunkSize) {
+            List<OutboxMessage> chunk = claimed.subList(from, Math.min(from + chunkSize, claimed.size()));
+            tasks.add(() -> {
+                sendChunk(chunk);
+                return null;
+            });
+        }
+
+        try {
+            mailWorkerPool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            // unsent messages keep their lease and are retried once it runs out
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendChunk(List<OutboxMessage> chunk) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            OutboxMessage outbox = chunk.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(outbox.recipient);
+            message.setSubject(outbox.subject);
+            message.setText(outbox.body);
+            messages[i] = message;
+        }
+
+        Map<Object, Exception> failures;
+        long start = System.nanoTime();
+        try {
+            emailSender.send(messages);
+            failures = Map.of();
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = failAll(messages, e);
+            }
+        } catch (MailException e) {
+            failures = failAll(messages, e);
+        }
+        long perMessageMillis = Duration.ofNanos(System.nanoTime() - start).toMillis() / chunk.size();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<SqlParameterSource> sentParams = new ArrayList<>();
+        List<SqlParameterSource> failedParams = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            OutboxMessage outbox = chunk.get(i);
+            Exception failure = failures.get(messages[i]);
+            if (failure == null) {
+                sentParams.add(new MapSqlParameterSource()
+                        .addValue("outboxId", outbox.outboxId)
+                        .addValue("revision", outbox.revision)
+                        .addValue("now", now));
+                sent.increment();
+                recordLatency(perMessageMillis, Duration.between(outbox.createdAt, now).toMillis());
+            } else {
+                failedParams.add(new MapSqlParameterSource()
+                        .addValue("outboxId", outbox.outboxId)
+                        .addValue("revision", outbox.revision)
+                        .addValue("error", truncate(failure.getMessage()))
+                        .addValue("nextAttemptAt", Timestamp.valueOf(now.plusSeconds(backoffSeconds(outbox.attempts + 1))))
+                        .addValue("maxAttempts", maxAttempts));
+                failedAttempts.increment();
+                if (outbox.attempts + 1 >= maxAttempts) {
+                    abandoned.increment();
+                    logger.error("Giving up on email {} to {} after {} attempts: {}", outbox.outboxId,
+                            outbox.recipient, outbox.attempts + 1, failure.getMessage());
+                } else {
+                    logger.warn("Email {} to {} failed (attempt {}), retrying later: {}", outbox.outboxId,
+                            outbox.recipient, outbox.attempts + 1, failure.getMessage());
+                }
+            }
+        }
+
+        if (!sentParams.isEmpty()) {
+            namedParameterJdbcTemplate.batchUpdate(MARK_SENT_SQL, sentParams.toArray(new SqlParameterSource[0]));
+        }
+        if (!failedParams.isEmpty()) {
+            namedParameterJdbcTemplate.batchUpdate(MARK_FAILED_SQL, failedParams.toArray(new SqlParameterSource[0]));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mailWorkerPool.shutdown();
+    }
+
+    private static Map<Object, Exception> failAll(SimpleMailMessage[] messages, Exception cause) {
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        Arrays.stream(messages).forEach(message -> failures.put(message, cause));
+        return failures;
+    }
+
+    // exponential: base, 2x base, 4x base ... capped
+    private long backoffSeconds(int attempt) {
+        long backoff = baseBackoffSeconds << Math.min(attempt - 1, 20);
+        return Math.min(backoff, maxBackoffSeconds);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private synchronized void recordLatency(long sendMillis, long deliveryMillis) {
+        int slot = (int) (samples % LATENCY_SAMPLES);
+        this.sendMillis[slot] = sendMillis;
+        this.deliveryMillis[slot] = deliveryMillis;
+        samples++;
+    }
+
+    public Map<String, Object> getStats() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", emailOutboxRepository.countByStatus("PENDING"));
+        stats.put("due", emailOutboxRepository.countDue(now));
+        stats.put("failed", emailOutboxRepository.countByStatus("FAILED"));
+        stats.put("sentSinceStart", sent.sum());
+        stats.put("failedAttemptsSinceStart", failedAttempts.sum());
+        stats.put("abandonedSinceStart", abandoned.sum());
+
+        long[] send;
+        long[] delivery;
+        synchronized (this) {
+            int count = (int) Math.min(samples, LATENCY_SAMPLES);
+            send = Arrays.copyOf(sendMillis, count);
+            delivery = Arrays.copyOf(deliveryMillis, count);
+        }
+        stats.put("sendMillis", percentiles(send));
+        stats.put("deliveryMillis", percentiles(delivery));
+        return stats;
+    }
+
+    private static Map<String, Long> percentiles(long[] values) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (values.length == 0) {
+            return result;
+        }
+        Arrays.sort(values);
+        result.put("p50", values[(int) Math.ceil(values.length * 0.50) - 1]);
+        result.put("p99", values[(int) Math.ceil(values.length * 0.99) - 1]);
+        result.put("max", values[values.length - 1]);
+        return result;
+    }
+}
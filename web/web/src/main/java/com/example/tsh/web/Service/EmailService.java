@@ -1,11 +1,13 @@
 package com.example.tsh.web.Service;
 
+import com.example.tsh.web.Repository.EmailOutboxRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 @Service
 public class EmailService {
@@ -13,24 +15,13 @@ public class EmailService {
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
     @Autowired
-    private JavaMailSender emailSender;
-
-    public boolean sendSimpleMessage(String to, String subject, String text) {
-        try {
-            logger.info("Attempting to send email to: {}", to);
-
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-
-            emailSender.send(message);
-
-            logger.info("Email successfully sent to: {}", to);
-            return true;
-        } catch (Exception e) {
-            logger.error("Failed to send email to: {}", to, e);
-            return false;
-        }
+    private EmailOutboxRepository emailOutboxRepository;
+
+    // writes the message to the outbox and returns, EmailOutboxDispatcher delivers it in the background.
+    // dedupeKey is optional: a still-pending message with the same key gets this content instead of a second mail
+    @Transactional
+    public void queueMessage(String to, String subject, String text, String dedupeKey) {
+        emailOutboxRepository.enqueue(to, subject, text, dedupeKey, LocalDateTime.now());
+        logger.info("Queued email to: {}", to);
     }
-}
\ No newline at end of file
+}
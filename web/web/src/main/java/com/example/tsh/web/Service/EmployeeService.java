@@ -1,5 +1,6 @@
 package com.example.tsh.web.Service;
 
+import com.example.tsh.web.DTO.EmployeeDTO;
 import com.example.tsh.web.Entity.Employee;
 import com.example.tsh.web.Entity.Role;
 import com.example.tsh.web.Repository.EmployeeRepo;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -26,6 +28,9 @@ public class EmployeeService {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
 
     public Employee saveEmployee(Employee employee) {
         Optional<Employee> existingEmployee = employeeRepository.findByUsername(employee.getUsername());
@@ -36,7 +41,9 @@ public class EmployeeService {
 
         employee.setPassword(passwordEncoder.encode(employee.getPassword()));
         employee.setRole(Role.EMPLOYEE);
-        return employeeRepository.save(employee);
+        Employee saved = employeeRepository.save(employee);
+        userDetailsService.evictPrincipal(saved.getUsername());
+        return saved;
     }
 
     public Employee authenticateEmployee(String user, String password) {
@@ -59,20 +66,25 @@ public class EmployeeService {
         return employee;
     }
 
-    public List<Employee> getAllEmployee(){
-        return employeeRepository.findAll();
+    public List<EmployeeDTO> getAllEmployee(){
+        return employeeRepository.findAllListItems();
     }
 
     public String verify(Employee employee, Role expectedRole) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(employee.getUsername(), employee.getPassword())
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(employee.getUsername(), employee.getPassword())
+            );
+        } catch (AuthenticationException e) {
+            // bad credentials answer 401 from the controller instead of escaping the async login
+            return "failed";
+        }
 
         if (authentication.isAuthenticated()) {
-            Optional<Employee> foundEmployee = employeeRepository.findByUsername(employee.getUsername());
-
-            if (foundEmployee.isPresent() && foundEmployee.get().getRole() == expectedRole) {
-                return jwtService.generateToken(employee.getUsername());
+            // the authenticated principal already carries the role and id, no second lookup needed
+            if (authentication.getPrincipal() instanceof AuthPrincipal principal && principal.getRole() == expectedRole) {
+                return jwtService.generateToken(principal);
             } else {
                 return "unauthorized";
             }
@@ -95,6 +107,7 @@ public class EmployeeService {
         employee.setContact(updatedData.getContact());
 
         employeeRepository.save(employee);
+        userDetailsService.evictPrincipal(username);
     }
 
     public Map<String, Object> getSalaryDetails(Long employeeId) {
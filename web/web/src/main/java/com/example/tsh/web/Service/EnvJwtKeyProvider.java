@@ -0,0 +1,80 @@
+package com.example.tsh.web.Service;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+// keys from configuration/environment: app.jwt.secret signs, app.jwt.verification-keys ("kid:base64,...") only verify
+@Service
+@ConditionalOnProperty(name = "app.jwt.key-source", havingValue = "env", matchIfMissing = true)
+public class EnvJwtKeyProvider implements JwtKeyProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnvJwtKeyProvider.class);
+
+    private final String activeKeyId;
+    private final SecretKey activeKey;
+    private final Map<String, SecretKey> keys = new HashMap<>();
+
+    public EnvJwtKeyProvider(@Value("${app.jwt.secret:}") String secret,
+                             @Value("${app.jwt.key-id:default}") String keyId,
+                             @Value("${app.jwt.verification-keys:}") String verificationKeys) {
+        if (secret == null || secret.isBlank()) {
+            logger.warn("app.jwt.secret is not set, using a random key: tokens will not survive a restart or verify on other nodes");
+            this.activeKeyId = "local";
+            this.activeKey = randomKey();
+        } else {
+            this.activeKeyId = keyId;
+            this.activeKey = decode(secret);
+        }
+        keys.put(activeKeyId, activeKey);
+
+        for (String entry : verificationKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("app.jwt.verification-keys entries must look like kid:base64-secret");
+            }
+            keys.putIfAbsent(entry.substring(0, separator).trim(), decode(entry.substring(separator + 1)));
+        }
+        logger.info("JWT keys loaded from configuration, signing with kid {} and verifying {}", activeKeyId, keys.keySet());
+    }
+
+    @Override
+    public String activeKeyId() {
+        return activeKeyId;
+    }
+
+    @Override
+    public SecretKey activeKey() {
+        return activeKey;
+    }
+
+    @Override
+    public SecretKey verificationKey(String keyId) {
+        return keys.get(keyId);
+    }
+
+    private static SecretKey decode(String base64) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64.trim()));
+    }
+
+    private static SecretKey randomKey() {
+        try {
+            return KeyGenerator.getInstance("HmacSHA256").generateKey();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
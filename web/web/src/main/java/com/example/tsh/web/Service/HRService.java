@@ -1,16 +1,19 @@
 package com.example.tsh.web.Service;
 
 import com.example.tsh.web.DTO.AttendanceRecord;
+import com.example.tsh.web.DTO.EmployeeSummary;
 import com.example.tsh.web.Entity.*;
+import com.example.tsh.web.Repository.DailyAttendanceRepo;
 import com.example.tsh.web.Repository.EmployeeRepo;
 import com.example.tsh.web.Repository.HRRepo;
-import com.example.tsh.web.Repository.TimeLogRepo;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -26,12 +29,14 @@ public class HRService {
     private final HRRepo hrRepository;
     private final EmployeeRepo employeeRepo;
     private final PasswordEncoder passwordEncoder;
-    private final TimeLogService timeLogService;
-    private final TimeLogRepo timeLogRepo;
+    private final DailyAttendanceRepo dailyAttendanceRepo;
 
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
     @Autowired
     AuthenticationManager authenticationManager;
 
@@ -49,7 +54,9 @@ public class HRService {
 
         hr.setPassword(passwordEncoder.encode(hr.getPassword()));
         hr.setRole(Role.HR); // Set role explicitly
-        return hrRepository.save(hr);
+        HR saved = hrRepository.save(hr);
+        userDetailsService.evictPrincipal(saved.getUsername());
+        return saved;
     }
 
     public Employee createEmployee(Employee employee) {
@@ -61,7 +68,9 @@ public class HRService {
 
         employee.setPassword(passwordEncoder.encode(employee.getPassword()));
         employee.setRole(Role.EMPLOYEE);
-        return employeeRepo.save(employee);
+        Employee saved = employeeRepo.save(employee);
+        userDetailsService.evictPrincipal(saved.getUsername());
+        return saved;
     }
 
     public List<HR> getAllHr(){
@@ -88,15 +97,19 @@ public class HRService {
     }
 
     public String verify(HR hr, Role expectedRole) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(hr.getUsername(), hr.getPassword())
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(hr.getUsername(), hr.getPassword())
+            );
+        } catch (AuthenticationException e) {
+            return "failed";
+        }
 
         if (authentication.isAuthenticated()) {
-            Optional<HR> foundHr = hrRepository.findByUsername(hr.getUsername());
-
-            if (foundHr.isPresent() && foundHr.get().getRole() == expectedRole) {
-                return jwtService.generateToken(hr.getUsername());
+            // the authenticated principal already carries the role and id, no second lookup needed
+            if (authentication.getPrincipal() instanceof AuthPrincipal principal && principal.getRole() == expectedRole) {
+                return jwtService.generateToken(principal);
             } else {
                 return "unauthorized";
             }
@@ -167,18 +180,9 @@ public class HRService {
     public Map<String, Object> getAttendanceOverview() {
         Map<String, Object> attendance = new HashMap<>();
 
-        List<TimeLog> allTimeLogs = timeLogService.findAllTimeLogs();
-
-        long totalPresent = allTimeLogs.stream()
-                .filter(log -> log.getTimeIn() != null)
-                .map(log -> log.getDate().toLocalDate())
-                .distinct()
-                .count();
-
-        long totalMinutes = allTimeLogs.stream()
-                .filter(log -> log.getTimeIn() != null && log.getTimeOut() != null)
-                .mapToLong(log -> log.getDurationMinutes() != null ? log.getDurationMinutes() : 0)
-                .sum();
+        // aggregated in the database from the daily attendance rollup instead of loading every time log
+        long totalPresent = dailyAttendanceRepo.countDistinctPresentDates();
+        long totalMinutes = dailyAttendanceRepo.sumWorkedMinutes();
 
         double averageHours = totalPresent > 0 ? totalMinutes / 60.0 / totalPresent : 0;
 
@@ -193,59 +197,57 @@ public class HRService {
     }
 
     public List<AttendanceRecord> getAttendanceRecords(Long employeeId, int month, int year, String statusFilter) {
+        return getAttendanceRecords(employeeId, month, year, statusFilter, null, null);
+    }
 
-        List<TimeLog> timeLogs = timeLogRepo.findByMonthAndYear(month, year);
+    // present days are one bit per day of the month, absent days are the complement of that mask
+    public List<AttendanceRecord> getAttendanceRecords(Long employeeId, int month, int year, String statusFilter,
+                                                       Integer page, Integer size) {
+        LocalDate startDate = LocalDate.of(year, month, 1);
+        LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+        int monthMask = (int) ((1L << startDate.lengthOfMonth()) - 1);
 
+        List<EmployeeSummary> employees;
+        List<DailyAttendance> days;
         if (employeeId != null) {
-            timeLogs = timeLogs.stream()
-                    .filter(log -> log.getEmployee() != null &&
-                            employeeId.equals(log.getEmployee().getEmployeeId()))
-                    .collect(Collectors.toList());
+            employees = employeeRepo.findSummaryById(employeeId).map(List::of).orElse(List.of());
+            days = dailyAttendanceRepo.findByEmployeeIdAndWorkDateBetween(employeeId, startDate, endDate);
+        } else if (page != null && size != null) {
+            employees = employeeRepo.findSummaries(PageRequest.of(page, size));
+            List<Long> employeeIds = employees.stream().map(EmployeeSummary::getEmployeeId).collect(Collectors.toList());
+            days = employeeIds.isEmpty()
+                    ? List.of()
+                    : dailyAttendanceRepo.findByEmployeeIdInAndWorkDateBetween(employeeIds, startDate, endDate);
+        } else {
+            employees = employeeRepo.findAllSummaries();
+            days = dailyAttendanceRepo.findByWorkDateBetween(startDate, endDate);
         }
 
-        List<AttendanceRecord> records = new ArrayList<>();
-
-        for (TimeLog log : timeLogs) {
-            if (log.getTimeIn() != null && log.getEmployee() != null) {
-                String date = log.getDate().toLocalDate().toString();
-
-                if (statusFilter == null || "PRESENT".equalsIgnoreCase(statusFilter)) {
-                    records.add(new AttendanceRecord(
-                            log.getEmployee().getEmployeeId(),
-                            log.getEmployee(),
-                            date,
-                            "PRESENT"
-                    ));
-                }
+        Map<Long, Integer> presentDays = new HashMap<>();
+        for (DailyAttendance day : days) {
+            if (day.isPresent()) {
+                presentDays.merge(day.getEmployeeId(), 1 << (day.getWorkDate().getDayOfMonth() - 1), (a, b) -> a | b);
             }
         }
 
-        if (employeeId == null) {
-            List<Employee> allEmployees = employeeRepo.findAll();
-
-            LocalDate startDate = LocalDate.of(year, month, 1);
-            LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+        boolean includePresent = statusFilter == null || "PRESENT".equalsIgnoreCase(statusFilter);
+        // absent days are only generated for the all-employees calendar
+        boolean includeAbsent = employeeId == null && (statusFilter == null || "ABSENT".equalsIgnoreCase(statusFilter));
 
-            for (Employee employee : allEmployees) {
-                LocalDate currentDate = startDate;
-                while (!currentDate.isAfter(endDate)) {
-                    String dateStr = currentDate.toString();
-
-                    boolean hasRecord = records.stream()
-                            .anyMatch(r -> r.getEmployeeId().equals(employee.getEmployeeId())
-                                    && r.getDate().equals(dateStr));
-
-                    if (!hasRecord && (statusFilter == null || "ABSENT".equalsIgnoreCase(statusFilter))) {
-                        records.add(new AttendanceRecord(
-                                employee.getEmployeeId(),
-                                employee,
-                                dateStr,
-                                "ABSENT"
-                        ));
-                    }
-
-                    currentDate = currentDate.plusDays(1);
-                }
+        List<AttendanceRecord> records = new ArrayList<>();
+        for (EmployeeSummary employee : employees) {
+            int present = presentDays.getOrDefault(employee.getEmployeeId(), 0);
+            int selected = (includePresent ? present : 0) | (includeAbsent ? monthMask & ~present : 0);
+
+            while (selected != 0) {
+                int dayIndex = Integer.numberOfTrailingZeros(selected);
+                selected &= selected - 1;
+                records.add(new AttendanceRecord(
+                        employee.getEmployeeId(),
+                        employee,
+                        startDate.plusDays(dayIndex).toString(),
+                        (present & (1 << dayIndex)) != 0 ? "PRESENT" : "ABSENT"
+                ));
             }
         }
 
@@ -265,5 +267,6 @@ public class HRService {
         employee.setContact(updatedData.getContact());
 
         employeeRepository.save(employee);
+        userDetailsService.evictPrincipal(username);
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.tsh.web.Service;
+
+import javax.crypto.SecretKey;
+
+public interface JwtKeyProvider {
+
+    // kid written into the header of newly issued tokens
+    String activeKeyId();
+
+    SecretKey activeKey();
+
+    // any key still accepted for verification, including retired ones during a rotation; null when unknown
+    SecretKey verificationKey(String keyId);
+}
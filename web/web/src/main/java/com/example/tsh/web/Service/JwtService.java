@@ -1,85 +1,126 @@
 package com.example.tsh.web.Service;
 
 
+import com.example.tsh.web.Entity.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.security.core.userdetails.UserDetails;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import java.security.Key;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class JwtService {
 
-    private String secretkey = "";
-
-    public JwtService(){
-        try {
-            KeyGenerator keyGenerator = KeyGenerator.getInstance("HmacSHA256");
-            SecretKey sk = keyGenerator.generateKey();
-            secretkey = Base64.getEncoder().encodeToString(sk.getEncoded());
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
+    private static final long TOKEN_VALIDITY_MILLIS = 60 * 60 * 1000;
+
+    // roles map one-to-one to the admin, hr and employee tables, so userType names the table the uid belongs to
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_USER_TYPE = "userType";
+    static final String CLAIM_USER_ID = "uid";
+
+    private final JwtKeyProvider keyProvider;
+
+    // immutable and thread-safe so every request shares it, the kid header picks the verification key
+    private final JwtParser parser;
+
+    @Value("${app.jwt.revocation-check:true}")
+    private boolean revocationCheck;
+
+    // revoked token ids and per-user "issued before" cut-offs, both dropped once the tokens they cover have expired.
+    // Held in this node's memory only, other replicas do not see them (see app.jwt.revocation-check)
+    private final Map<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    public JwtService(JwtKeyProvider keyProvider) {
+        this.keyProvider = keyProvider;
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                // tokens issued before kid headers were added were signed with the active key
+                if (header.getKeyId() == null) {
+                    return keyProvider.activeKey();
+                }
+                SecretKey key = keyProvider.verificationKey(header.getKeyId());
+                if (key == null) {
+                    throw new SignatureException("Unknown signing key id: " + header.getKeyId());
+                }
+                return key;
+            }
+        }).build();
     }
 
 
-    public String generateToken(String username) {
-        Map<String, Object> claims = new HashMap<>();
+    public String generateToken(AuthPrincipal principal) {
+        long now = System.currentTimeMillis();
 
         return Jwts.builder()
-                .setClaims(claims)
-                .addClaims(claims)
-                .setSubject(username)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 60 * 60 * 1000))
-                .signWith(getKey())
+                .setHeaderParam(JwsHeader.KEY_ID, keyProvider.activeKeyId())
+                .setId(UUID.randomUUID().toString())
+                .setSubject(principal.getUsername())
+                .claim(CLAIM_ROLE, principal.getRole().name())
+                .claim(CLAIM_USER_TYPE, principal.getRole().name())
+                .claim(CLAIM_USER_ID, principal.getUserId())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TOKEN_VALIDITY_MILLIS))
+                .signWith(keyProvider.activeKey())
                 .compact();
 
     }
 
-    private Key getKey(){
-        byte[] keyBytes = Decoders.BASE64.decode(secretkey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // verifies the signature and expiry in one parse and returns subject, expiry and claims together,
+    // throws JwtException when either check fails
+    public Claims parseToken(String token){
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    public String extractUserName(String token){
-        return extractClaims(token, Claims::getSubject);
-    }
-
-    private <T> T extractClaims(String token, Function<Claims, T> claimResolver){
-        final Claims claims = extractAllClaims(token);
-        return claimResolver.apply(claims);
+    // builds the principal from the claims alone, null for tokens issued without them
+    public AuthPrincipal toPrincipal(Claims claims) {
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        if (role == null || userId == null) {
+            return null;
+        }
+        return new AuthPrincipal(claims.getSubject(), "", Role.valueOf(role), userId);
     }
 
-    private Claims extractAllClaims(String token){
-        return Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build().parseClaimsJws(token).getBody();
+    public boolean isRevoked(Claims claims) {
+        if (!revocationCheck) {
+            return false;
+        }
+        if (claims.getId() != null && revokedTokenIds.containsKey(claims.getId())) {
+            return true;
+        }
+        Long cutoff = revokedBefore.get(claims.getSubject());
+        return cutoff != null && claims.getIssuedAt() != null && claims.getIssuedAt().getTime() < cutoff;
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
-
+    public void revokeToken(Claims claims) {
+        purgeExpiredRevocations();
+        if (claims.getId() != null && claims.getExpiration() != null) {
+            revokedTokenIds.put(claims.getId(), claims.getExpiration().getTime());
+        }
     }
 
-
-    private boolean isTokenExpired(String token){
-        return extractExpiration(token).before(new Date());
+    // rejects every token the user already holds, e.g. after a password reset
+    public void revokeAllTokens(String username) {
+        purgeExpiredRevocations();
+        // iat has second precision: round up so a token issued in the same second is revoked as well
+        revokedBefore.put(username, (System.currentTimeMillis() / 1000 + 1) * 1000);
     }
 
-    private Date extractExpiration(String token){
-        return extractClaims(token, Claims::getExpiration);
+    private void purgeExpiredRevocations() {
+        long now = System.currentTimeMillis();
+        revokedTokenIds.values().removeIf(expiresAt -> expiresAt < now);
+        revokedBefore.values().removeIf(cutoff -> cutoff + TOKEN_VALIDITY_MILLIS < now);
     }
 }
@@ -0,0 +1,67 @@
+package com.example.tsh.web.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// every secret-key entry in the keystore verifies under its alias as kid, the active alias also signs
+@Service
+@ConditionalOnProperty(name = "app.jwt.key-source", havingValue = "keystore")
+public class KeystoreJwtKeyProvider implements JwtKeyProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeystoreJwtKeyProvider.class);
+
+    private final String activeKeyId;
+    private final Map<String, SecretKey> keys = new HashMap<>();
+
+    public KeystoreJwtKeyProvider(@Value("${app.jwt.keystore.path}") String path,
+                                  @Value("${app.jwt.keystore.password}") String password,
+                                  @Value("${app.jwt.keystore.type:PKCS12}") String type,
+                                  @Value("${app.jwt.keystore.active-alias}") String activeAlias) {
+        char[] secret = password.toCharArray();
+        try (InputStream in = new DefaultResourceLoader().getResource(path).getInputStream()) {
+            KeyStore keyStore = KeyStore.getInstance(type);
+            keyStore.load(in, secret);
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (keyStore.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) {
+                    keys.put(alias, (SecretKey) keyStore.getKey(alias, secret));
+                }
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load JWT keys from " + path, e);
+        }
+
+        if (!keys.containsKey(activeAlias)) {
+            throw new IllegalStateException("JWT keystore " + path + " has no secret key under alias " + activeAlias);
+        }
+        this.activeKeyId = activeAlias;
+        logger.info("JWT keys loaded from {}, signing with kid {} and verifying {}", path, activeKeyId, keys.keySet());
+    }
+
+    @Override
+    public String activeKeyId() {
+        return activeKeyId;
+    }
+
+    @Override
+    public SecretKey activeKey() {
+        return keys.get(activeKeyId);
+    }
+
+    @Override
+    public SecretKey verificationKey(String keyId) {
+        return keys.get(keyId);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.tsh.web.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+// files under app.payslip.store.dir, sharded two levels deep by hash prefix: ab/cd/abcd...
+@Service
+@ConditionalOnProperty(name = "app.payslip.store.type", havingValue = "local", matchIfMissing = true)
+public class LocalPayslipBlobStore implements PayslipBlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalPayslipBlobStore.class);
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public LocalPayslipBlobStore(@Value("${app.payslip.store.dir:./data/payslips}") String dir) throws IOException {
+        this.root = Paths.get(dir).toAbsolutePath();
+        Files.createDirectories(root);
+        logger.info("Payslip blobs stored under {}", root);
+    }
+
+    @Override
+    public String put(byte[] content) throws IOException {
+        String hash = sha256(content);
+        Path target = pathOf(hash);
+        if (Files.exists(target)) {
+            return hash;
+        }
+
+        // write and fsync a temp file next to the target, then rename: readers never see a partial blob
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // same content stored concurrently, which is the same blob
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return hash;
+    }
+
+    @Override
+    public InputStream open(String contentHash) throws IOException {
+        if (!isHash(contentHash)) {
+            throw new NoSuchFileException("Not a payslip content hash: " + contentHash);
+        }
+        return Files.newInputStream(pathOf(contentHash));
+    }
+
+    // FileSystemResource reads through a FileChannel, so ranges seek instead of skipping through the file
+    @Override
+    public Resource resource(String contentHash) throws IOException {
+        if (!exists(contentHash)) {
+            throw new NoSuchFileException("No payslip blob: " + contentHash);
+        }
+        return new FileSystemResource(pathOf(contentHash));
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        return isHash(contentHash) && Files.exists(pathOf(contentHash));
+    }
+
+    private static boolean isHash(String value) {
+        return value != null && HASH.matcher(value).matches();
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -37,6 +37,12 @@ public class PasswordResetService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private JwtService jwtService;
+
     @Value("${app.frontend-url}")
     private String frontendUrl;
 
@@ -86,16 +92,11 @@ public class PasswordResetService {
                 "If you did not request a password reset, please ignore this email.\n\n" +
                 "Regards,\nYour Company Team";
 
-        logger.info("Sending password reset email to employee: {}", employee.email);
-        boolean emailSent = emailService.sendSimpleMessage(employee.email, emailSubject, emailBody);
-
-        if (emailSent) {
-            logger.info("Password reset email sent successfully to employee: {}", employee.email);
-        } else {
-            logger.error("Failed to send password reset email to employee: {}", employee.email);
-        }
+        // a repeated request before delivery replaces the pending mail, so only the newest link goes out
+        emailService.queueMessage(employee.email, emailSubject, emailBody, "password-reset:" + employee.email);
+        logger.info("Queued password reset email to employee: {}", employee.email);
 
-        return emailSent;
+        return true;
     }
 
     private boolean processHRPasswordReset(HR hr) {
@@ -110,16 +111,11 @@ public class PasswordResetService {
                 "If you did not request a password reset, please ignore this email.\n\n" +
                 "Regards,\nYour Company Team";
 
-        logger.info("Sending password reset email to HR: {}", hr.email);
-        boolean emailSent = emailService.sendSimpleMessage(hr.email, emailSubject, emailBody);
-
-        if (emailSent) {
-            logger.info("Password reset email sent successfully to HR: {}", hr.email);
-        } else {
-            logger.error("Failed to send password reset email to HR: {}", hr.email);
-        }
+        // a repeated request before delivery replaces the pending mail, so only the newest link goes out
+        emailService.queueMessage(hr.email, emailSubject, emailBody, "password-reset:" + hr.email);
+        logger.info("Queued password reset email to HR: {}", hr.email);
 
-        return emailSent;
+        return true;
     }
 
     private String createOrUpdateToken(Employee employee, HR hr) {
@@ -180,11 +176,15 @@ public class PasswordResetService {
             Employee employee = resetToken.getEmployee();
             employee.password = passwordEncoder.encode(newPassword);
             employeeRepository.save(employee);
+            userDetailsService.evictPrincipal(employee.username);
+            jwtService.revokeAllTokens(employee.username);
             logger.info("Password reset successful for employee: {}", employee.email);
         } else if (resetToken.getHr() != null) {
             HR hr = resetToken.getHr();
             hr.password = passwordEncoder.encode(newPassword);
             hrRepository.save(hr);
+            userDetailsService.evictPrincipal(hr.username);
+            jwtService.revokeAllTokens(hr.username);
             logger.info("Password reset successful for HR: {}", hr.email);
         } else {
             logger.error("Password reset failed: Token not associated with any user");
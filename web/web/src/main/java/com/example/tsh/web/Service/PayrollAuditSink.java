@@ -0,0 +1,23 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.DTO.PayrollAuditEntry;
+
+import java.util.List;
+
+public interface PayrollAuditSink {
+
+    enum Level {
+        OFF,
+        SUMMARY,
+        DETAIL
+    }
+
+    Level getLevel();
+
+    // decides per payroll whether an entry should be built at all; must not allocate
+    boolean shouldRecord(long employeeId);
+
+    void record(PayrollAuditEntry entry);
+
+    List<PayrollAuditEntry> recent(int limit);
+}
@@ -0,0 +1,280 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.DailyAttendance;
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Payroll;
+import com.example.tsh.web.Entity.PayrollRun;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.PayrollRunRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+@Service
+public class PayrollRunService {
+    private static final Logger LOGGER = Logger.getLogger(PayrollRunService.class.getName());
+
+    private static final String INSERT_PAYROLL_SQL =
+            "INSERT INTO payroll (employee_id, payroll_run_id, payroll_date, base_salary, regular_holiday_pay, " +
+            "special_holiday_pay, overtime_hours, overtime_rate, overtime_pay, absence_days, absence_deduction, " +
+            "sss_contribution, philhealth_contribution, pagibig_contribution, income_tax, total_deductions, " +
+            "gross_income, net_income) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // a run holds its pay period while RUNNING or COMPLETED, see ux_payroll_run_period in schema.sql
+    private static final List<String> ACTIVE_STATUSES = List.of("RUNNING", "COMPLETED");
+
+    private final PayrollService payrollService;
+    private final PayrollRunRepository payrollRunRepository;
+    private final EmployeeRepo employeeRepository;
+    private final DailyAttendanceService dailyAttendanceService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // owned here rather than exposed as a bean: an Executor bean would stop Boot from creating applicationTaskExecutor
+    private final ForkJoinPool payrollForkJoinPool;
+
+    @Value("${app.payroll.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.payroll.parallel:false}")
+    private boolean parallelByDefault;
+
+    @Value("${app.payroll.chunk-size:200}")
+    private int chunkSize;
+
+    // a RUNNING run older than this is taken to have died with its node and no longer holds the period
+    @Value("${app.payroll.run-timeout-minutes:60}")
+    private long runTimeoutMinutes;
+
+    @Autowired
+    public PayrollRunService(PayrollService payrollService,
+                             PayrollRunRepository payrollRunRepository,
+                             EmployeeRepo employeeRepository,
+                             DailyAttendanceService dailyAttendanceService,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${app.payroll.parallelism:0}") int parallelism) {
+        this.payrollService = payrollService;
+        this.payrollRunRepository = payrollRunRepository;
+        this.employeeRepository = employeeRepository;
+        this.dailyAttendanceService = dailyAttendanceService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        // 0 means one worker per available core
+        this.payrollForkJoinPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public PayrollRun runPayroll(LocalDate periodDate) {
+        return runPayroll(periodDate, parallelByDefault);
+    }
+
+    // the RUNNING row is committed on its own so other readers see the run in progress and a second run for the
+    // same period is refused; payrolls and the COMPLETED status then commit together, a failure marks the run FAILED
+    public PayrollRun runPayroll(LocalDate periodDate, boolean parallel) {
+        long runStart = System.nanoTime();
+
+        PayrollService.PayPeriod period = payrollService.determinePayPeriod(periodDate);
+        LOGGER.info("Starting payroll run for period " + period.startDate + " to " + period.endDate);
+
+        PayrollRun run = claimPeriod(periodDate, period, parallel);
+        try {
+            return transactionTemplate.execute(status -> computeRun(run, periodDate, period, parallel, runStart));
+        } catch (RuntimeException e) {
+            run.setStatus("FAILED");
+            run.setCompletedAt(LocalDateTime.now());
+            run.setTotalMillis(elapsedMillis(runStart));
+            payrollRunRepository.save(run);
+            LOGGER.severe("Payroll run " + run.getPayrollRunId() + " failed: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private PayrollRun claimPeriod(LocalDate periodDate, PayrollService.PayPeriod period, boolean parallel) {
+        Optional<PayrollRun> existing = payrollRunRepository.findFirstByPeriodStartAndPeriodEndAndStatusIn(
+                period.startDate, period.endDate, ACTIVE_STATUSES);
+        if (existing.isPresent()) {
+            PayrollRun holder = existing.get();
+            if ("RUNNING".equals(holder.getStatus())
+                    && holder.getStartedAt().isBefore(LocalDateTime.now().minusMinutes(runTimeoutMinutes))) {
+                LOGGER.warning("Payroll run " + holder.getPayrollRunId() + " has been RUNNING since "
+                        + holder.getStartedAt() + ", marking it FAILED");
+                holder.setStatus("FAILED");
+                payrollRunRepository.save(holder);
+            } else {
+                throw new IllegalStateException("Payroll for " + period.startDate + " to " + period.endDate
+                        + " is already " + holder.getStatus() + " as run " + holder.getPayrollRunId());
+            }
+        }
+
+        PayrollRun run = new PayrollRun();
+        run.setPayrollDate(periodDate);
+        run.setPeriodStart(period.startDate);
+        run.setPeriodEnd(period.endDate);
+        run.setComputeMode(parallel ? "PARALLEL" : "SEQUENTIAL");
+        try {
+            return payrollRunRepository.save(run);
+        } catch (DataIntegrityViolationException e) {
+            // another request claimed the period between the check and the insert
+            throw new IllegalStateException("Payroll for " + period.startDate + " to " + period.endDate
+                    + " is already being run");
+        }
+    }
+
+    private PayrollRun computeRun(PayrollRun run, LocalDate periodDate, PayrollService.PayPeriod period,
+                                  boolean parallel, long runStart) {
+        // load: all employees plus the period's daily attendance rows in one range scan
+        long loadStart = System.nanoTime();
+        List<Employee> employees = employeeRepository.findAll();
+        Map<Long, List<DailyAttendance>> daysByEmployee =
+                dailyAttendanceService.getDaysByEmployee(period.startDate, period.endDate);
+        int timeLogCount = 0;
+        for (List<DailyAttendance> days : daysByEmployee.values()) {
+            for (DailyAttendance day : days) {
+                timeLogCount += day.getLogCount();
+            }
+        }
+        run.setLoadMillis(elapsedMillis(loadStart));
+
+        // compute: pure arithmetic, nothing touches the database here
+        long computeStart = System.nanoTime();
+        PayrollComputeTask task = new PayrollComputeTask(employees, 0, employees.size(),
+                daysByEmployee, periodDate, period, run.getPayrollRunId());
+        List<Payroll> payrolls = parallel ? payrollForkJoinPool.invoke(task) : task.computeSequentially();
+        run.setComputeMillis(elapsedMillis(computeStart));
+
+        // persist: JDBC batch inserts instead of one save per payroll
+        long persistStart = System.nanoTime();
+        batchInsertPayrolls(payrolls);
+        run.setPersistMillis(elapsedMillis(persistStart));
+
+        run.setEmployeeCount(employees.size());
+        run.setTimeLogCount(timeLogCount);
+        run.setPayrollCount(payrolls.size());
+        run.setStatus("COMPLETED");
+        run.setCompletedAt(LocalDateTime.now());
+        run.setTotalMillis(elapsedMillis(runStart));
+
+        LOGGER.info("Completed payroll run: " + run);
+        return payrollRunRepository.save(run);
+    }
+
+    public PayrollRun getPayrollRun(Long runId) {
+        return payrollRunRepository.findById(runId)
+                .orElseThrow(() -> new EntityNotFoundException("Payroll run not found with id: " + runId));
+    }
+
+    public List<PayrollRun> getAllPayrollRuns() {
+        return payrollRunRepository.findAll();
+    }
+
+    Payroll computePayroll(Employee employee, LocalDate payrollDate, PayrollService.PayPeriod period,
+                           List<DailyAttendance> days, Long payrollRunId) {
+        Payroll payroll = new Payroll();
+        payroll.setEmployee(employee);
+        payroll.setPayrollDate(payrollDate);
+        payroll.setPayrollRunId(payrollRunId);
+
+        payrollService.applyPayrollCalculation(payroll, employee, period, days);
+        return payroll;
+    }
+
+    // splits the employee list until a slice fits in one chunk, then computes it from the pre-fetched attendance rows
+    private class PayrollComputeTask extends RecursiveTask<List<Payroll>> {
+        private final List<Employee> employees;
+        private final int from;
+        private final int to;
+        private final Map<Long, List<DailyAttendance>> daysByEmployee;
+        private final LocalDate payrollDate;
+        private final PayrollService.PayPeriod period;
+        private final Long payrollRunId;
+
+        PayrollComputeTask(List<Employee> employees, int from, int to, Map<Long, List<DailyAttendance>> daysByEmployee,
+                           LocalDate payrollDate, PayrollService.PayPeriod period, Long payrollRunId) {
+            this.employees = employees;
+            this.from = from;
+            this.to = to;
+            this.daysByEmployee = daysByEmployee;
+            this.payrollDate = payrollDate;
+            this.period = period;
+            this.payrollRunId = payrollRunId;
+        }
+
+        @Override
+        protected List<Payroll> compute() {
+            if (to - from <= Math.max(1, chunkSize)) {
+                return computeSequentially();
+            }
+
+            int mid = (from + to) >>> 1;
+            PayrollComputeTask left = new PayrollComputeTask(employees, from, mid, daysByEmployee, payrollDate, period, payrollRunId);
+            PayrollComputeTask right = new PayrollComputeTask(employees, mid, to, daysByEmployee, payrollDate, period, payrollRunId);
+            left.fork();
+            List<Payroll> rightResult = right.compute();
+            List<Payroll> leftResult = left.join();
+
+            List<Payroll> merged = new ArrayList<>(leftResult.size() + rightResult.size());
+            merged.addAll(leftResult);
+            merged.addAll(rightResult);
+            return merged;
+        }
+
+        List<Payroll> computeSequentially() {
+            List<Payroll> payrolls = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                Employee employee = employees.get(i);
+                List<DailyAttendance> employeeDays = daysByEmployee.getOrDefault(employee.getEmployeeId(), Collections.emptyList());
+                payrolls.add(computePayroll(employee, payrollDate, period, employeeDays, payrollRunId));
+            }
+            return payrolls;
+        }
+    }
+
+    private void batchInsertPayrolls(List<Payroll> payrolls) {
+        jdbcTemplate.batchUpdate(INSERT_PAYROLL_SQL, payrolls, batchSize, (ps, payroll) -> {
+            ps.setLong(1, payroll.getEmployee().getEmployeeId());
+            ps.setLong(2, payroll.getPayrollRunId());
+            ps.setDate(3, Date.valueOf(payroll.getPayrollDate()));
+            ps.setFloat(4, payroll.getBaseSalary());
+            ps.setFloat(5, payroll.getRegularHolidayPay());
+            ps.setFloat(6, payroll.getSpecialHolidayPay());
+            ps.setFloat(7, payroll.getOvertimeHours());
+            ps.setFloat(8, payroll.getOvertimeRate());
+            ps.setFloat(9, payroll.getOvertimePay());
+            ps.setInt(10, payroll.getAbsenceDays());
+            ps.setFloat(11, payroll.getAbsenceDeduction());
+            ps.setFloat(12, payroll.getSssContribution());
+            ps.setFloat(13, payroll.getPhilhealthContribution());
+            ps.setFloat(14, payroll.getPagibigContribution());
+            ps.setFloat(15, payroll.getIncomeTax());
+            ps.setFloat(16, payroll.getTotalDeductions());
+            ps.setFloat(17, payroll.getGrossIncome());
+            ps.setFloat(18, payroll.getNetIncome());
+        });
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        payrollForkJoinPool.shutdown();
+    }
+}
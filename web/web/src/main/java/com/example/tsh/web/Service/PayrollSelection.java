@@ -0,0 +1,49 @@
+package com.example.tsh.web.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// the {payrollRunOrDate} path segment of the bulk payslip endpoints: a payroll run id or an ISO pay date
+public final class PayrollSelection {
+
+    private final Long payrollRunId;
+    private final LocalDate payrollDate;
+
+    private PayrollSelection(Long payrollRunId, LocalDate payrollDate) {
+        this.payrollRunId = payrollRunId;
+        this.payrollDate = payrollDate;
+    }
+
+    public static PayrollSelection parse(String payrollRunOrDate) {
+        if (!payrollRunOrDate.isEmpty() && payrollRunOrDate.chars().allMatch(Character::isDigit)) {
+            try {
+                return new PayrollSelection(Long.parseLong(payrollRunOrDate), null);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Payroll run id out of range: " + payrollRunOrDate);
+            }
+        }
+        try {
+            return new PayrollSelection(null, LocalDate.parse(payrollRunOrDate));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Expected a payroll run id or a date (yyyy-MM-dd): " + payrollRunOrDate);
+        }
+    }
+
+    public boolean isRun() {
+        return payrollRunId != null;
+    }
+
+    public Long getPayrollRunId() {
+        return payrollRunId;
+    }
+
+    public LocalDate getPayrollDate() {
+        return payrollDate;
+    }
+
+    // "run-12" or "date-2025-03-15", also used in archive file names
+    @Override
+    public String toString() {
+        return isRun() ? "run-" + payrollRunId : "date-" + payrollDate;
+    }
+}
@@ -1,23 +1,21 @@
 package com.example.tsh.web.Service;
 
+import com.example.tsh.web.DTO.PayrollAuditEntry;
+import com.example.tsh.web.DTO.PayrollDTO;
+import com.example.tsh.web.Entity.DailyAttendance;
 import com.example.tsh.web.Entity.Employee;
 import com.example.tsh.web.Entity.Payroll;
 
-import com.example.tsh.web.Entity.TimeLog;
 import com.example.tsh.web.Repository.EmployeeRepo;
 import com.example.tsh.web.Repository.PayrollRepository;
-import com.example.tsh.web.Repository.TimeLogRepo;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 @Service
 public class PayrollService {
@@ -31,17 +29,23 @@ public class PayrollService {
 
     private final PayrollRepository payrollRepository;
     private final EmployeeRepo employeeRepository;
-    private final TimeLogRepo timeLogRepo;
+    private final DailyAttendanceService dailyAttendanceService;
+    private final PayrollAuditSink auditSink;
+    private final RenderedPayslipCache renderedPayslipCache;
 
     @Autowired
-    public PayrollService(PayrollRepository payrollRepository, EmployeeRepo employeeRepository, TimeLogRepo timeLogRepo) {
+    public PayrollService(PayrollRepository payrollRepository, EmployeeRepo employeeRepository,
+                          DailyAttendanceService dailyAttendanceService, PayrollAuditSink auditSink,
+                          RenderedPayslipCache renderedPayslipCache) {
         this.payrollRepository = payrollRepository;
         this.employeeRepository = employeeRepository;
-        this.timeLogRepo = timeLogRepo;
+        this.dailyAttendanceService = dailyAttendanceService;
+        this.auditSink = auditSink;
+        this.renderedPayslipCache = renderedPayslipCache;
     }
 
-    public List<Payroll> getAllPayrolls() {
-        return payrollRepository.findAll();
+    public List<PayrollDTO> getAllPayrolls() {
+        return payrollRepository.findAllDtos();
     }
 
     public Payroll getPayrollById(Long id) {
@@ -49,16 +53,20 @@ public class PayrollService {
                 .orElseThrow(() -> new EntityNotFoundException("Payroll not found with id: " + id));
     }
 
-    public List<Payroll> getPayrollsByEmployeeId(Long employeeId) {
-        return payrollRepository.findByEmployeeEmployeeId(employeeId);
+    public List<PayrollDTO> getPayrollsByEmployeeId(Long employeeId) {
+        return payrollRepository.findDtosByEmployeeId(employeeId);
     }
 
-    public List<Payroll> getPayrollsByDateRange(LocalDate startDate, LocalDate endDate) {
-        return payrollRepository.findByPayrollDateBetween(startDate, endDate);
+    public List<PayrollDTO> getPayrollsByDateRange(LocalDate startDate, LocalDate endDate) {
+        return payrollRepository.findDtosByPayrollDateBetween(startDate, endDate);
     }
 
-    public List<Payroll> getPayrollsByEmployeeAndDateRange(Long employeeId, LocalDate startDate, LocalDate endDate) {
-        return payrollRepository.findByEmployeeEmployeeIdAndPayrollDateBetween(employeeId, startDate, endDate);
+    public List<PayrollDTO> getPayrollsByEmployeeAndDateRange(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        return payrollRepository.findDtosByEmployeeIdAndPayrollDateBetween(employeeId, startDate, endDate);
+    }
+
+    public List<PayrollAuditEntry> getRecentAuditEntries(int limit) {
+        return auditSink.recent(limit);
     }
 
     public Payroll createPayroll(Long employeeId, Payroll payroll) {
@@ -99,12 +107,16 @@ public class PayrollService {
 
         calculatePayrollDetails(payroll, employee, payroll.getPayrollDate());
 
-        return payrollRepository.save(payroll);
+        Payroll saved = payrollRepository.save(payroll);
+        // lazily rendered payslips of this payroll must show the new numbers
+        renderedPayslipCache.invalidatePayroll(id);
+        return saved;
     }
 
     public void deletePayroll(Long id) {
         Payroll payroll = getPayrollById(id);
         payrollRepository.delete(payroll);
+        renderedPayslipCache.invalidatePayroll(id);
     }
 
     public Payroll generatePayrollForEmployee(Long employeeId, LocalDate payrollDate) {
@@ -132,199 +144,164 @@ public class PayrollService {
     }
 
     private void calculatePayrollDetails(Payroll payroll, Employee employee, LocalDate payrollDate) {
+        PayPeriod period = determinePayPeriod(payrollDate);
+        LOGGER.info("Pay period: " + period.startDate + " to " + period.endDate);
+
+        List<DailyAttendance> days = dailyAttendanceService.getEmployeeDays(
+                employee.getEmployeeId(), period.startDate, period.endDate);
+
+        applyPayrollCalculation(payroll, employee, period, days);
+    }
+
+    // pure calculation once the period's daily attendance rows are loaded, shared with the payroll run
+    void applyPayrollCalculation(Payroll payroll, Employee employee, PayPeriod period, List<DailyAttendance> days) {
+        PayrollAuditEntry audit = auditSink.shouldRecord(employee.getEmployeeId())
+                ? new PayrollAuditEntry(employee.getEmployeeId(), payroll.getPayrollDate(), period.startDate, period.endDate)
+                : null;
 
         if (employee.getBaseSalary() <= 0) {
             LOGGER.severe("Employee has zero or negative base salary: " + employee.getBaseSalary());
-            LOGGER.info("Setting a default base salary of 20000 for calculation purposes");
+            if (audit != null) audit.flag("INVALID_BASE_SALARY");
         }
 
-        PayPeriod period = determinePayPeriod(payrollDate);
-        LOGGER.info("Pay period: " + period.startDate + " to " + period.endDate);
+        int timeLogCount = 0;
+        for (DailyAttendance day : days) {
+            timeLogCount += day.getLogCount();
+        }
 
-        List<TimeLog> timeLogs = timeLogRepo.findByEmployeeEmployeeIdAndTimeInBetween(
-                employee.getEmployeeId(),
-                period.startDate.atStartOfDay(),
-                period.endDate.atTime(23, 59, 59)
-        );
-        LOGGER.info("Found " + timeLogs.size() + " time logs for the pay period");
-
-        ensureOvertimeCalculated(timeLogs);
-
-        if (!timeLogs.isEmpty()) {
-            LOGGER.info("Sample time log data after ensuring overtime calculation:");
-            TimeLog sampleLog = timeLogs.get(0);
-            LOGGER.info("  ID: " + sampleLog.getTimeLogId() +
-                    ", Date: " + (sampleLog.getDate() != null ? sampleLog.getDate() : "null") +
-                    ", TimeIn: " + (sampleLog.getTimeIn() != null ? sampleLog.getTimeIn() : "null") +
-                    ", TimeOut: " + (sampleLog.getTimeOut() != null ? sampleLog.getTimeOut() : "null") +
-                    ", Duration: " + sampleLog.getDurationMinutes() +
-                    ", Overtime: " + sampleLog.getOvertimeMinutes());
-        } else {
-            LOGGER.warning("No time logs found for this pay period!");
+        if (audit != null) {
+            audit.setTimeLogCount(timeLogCount);
+            if (timeLogCount == 0) audit.flag("NO_TIME_LOGS");
         }
 
-        AttendanceStats attendance = calculateAttendance(timeLogs, period);
+        AttendanceStats attendance = calculateAttendance(days, timeLogCount, period, audit);
         payroll.setAbsenceDays(attendance.absenceDays);
 
         float fullMonthlySalary = employee.getBaseSalary();
-        LOGGER.info("Full monthly salary: " + fullMonthlySalary);
 
         float dailyRate = fullMonthlySalary / STANDARD_WORKING_DAYS;
         float proratedSalary = dailyRate * attendance.presentDays;
-        LOGGER.info("Daily rate: " + dailyRate + ", Present days: " + attendance.presentDays);
-        LOGGER.info("Prorated salary: " + proratedSalary);
 
         if (proratedSalary <= 0) {
-            LOGGER.warning("Prorated salary calculation resulted in zero or negative amount!");
-
             proratedSalary = fullMonthlySalary / 2;
-            LOGGER.info("Using default prorated salary for testing: " + proratedSalary);
+            if (audit != null) audit.flag("DEFAULT_PRORATED_SALARY");
         }
 
-
         float absenceDeduction = dailyRate * attendance.absenceDays;
         payroll.setAbsenceDeduction(absenceDeduction);
-        LOGGER.info("Absence days: " + attendance.absenceDays + ", Absence deduction: " + absenceDeduction);
 
         payroll.setBaseSalary(proratedSalary);
 
         payroll.setRegularHolidayPay(employee.getRegularHolidayPay());
         payroll.setSpecialHolidayPay(employee.getSpecialHolidayPay());
 
-        calculateOvertimeDetails(payroll, timeLogs, dailyRate);
+        calculateOvertimeDetails(payroll, days, dailyRate, audit);
 
         payroll.calculatePayroll();
 
-        LOGGER.info("Final payroll calculation:");
-        LOGGER.info("Base salary (prorated): " + payroll.getBaseSalary());
-        LOGGER.info("Overtime pay: " + payroll.getOvertimePay());
-        LOGGER.info("Gross income: " + payroll.getGrossIncome());
-        LOGGER.info("Total deductions: " + payroll.getTotalDeductions());
-        LOGGER.info("Net income: " + payroll.getNetIncome());
-    }
-
-    private void ensureOvertimeCalculated(List<TimeLog> timeLogs) {
-        for (TimeLog log : timeLogs) {
-
-            if (log.getTimeIn() == null || log.getTimeOut() == null) {
-                continue;
-            }
-
-            if (log.getDurationMinutes() == null || log.getDurationMinutes() <= 0) {
-                int durationMinutes = (int) Duration.between(log.getTimeIn(), log.getTimeOut()).toMinutes();
-                log.setDurationMinutes(Math.max(0, durationMinutes));
-                LOGGER.info("Recalculated duration for log ID " + log.getTimeLogId() + ": " + durationMinutes + " minutes");
-            }
-
-            if (log.getOvertimeMinutes() == null || log.getOvertimeMinutes() < 0) {
-                int overtimeMinutes = Math.max(0, log.getDurationMinutes() - TimeLog.STANDARD_WORK_MINUTES);
-                log.setOvertimeMinutes(overtimeMinutes);
-                LOGGER.info("Recalculated overtime for log ID " + log.getTimeLogId() + ": " + overtimeMinutes + " minutes");
-            }
-
-            LOGGER.info("Time log ID: " + log.getTimeLogId() +
-                    " - Duration: " + log.getDurationMinutes() +
-                    " min, Overtime: " + log.getOvertimeMinutes() + " min");
-        }
-
-        if (!timeLogs.isEmpty()) {
-            timeLogRepo.saveAll(timeLogs);
-            LOGGER.info("Saved " + timeLogs.size() + " updated time logs with overtime calculations");
+        if (audit != null) {
+            audit.setDailyRate(dailyRate);
+            audit.setProratedSalary(proratedSalary);
+            audit.setAbsenceDeduction(absenceDeduction);
+            audit.setGrossIncome(payroll.getGrossIncome());
+            audit.setSssContribution(payroll.getSssContribution());
+            audit.setPhilhealthContribution(payroll.getPhilhealthContribution());
+            audit.setPagibigContribution(payroll.getPagibigContribution());
+            audit.setIncomeTax(payroll.getIncomeTax());
+            audit.setTotalDeductions(payroll.getTotalDeductions());
+            audit.setNetIncome(payroll.getNetIncome());
+            auditSink.record(audit);
         }
     }
 
-    private void calculateOvertimeDetails(Payroll payroll, List<TimeLog> timeLogs, float dailyRate) {
-        LOGGER.info("===== STARTING OVERTIME CALCULATION =====");
-        LOGGER.info("Number of time logs to process: " + timeLogs.size());
-
+    private void calculateOvertimeDetails(Payroll payroll, List<DailyAttendance> days, float dailyRate, PayrollAuditEntry audit) {
         float hourlyRate = dailyRate / STANDARD_HOURS_PER_DAY;
 
         float overtimeRate = hourlyRate * 1.25f;
 
         overtimeRate = Math.max(overtimeRate, 50.0f);
         payroll.setOvertimeRate(overtimeRate);
-        LOGGER.info("Daily rate: " + dailyRate + ", Hourly rate: " + hourlyRate + ", Overtime rate: " + overtimeRate);
-
-        float totalOvertimeHours = 0;
-
-        boolean hasValidLogs = false;
-
-        for (TimeLog log : timeLogs) {
-
-            if (log.getTimeIn() == null || log.getTimeOut() == null) {
-                LOGGER.warning("Skipping log ID " + log.getTimeLogId() + " - missing time in or time out values");
-                continue;
-            }
-
-            LOGGER.info("Processing TimeLog ID: " + log.getTimeLogId() +
-                    ", Date: " + log.getDate() +
-                    ", TimeIn: " + log.getTimeIn() +
-                    ", TimeOut: " + log.getTimeOut() +
-                    ", Duration: " + log.getDurationMinutes() + " minutes, " +
-                    "Overtime: " + log.getOvertimeMinutes() + " minutes");
 
-            hasValidLogs = true;
+        int totalOvertimeMinutes = 0;
+        boolean hasLogs = false;
+        boolean hasWorkedMinutes = false;
+        boolean detail = audit != null && auditSink.getLevel() == PayrollAuditSink.Level.DETAIL;
+        if (detail) {
+            audit.setDays(new ArrayList<>(days.size()));
+        }
 
-            Integer overtimeMinutes = log.getOvertimeMinutes();
+        for (DailyAttendance day : days) {
+            hasLogs |= day.getLogCount() > 0;
+            hasWorkedMinutes |= day.isPresent();
 
-            if (overtimeMinutes == null) {
-                LOGGER.warning("Log ID " + log.getTimeLogId() + " has null overtime minutes!");
-                continue;
+            if (detail) {
+                audit.getDays().add(new long[]{
+                        day.getWorkDate().toEpochDay(),
+                        day.getWorkedMinutes(),
+                        day.getOvertimeMinutes()
+                });
             }
 
-            if (overtimeMinutes > 0) {
-                float hours = overtimeMinutes / 60.0f;
-                totalOvertimeHours += hours;
-                LOGGER.info("Added " + hours + " overtime hours from log ID: " + log.getTimeLogId());
+            if (day.getOvertimeMinutes() > 0) {
+                totalOvertimeMinutes += day.getOvertimeMinutes();
             }
         }
 
-        if (!hasValidLogs && !timeLogs.isEmpty()) {
-            LOGGER.warning("No valid time logs were found for overtime calculation! Check data integrity.");
+        if (hasLogs && !hasWorkedMinutes && audit != null) {
+            audit.flag("NO_CLOSED_TIME_LOGS");
         }
 
-        LOGGER.info("Total calculated overtime hours: " + totalOvertimeHours);
-
+        float totalOvertimeHours = totalOvertimeMinutes / 60.0f;
         payroll.setOvertimeHours(totalOvertimeHours);
 
         float overtimePay = totalOvertimeHours * overtimeRate;
         payroll.setOvertimePay(overtimePay);
-        LOGGER.info("Final overtime pay calculation: " + totalOvertimeHours + " hours × " + overtimeRate + " = " + overtimePay);
-        LOGGER.info("===== COMPLETED OVERTIME CALCULATION =====");
-    }
 
+        if (audit != null) {
+            audit.setOvertimeHours(totalOvertimeHours);
+            audit.setOvertimeRate(overtimeRate);
+            audit.setOvertimePay(overtimePay);
+        }
+    }
 
-    private AttendanceStats calculateAttendance(List<TimeLog> timeLogs, PayPeriod period) {
-        Set<LocalDate> presentDates = timeLogs.stream()
-                .filter(log -> log.getDurationMinutes() != null && log.getDurationMinutes() > 0)
-                .map(log -> log.getTimeIn().toLocalDate())
-                .collect(Collectors.toSet());
 
-        int presentDays = presentDates.size();
-        LOGGER.info("Present days: " + presentDays);
+    private AttendanceStats calculateAttendance(List<DailyAttendance> days, int timeLogCount, PayPeriod period,
+                                                PayrollAuditEntry audit) {
+        // one row per (employee, day), so every present row is a distinct present day
+        int presentDays = 0;
+        for (DailyAttendance day : days) {
+            if (day.isPresent()) {
+                presentDays++;
+            }
+        }
 
-        if (presentDays == 0 && !timeLogs.isEmpty()) {
-            LOGGER.warning("No present days calculated despite having time logs. Using minimum value for testing.");
+        if (presentDays == 0 && timeLogCount > 0) {
+            // no present days despite having time logs, use minimum value
             presentDays = 1;
+            if (audit != null) audit.flag("MIN_PRESENT_DAYS");
         } else if (presentDays == 0) {
-
-            LOGGER.warning("No time logs found. Using half-month default for testing: 11 days");
+            // no time logs, use half-month default
             presentDays = 11;
+            if (audit != null) audit.flag("DEFAULT_PRESENT_DAYS");
         }
 
         int workingDaysInPeriod = (int) period.startDate.datesUntil(period.endDate.plusDays(1))
                 .filter(date -> date.getDayOfWeek().getValue() < 6) // Mon-Fri only (1-5)
                 .count();
-        LOGGER.info("Working days in period: " + workingDaysInPeriod);
 
         int absenceDays = workingDaysInPeriod - presentDays;
         absenceDays = Math.max(0, absenceDays);
-        LOGGER.info("Absence days: " + absenceDays);
+
+        if (audit != null) {
+            audit.setPresentDays(presentDays);
+            audit.setWorkingDays(workingDaysInPeriod);
+            audit.setAbsenceDays(absenceDays);
+        }
 
         return new AttendanceStats(presentDays, absenceDays, workingDaysInPeriod);
     }
 
-    private PayPeriod determinePayPeriod(LocalDate payrollDate) {
+    PayPeriod determinePayPeriod(LocalDate payrollDate) {
         LocalDate startDate, endDate;
 
         if (payrollDate.getDayOfMonth() <= 15) {
@@ -338,7 +315,7 @@ public class PayrollService {
         return new PayPeriod(startDate, endDate);
     }
 
-    private static class PayPeriod {
+    static class PayPeriod {
         final LocalDate startDate;
         final LocalDate endDate;
 
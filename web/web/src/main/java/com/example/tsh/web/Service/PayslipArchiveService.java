@@ -0,0 +1,188 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.DTO.PayslipArchiveEntry;
+import com.example.tsh.web.Entity.Payslip;
+import com.example.tsh.web.Repository.PayslipRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// writes every payslip of a run or pay date as one ZIP straight to the response, from a single cursor pass.
+// Each PDF is copied from the blob store through a small buffer and its manifest line is spooled to a temp file,
+// which goes in last as manifest.csv, so memory does not grow with the number of payslips.
+// The manifest leaves sha256 and size empty for lazily rendered payslips, their bytes are only known once rendered.
+@Service
+public class PayslipArchiveService {
+    private static final Logger LOGGER = Logger.getLogger(PayslipArchiveService.class.getName());
+
+    private static final String MANIFEST_HEADER =
+            "payslip_id,file_name,employee_id,employee_name,payroll_id,payroll_date,net_income,status,content_size,sha256,included\n";
+
+    private final PayslipRepository payslipRepository;
+    private final PayslipBlobStore payslipBlobStore;
+    private final TransactionTemplate readOnlyTransaction;
+    private final PayslipService payslipService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public PayslipArchiveService(PayslipRepository payslipRepository,
+                                 PayslipBlobStore payslipBlobStore,
+                                 TransactionTemplate transactionTemplate,
+                                 PayslipService payslipService) {
+        this.payslipRepository = payslipRepository;
+        this.payslipBlobStore = payslipBlobStore;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.payslipService = payslipService;
+    }
+
+    public long countPayslips(PayrollSelection selection) {
+        return selection.isRun()
+                ? payslipRepository.countByPayrollPayrollRunId(selection.getPayrollRunId())
+                : payslipRepository.countByPayrollPayrollDate(selection.getPayrollDate());
+    }
+
+    public void writeArchive(PayrollSelection selection, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // iText already compresses the page streams, deflating them again buys little
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        Path manifest = Files.createTempFile("payslip-manifest-", ".csv");
+        try {
+            int[] written = new int[1];
+            try (BufferedWriter manifestLines = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8)) {
+                manifestLines.write(MANIFEST_HEADER);
+                forEachEntry(selection, entry -> {
+                    boolean included = writePdf(zip, entry);
+                    manifestLines.write(manifestLine(entry, included));
+                    if (included) {
+                        written[0]++;
+                    }
+                });
+            }
+
+            zip.putNextEntry(new ZipEntry("manifest.csv"));
+            Files.copy(manifest, zip);
+            zip.closeEntry();
+
+            // finish, not close: the response stream belongs to the container
+            zip.finish();
+            zip.flush();
+            LOGGER.info("Wrote payslip archive for " + selection + " with " + written[0] + " PDFs");
+        } finally {
+            Files.deleteIfExists(manifest);
+        }
+    }
+
+    private interface EntryWriter {
+        void write(PayslipArchiveEntry entry) throws IOException;
+    }
+
+    // one cursor in one read-only transaction: the manifest and the PDFs come from the same rows
+    private void forEachEntry(PayrollSelection selection, EntryWriter action) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<PayslipArchiveEntry> entries = selection.isRun()
+                        ? payslipRepository.streamArchiveEntriesByPayrollRunId(selection.getPayrollRunId())
+                        : payslipRepository.streamArchiveEntriesByPayrollDate(selection.getPayrollDate())) {
+                    entries.forEach(entry -> {
+                        try {
+                            action.write(entry);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // false when the stored PDF is missing; decided once here so the manifest line says what the archive holds.
+    // payslips generated in lazy mode have no stored PDF and are rendered into the archive
+    private boolean writePdf(ZipOutputStream zip, PayslipArchiveEntry entry) throws IOException {
+        InputStream pdf;
+        if (entry.getContentHash() == null) {
+            pdf = renderOnDemand(entry).getInputStream();
+        } else {
+            try {
+                pdf = payslipBlobStore.open(entry.getContentHash());
+            } catch (NoSuchFileException e) {
+                LOGGER.warning("No stored PDF for payslip ID " + entry.getPayslipId() + ", left out of the archive");
+                return false;
+            }
+        }
+        try (InputStream in = pdf) {
+            zip.putNextEntry(new ZipEntry(entryName(entry)));
+            in.transferTo(zip);
+            zip.closeEntry();
+        }
+        return true;
+    }
+
+    // loads the payslip only for the render and detaches it again, so the cursor's transaction does not
+    // accumulate one managed payslip, payroll and employee per row
+    private Resource renderOnDemand(PayslipArchiveEntry entry) throws IOException {
+        Payslip payslip = payslipService.getPayslipById(entry.getPayslipId());
+        try {
+            return payslipService.getPayslipContent(payslip).getResource();
+        } finally {
+            entityManager.detach(payslip.getPayroll());
+            entityManager.detach(payslip.getEmployee());
+            entityManager.detach(payslip);
+        }
+    }
+
+    // file names already carry pay date and employee id; the payslip id keeps them unique within the archive
+    private static String entryName(PayslipArchiveEntry entry) {
+        String fileName = entry.getFileName() != null ? entry.getFileName() : "Payslip.pdf";
+        return entry.getPayslipId() + "_" + fileName.replaceAll("[/\\\\]", "_");
+    }
+
+    private static String manifestLine(PayslipArchiveEntry entry, boolean included) {
+        return String.join(",",
+                String.valueOf(entry.getPayslipId()),
+                csv(included ? entryName(entry) : ""),
+                String.valueOf(entry.getEmployeeId()),
+                csv(entry.getFirstName() + " " + entry.getLastName()),
+                String.valueOf(entry.getPayrollId()),
+                String.valueOf(entry.getPayrollDate()),
+                String.format(Locale.ROOT, "%.2f", entry.getNetIncome()),
+                csv(entry.getStatus()),
+                entry.getContentSize() != null ? String.valueOf(entry.getContentSize()) : "",
+                entry.getContentHash() != null ? entry.getContentHash() : "",
+                String.valueOf(included)) + "\n";
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.Payroll;
+import com.example.tsh.web.Entity.Payslip;
+import com.example.tsh.web.Repository.PayrollRepository;
+import com.example.tsh.web.Repository.PayslipRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// generates the payslips of a whole payroll run (or pay date) in the background.
+// Chunks are rendered on the payslip render pool while the previous chunk is being saved.
+@Service
+public class PayslipBatchService {
+    private static final Logger LOGGER = Logger.getLogger(PayslipBatchService.class.getName());
+
+    private static final int MAX_TRACKED_JOBS = 50;
+
+    private final PayslipService payslipService;
+    private final PayslipTemplateEngine payslipTemplateEngine;
+    private final PayrollRunService payrollRunService;
+    private final PayrollRepository payrollRepository;
+    private final PayslipRepository payslipRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // PDF rendering for bulk payslip runs. Kept private: an Executor bean would stop Boot from creating applicationTaskExecutor
+    private final ExecutorService payslipRenderPool;
+
+    // one batch at a time, later requests wait their turn
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payslip-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong jobIds = new AtomicLong();
+    private final Map<Long, BatchJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BatchJob> eldest) {
+            return size() > MAX_TRACKED_JOBS && !eldest.getValue().isActive();
+        }
+    };
+
+    @Value("${app.payslip.batch-size:200}")
+    private int batchSize;
+
+    @Autowired
+    public PayslipBatchService(PayslipService payslipService,
+                               PayslipTemplateEngine payslipTemplateEngine,
+                               PayrollRunService payrollRunService,
+                               PayrollRepository payrollRepository,
+                               PayslipRepository payslipRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${app.payslip.render-threads:0}") int renderThreads) {
+        this.payslipService = payslipService;
+        this.payslipTemplateEngine = payslipTemplateEngine;
+        this.payrollRunService = payrollRunService;
+        this.payrollRepository = payrollRepository;
+        this.payslipRepository = payslipRepository;
+        this.transactionTemplate = transactionTemplate;
+        // 0 means one thread per available core
+        int workers = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.payslipRenderPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "payslip-render-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static class BatchJob {
+        final long jobId;
+        final String source;
+        final PayrollSelection selection;
+        final String template;
+        final LocalDateTime queuedAt = LocalDateTime.now();
+
+        volatile String status = "QUEUED";
+        volatile String error;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime completedAt;
+        volatile long startNanos;
+        volatile long elapsedNanos;
+
+        final AtomicInteger total = new AtomicInteger();
+        final AtomicInteger rendered = new AtomicInteger();
+        final AtomicInteger persisted = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final LongAdder renderNanos = new LongAdder();
+        final LongAdder persistNanos = new LongAdder();
+
+        BatchJob(long jobId, String source, PayrollSelection selection, String template) {
+            this.jobId = jobId;
+            this.source = source;
+            this.selection = selection;
+            this.template = template;
+        }
+
+        boolean isActive() {
+            return "QUEUED".equals(status) || "RUNNING".equals(status);
+        }
+
+        Map<String, Object> toMap() {
+            long elapsed = "RUNNING".equals(status) ? System.nanoTime() - startNanos : elapsedNanos;
+            int done = persisted.get();
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("jobId", jobId);
+            map.put("source", source);
+            map.put("template", template);
+            map.put("status", status);
+            map.put("total", total.get());
+            map.put("rendered", rendered.get());
+            map.put("persisted", done);
+            map.put("skipped", skipped.get());
+            map.put("failed", failed.get());
+            map.put("queuedAt", queuedAt);
+            map.put("startedAt", startedAt);
+            map.put("completedAt", completedAt);
+            map.put("elapsedMillis", elapsed / 1_000_000);
+            map.put("renderMillis", renderNanos.sum() / 1_000_000);
+            map.put("persistMillis", persistNanos.sum() / 1_000_000);
+            map.put("payslipsPerSecond", elapsed > 0 ? Math.round(done * 1e9 / elapsed) : 0);
+            if (error != null) {
+                map.put("error", error);
+            }
+            return map;
+        }
+    }
+
+    // returns the job that will generate the payslips of the selected run or pay date with the given template
+    // (null for the default); payslips that already exist keep the template they were generated with
+    public Map<String, Object> startBatch(String payrollRunOrDate, String templateId) {
+        PayrollSelection selection = PayrollSelection.parse(payrollRunOrDate);
+        String template = payslipTemplateEngine.versionKey(templateId);
+        if (selection.isRun()) {
+            payrollRunService.getPayrollRun(selection.getPayrollRunId());
+        }
+        String source = selection.toString();
+
+        BatchJob job;
+        synchronized (jobs) {
+            // a second request for the same source while it is still running just reports the existing job
+            for (BatchJob existing : jobs.values()) {
+                if (existing.isActive() && existing.source.equals(source)) {
+                    return existing.toMap();
+                }
+            }
+            job = new BatchJob(jobIds.incrementAndGet(), source, selection, template);
+            jobs.put(job.jobId, job);
+        }
+
+        BatchJob submitted = job;
+        coordinator.execute(() -> run(submitted));
+        LOGGER.info("Queued payslip batch " + job.jobId + " for " + source);
+        return job.toMap();
+    }
+
+    public Map<String, Object> getBatch(long jobId) {
+        synchronized (jobs) {
+            BatchJob job = jobs.get(jobId);
+            if (job == null) {
+                throw new EntityNotFoundException("Payslip batch not found with ID: " + jobId);
+            }
+            return job.toMap();
+        }
+    }
+
+    public List<Map<String, Object>> getRecentBatches() {
+        synchronized (jobs) {
+            List<Map<String, Object>> recent = new ArrayList<>(jobs.size());
+            jobs.values().forEach(job -> recent.add(job.toMap()));
+            return recent;
+        }
+    }
+
+    private void run(BatchJob job) {
+        job.startedAt = LocalDateTime.now();
+        job.startNanos = System.nanoTime();
+        job.status = "RUNNING";
+        try {
+            List<Payroll> payrolls = job.selection.isRun()
+                    ? payrollRepository.findByPayrollRunIdOrderByPayrollId(job.selection.getPayrollRunId())
+                    : payrollRepository.findByPayrollDateOrderByPayrollId(job.selection.getPayrollDate());
+            job.total.set(payrolls.size());
+
+            // render chunk n+1 while chunk n is written
+            List<Future<Payslip>> inFlight = null;
+            int chunk = Math.max(1, batchSize);
+            for (int from = 0; from < payrolls.size(); from += chunk) {
+                List<Future<Payslip>> next = submitChunk(job, payrolls.subList(from, Math.min(from + chunk, payrolls.size())));
+                if (inFlight != null) {
+                    persistChunk(job, collect(job, inFlight));
+                }
+                inFlight = next;
+            }
+            if (inFlight != null) {
+                persistChunk(job, collect(job, inFlight));
+            }
+
+            job.status = "COMPLETED";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.status = "FAILED";
+            job.error = "Interrupted";
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Payslip batch " + job.jobId + " failed", e);
+            job.status = "FAILED";
+            job.error = e.getMessage();
+        } finally {
+            job.elapsedNanos = System.nanoTime() - job.startNanos;
+            job.completedAt = LocalDateTime.now();
+            LOGGER.info("Finished payslip batch: " + job.toMap());
+        }
+    }
+
+    private List<Future<Payslip>> submitChunk(BatchJob job, List<Payroll> payrolls) {
+        List<Long> payrollIds = new ArrayList<>(payrolls.size());
+        payrolls.forEach(payroll -> payrollIds.add(payroll.getPayrollId()));
+        Set<Long> alreadyGenerated = new HashSet<>(payslipRepository.findPayrollIdsWithPayslip(payrollIds));
+
+        List<Future<Payslip>> futures = new ArrayList<>(payrolls.size());
+        for (Payroll payroll : payrolls) {
+            if (alreadyGenerated.contains(payroll.getPayrollId())) {
+                job.skipped.incrementAndGet();
+                continue;
+            }
+            futures.add(payslipRenderPool.submit(() -> {
+                if (payroll.getEmployee() == null) {
+                    throw new EntityNotFoundException("Employee not found in payroll with ID: " + payroll.getPayrollId());
+                }
+                long start = System.nanoTime();
+                Payslip payslip = payslipService.renderPayslip(payroll, payroll.getEmployee(), job.template);
+                job.renderNanos.add(System.nanoTime() - start);
+                job.rendered.incrementAndGet();
+                return payslip;
+            }));
+        }
+        return futures;
+    }
+
+    private List<Payslip> collect(BatchJob job, List<Future<Payslip>> futures) throws InterruptedException {
+        List<Payslip> payslips = new ArrayList<>(futures.size());
+        for (Future<Payslip> future : futures) {
+            try {
+                payslips.add(future.get());
+            } catch (ExecutionException e) {
+                job.failed.incrementAndGet();
+                LOGGER.warning("Payslip batch " + job.jobId + ": " + e.getCause().getMessage());
+            }
+        }
+        return payslips;
+    }
+
+    private void persistChunk(BatchJob job, List<Payslip> payslips) {
+        if (payslips.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> payslipRepository.saveAll(payslips));
+            job.persisted.addAndGet(payslips.size());
+        } catch (RuntimeException e) {
+            job.failed.addAndGet(payslips.size());
+            LOGGER.log(Level.WARNING, "Payslip batch " + job.jobId + ": failed to save " + payslips.size() + " payslips", e);
+        } finally {
+            job.persistNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        coordinator.shutdownNow();
+        payslipRenderPool.shutdown();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.tsh.web.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// moves PDFs left in the old payslip.file_content column into the blob store, a batch per transaction.
+// Hibernate created that column as a large object (oid) on Postgres, older schemas may have bytea.
+@Service
+public class PayslipBlobMigration {
+    private static final Logger LOGGER = Logger.getLogger(PayslipBlobMigration.class.getName());
+
+    private static final String COLUMN_TYPE_SQL =
+            "SELECT data_type FROM information_schema.columns " +
+            "WHERE table_schema = current_schema() AND table_name = 'payslip' AND column_name = 'file_content'";
+
+    // SKIP LOCKED lets several nodes migrate side by side
+    private static final String SELECT_UNMIGRATED_SQL =
+            "SELECT payslip_id, file_content FROM payslip " +
+            "WHERE content_hash IS NULL AND file_content IS NOT NULL " +
+            "ORDER BY payslip_id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String UNLINK_LARGE_OBJECT_SQL =
+            "SELECT lo_unlink(file_content) FROM payslip WHERE payslip_id = ?";
+
+    private static final String MARK_MIGRATED_SQL =
+            "UPDATE payslip SET content_hash = ?, content_size = ?, file_content = NULL WHERE payslip_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PayslipBlobStore payslipBlobStore;
+
+    @Value("${app.payslip.store.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @Value("${app.payslip.store.migration-batch-size:100}")
+    private int batchSize;
+
+    @Autowired
+    public PayslipBlobMigration(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                PayslipBlobStore payslipBlobStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.payslipBlobStore = payslipBlobStore;
+    }
+
+    private static class StoredPdf {
+        final long payslipId;
+        final byte[] content;
+
+        StoredPdf(long payslipId, byte[] content) {
+            this.payslipId = payslipId;
+            this.content = content;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            migrate();
+        }
+    }
+
+    public int migrate() {
+        List<String> columnType = jdbcTemplate.queryForList(COLUMN_TYPE_SQL, String.class);
+        if (columnType.isEmpty()) {
+            return 0;
+        }
+        boolean largeObject = "oid".equals(columnType.get(0));
+
+        int migrated = 0;
+        try {
+            Integer moved;
+            do {
+                moved = transactionTemplate.execute(status -> migrateBatch(largeObject));
+                migrated += moved != null ? moved : 0;
+            } while (moved != null && moved > 0);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Payslip blob migration stopped after " + migrated + " payslips", e);
+            return migrated;
+        }
+
+        if (migrated > 0) {
+            LOGGER.info("Moved " + migrated + " payslip PDFs into the blob store");
+        }
+        return migrated;
+    }
+
+    private int migrateBatch(boolean largeObject) {
+        List<StoredPdf> batch = jdbcTemplate.query(SELECT_UNMIGRATED_SQL,
+                (rs, rowNum) -> new StoredPdf(rs.getLong(1), largeObject ? readBlob(rs.getBlob(2)) : rs.getBytes(2)),
+                Math.max(1, batchSize));
+
+        for (StoredPdf pdf : batch) {
+            String hash;
+            try {
+                hash = payslipBlobStore.put(pdf.content);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to store PDF of payslip " + pdf.payslipId, e);
+            }
+            if (largeObject) {
+                jdbcTemplate.queryForList(UNLINK_LARGE_OBJECT_SQL, pdf.payslipId);
+            }
+            jdbcTemplate.update(MARK_MIGRATED_SQL, hash, (long) pdf.content.length, pdf.payslipId);
+        }
+        return batch.size();
+    }
+
+    private static byte[] readBlob(Blob blob) throws SQLException {
+        try {
+            return blob.getBytes(1, (int) blob.length());
+        } finally {
+            blob.free();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.tsh.web.Service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// payslip PDFs addressed by the lowercase hex SHA-256 of their bytes; rows only keep the hash and size
+public interface PayslipBlobStore {
+
+    // stores the bytes if not already present and returns their hash
+    String put(byte[] content) throws IOException;
+
+    // caller closes the stream; throws NoSuchFileException when the hash is unknown
+    InputStream open(String contentHash) throws IOException;
+
+    // a Resource over the stored bytes for HTTP responses, which serve byte ranges from it without loading the whole blob
+    Resource resource(String contentHash) throws IOException;
+
+    boolean exists(String contentHash);
+}
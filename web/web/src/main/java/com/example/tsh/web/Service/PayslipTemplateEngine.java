@@ -0,0 +1,466 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Payroll;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.FontFactory;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.SplitCharacter;
+import com.itextpdf.text.pdf.PdfDate;
+import com.itextpdf.text.pdf.PdfName;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.logging.Logger;
+
+// renders payslip PDFs from the layout definitions in payslip-templates/*.json.
+// Each definition is compiled once at startup into a render plan: fonts resolved, literal text kept as is and
+// {field} placeholders bound to their accessor, so a render only fills in the payroll's values.
+// Unknown fonts, fields or block types fail startup instead of the first payslip.
+@Service
+public class PayslipTemplateEngine {
+    private static final Logger LOGGER = Logger.getLogger(PayslipTemplateEngine.class.getName());
+
+    private static final DateTimeFormatter DISPLAY_DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+    private static final byte[] FILE_ID_MARKER = "/ID [<".getBytes(StandardCharsets.US_ASCII);
+
+    // iText's default split check copies the whole line and runs a date regex over it for every character it
+    // looks at; payslip text never holds dd-MM-yyyy dates, so this applies the same rules without that step
+    private static final SplitCharacter SPLIT_CHARACTER = (start, current, end, cc, ck) -> {
+        char c = ck == null ? cc[current] : (char) ck[Math.min(current, ck.length - 1)].getUnicodeEquivalent(cc[current]);
+        if (c <= ' ' || c == '-' || c == '\u2010') {
+            return true;
+        }
+        return (c >= '\u2002' && c <= '\u200b')
+                || (c >= '\u2e80' && c < '\ud7a0')
+                || (c >= '\uf900' && c < '\ufb00')
+                || (c >= '\ufe30' && c < '\ufe50')
+                || (c >= '\uff61' && c < '\uffa0');
+    };
+
+    // every value a template can place with {name}
+    private static final Map<String, BiFunction<Payroll, Employee, String>> FIELDS = new HashMap<>();
+
+    static {
+        FIELDS.put("employeeId", (payroll, employee) -> String.valueOf(employee.getEmployeeId()));
+        FIELDS.put("firstName", (payroll, employee) -> String.valueOf(employee.getFirstName()));
+        FIELDS.put("lastName", (payroll, employee) -> String.valueOf(employee.getLastName()));
+        FIELDS.put("position", (payroll, employee) -> String.valueOf(employee.getPosition()));
+        FIELDS.put("payDate", (payroll, employee) -> payroll.getPayrollDate().format(DISPLAY_DATE_FORMAT));
+        FIELDS.put("periodStart", (payroll, employee) -> periodStart(payroll.getPayrollDate()).format(DISPLAY_DATE_FORMAT));
+        FIELDS.put("periodEnd", (payroll, employee) -> periodEnd(payroll.getPayrollDate()).format(DISPLAY_DATE_FORMAT));
+        FIELDS.put("baseSalary", (payroll, employee) -> formatCurrency(payroll.getBaseSalary()));
+        FIELDS.put("regularHolidayPay", (payroll, employee) -> formatCurrency(payroll.getRegularHolidayPay()));
+        FIELDS.put("specialHolidayPay", (payroll, employee) -> formatCurrency(payroll.getSpecialHolidayPay()));
+        FIELDS.put("overtimeHours", (payroll, employee) -> String.valueOf(payroll.getOvertimeHours()));
+        FIELDS.put("overtimeRate", (payroll, employee) -> formatCurrency(payroll.getOvertimeRate()));
+        FIELDS.put("overtimePay", (payroll, employee) -> formatCurrency(payroll.getOvertimePay()));
+        FIELDS.put("grossIncome", (payroll, employee) -> formatCurrency(payroll.getGrossIncome()));
+        FIELDS.put("sssContribution", (payroll, employee) -> formatCurrency(payroll.getSssContribution()));
+        FIELDS.put("philhealthContribution", (payroll, employee) -> formatCurrency(payroll.getPhilhealthContribution()));
+        FIELDS.put("pagibigContribution", (payroll, employee) -> formatCurrency(payroll.getPagibigContribution()));
+        FIELDS.put("incomeTax", (payroll, employee) -> formatCurrency(payroll.getIncomeTax()));
+        FIELDS.put("absenceDays", (payroll, employee) -> String.valueOf(payroll.getAbsenceDays()));
+        FIELDS.put("absenceDeduction", (payroll, employee) -> formatCurrency(payroll.getAbsenceDeduction()));
+        FIELDS.put("totalDeductions", (payroll, employee) -> formatCurrency(payroll.getTotalDeductions()));
+        FIELDS.put("netIncome", (payroll, employee) -> formatCurrency(payroll.getNetIncome()));
+    }
+
+    private final Map<String, RenderPlan> plans;
+    private final String defaultTemplateId;
+
+    @Autowired
+    public PayslipTemplateEngine(ObjectMapper objectMapper,
+                                 @Value("${app.payslip.template.location:classpath*:payslip-templates/*.json}") String location,
+                                 @Value("${app.payslip.template.default:default}") String defaultTemplateId) throws IOException {
+        Map<String, RenderPlan> compiled = new LinkedHashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(location)) {
+            JsonNode definition;
+            try (InputStream in = resource.getInputStream()) {
+                definition = objectMapper.readTree(in);
+            }
+            RenderPlan plan = compile(definition, resource.getFilename());
+            if (compiled.put(plan.id, plan) != null) {
+                throw new IllegalStateException("Duplicate payslip template id '" + plan.id + "' in " + resource.getFilename());
+            }
+        }
+        if (!compiled.containsKey(defaultTemplateId)) {
+            throw new IllegalStateException("Default payslip template '" + defaultTemplateId + "' not found in " + location);
+        }
+        this.plans = compiled;
+        this.defaultTemplateId = defaultTemplateId;
+        LOGGER.info("Compiled payslip templates " + compiled.keySet() + ", default is " + defaultTemplateId);
+    }
+
+    // the value stored in Payslip.payslipTemplate and used in the render cache key, e.g. "default@1";
+    // null selects the default template, an unknown id is rejected
+    public String versionKey(String templateId) {
+        RenderPlan plan = plans.get(templateId != null ? templateId : defaultTemplateId);
+        if (plan == null) {
+            throw new IllegalArgumentException("Unknown payslip template: " + templateId + ", available: " + plans.keySet());
+        }
+        return plan.versionKey;
+    }
+
+    public List<Map<String, Object>> getTemplates() {
+        List<Map<String, Object>> templates = new ArrayList<>(plans.size());
+        for (RenderPlan plan : plans.values()) {
+            Map<String, Object> template = new LinkedHashMap<>();
+            template.put("id", plan.id);
+            template.put("version", plan.version);
+            template.put("default", plan.id.equals(defaultTemplateId));
+            templates.add(template);
+        }
+        return templates;
+    }
+
+    // template is an id or a stored version key; payslips saved before a template was removed fall back to the default
+    public byte[] render(String template, Payroll payroll, Employee employee) {
+        String templateId = template == null ? defaultTemplateId
+                : template.indexOf('@') >= 0 ? template.substring(0, template.indexOf('@')) : template;
+        RenderPlan plan = plans.get(templateId);
+        if (plan == null) {
+            LOGGER.warning("Payslip template " + template + " no longer exists, rendering with " + defaultTemplateId);
+            plan = plans.get(defaultTemplateId);
+        }
+
+        try {
+            Document document = new Document();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(4096);
+            PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+            // dated by the pay date instead of the clock, so the same payroll and template give the same bytes
+            PdfDate date = new PdfDate(GregorianCalendar.from(payroll.getPayrollDate().atStartOfDay(ZoneOffset.UTC)));
+            writer.getInfo().put(PdfName.CREATIONDATE, date);
+            writer.getInfo().put(PdfName.MODDATE, date);
+
+            document.open();
+            // iText elements are mutated while laid out, so they are built fresh for every document
+            for (Block block : plan.blocks) {
+                document.add(block.build(payroll, employee));
+            }
+            document.close();
+            return withFileId(outputStream.toByteArray(), plan.versionKey + ":" + payroll.getPayrollId());
+
+        } catch (Exception e) {
+            LOGGER.severe("Unexpected error during PDF generation: " + e.getMessage());
+            throw new RuntimeException("Failed to generate payslip PDF", e);
+        }
+    }
+
+    // iText always writes a random trailer /ID; overwrite both halves in place with one derived from the payslip.
+    // Same length, so the xref offsets stay valid
+    static byte[] withFileId(byte[] pdf, String identity) {
+        int at = lastIndexOf(pdf, FILE_ID_MARKER);
+        if (at < 0) {
+            throw new IllegalStateException("No /ID in the rendered payslip trailer");
+        }
+        byte[] hex;
+        try {
+            hex = HexFormat.of().formatHex(MessageDigest.getInstance("MD5")
+                    .digest(identity.getBytes(StandardCharsets.UTF_8))).getBytes(StandardCharsets.US_ASCII);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+        int first = at + FILE_ID_MARKER.length;
+        int second = first + hex.length + 2;
+        if (second + hex.length > pdf.length || pdf[first + hex.length] != '>' || pdf[second - 1] != '<') {
+            throw new IllegalStateException("Unexpected /ID layout in the rendered payslip trailer");
+        }
+        System.arraycopy(hex, 0, pdf, first, hex.length);
+        System.arraycopy(hex, 0, pdf, second, hex.length);
+        return pdf;
+    }
+
+    private static int lastIndexOf(byte[] bytes, byte[] marker) {
+        for (int i = bytes.length - marker.length; i >= 0; i--) {
+            if (Arrays.equals(bytes, i, i + marker.length, marker, 0, marker.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static LocalDate periodStart(LocalDate payDate) {
+        return payDate.getDayOfMonth() <= 15 ? payDate.withDayOfMonth(1) : payDate.withDayOfMonth(16);
+    }
+
+    private static LocalDate periodEnd(LocalDate payDate) {
+        return payDate.getDayOfMonth() <= 15 ? payDate.withDayOfMonth(15) : payDate.withDayOfMonth(payDate.lengthOfMonth());
+    }
+
+    private static String formatCurrency(float amount) {
+        return String.format("₱ %.2f", amount);
+    }
+
+    // ---- render plan ----
+
+    private static class RenderPlan {
+        final String id;
+        final int version;
+        final String versionKey;
+        final List<Block> blocks;
+
+        RenderPlan(String id, int version, List<Block> blocks) {
+            this.id = id;
+            this.version = version;
+            this.versionKey = id + "@" + version;
+            this.blocks = blocks;
+        }
+    }
+
+    private interface Block {
+        Element build(Payroll payroll, Employee employee);
+    }
+
+    // literal text, or text with placeholders split into literal parts and field accessors
+    private static class Text {
+        final String literal;
+        final Object[] parts;
+
+        Text(String literal, Object[] parts) {
+            this.literal = literal;
+            this.parts = parts;
+        }
+
+        @SuppressWarnings("unchecked")
+        String resolve(Payroll payroll, Employee employee) {
+            if (literal != null) {
+                return literal;
+            }
+            StringBuilder text = new StringBuilder(64);
+            for (Object part : parts) {
+                if (part instanceof String) {
+                    text.append((String) part);
+                } else {
+                    text.append(((BiFunction<Payroll, Employee, String>) part).apply(payroll, employee));
+                }
+            }
+            return text.toString();
+        }
+
+        Phrase phrase(Payroll payroll, Employee employee, Font font) {
+            String text = resolve(payroll, employee);
+            if (text.isEmpty()) {
+                return new Phrase(text, font);
+            }
+            Chunk chunk = new Chunk(text, font);
+            chunk.setSplitCharacter(SPLIT_CHARACTER);
+            return new Phrase(chunk);
+        }
+    }
+
+    private static class ParagraphBlock implements Block {
+        final Text text;
+        final Font font;
+        final int alignment;
+        final float spacingBefore;
+        final float spacingAfter;
+
+        ParagraphBlock(Text text, Font font, int alignment, float spacingBefore, float spacingAfter) {
+            this.text = text;
+            this.font = font;
+            this.alignment = alignment;
+            this.spacingBefore = spacingBefore;
+            this.spacingAfter = spacingAfter;
+        }
+
+        @Override
+        public Element build(Payroll payroll, Employee employee) {
+            Paragraph paragraph = new Paragraph(text.phrase(payroll, employee, font));
+            paragraph.setAlignment(alignment);
+            paragraph.setSpacingBefore(spacingBefore);
+            paragraph.setSpacingAfter(spacingAfter);
+            return paragraph;
+        }
+    }
+
+    private static class Row {
+        final Text[] cells;
+        final Font font;
+
+        Row(Text[] cells, Font font) {
+            this.cells = cells;
+            this.font = font;
+        }
+    }
+
+    private static class TableBlock implements Block {
+        final int columns;
+        final List<Row> rows;
+        final float widthPercentage;
+        final float spacingBefore;
+        final float spacingAfter;
+        final float cellPadding;
+        final float borderWidth;
+
+        TableBlock(int columns, List<Row> rows, float widthPercentage, float spacingBefore, float spacingAfter,
+                   float cellPadding, float borderWidth) {
+            this.columns = columns;
+            this.rows = rows;
+            this.widthPercentage = widthPercentage;
+            this.spacingBefore = spacingBefore;
+            this.spacingAfter = spacingAfter;
+            this.cellPadding = cellPadding;
+            this.borderWidth = borderWidth;
+        }
+
+        @Override
+        public Element build(Payroll payroll, Employee employee) {
+            PdfPTable table = new PdfPTable(columns);
+            table.setWidthPercentage(widthPercentage);
+            table.setSpacingBefore(spacingBefore);
+            table.setSpacingAfter(spacingAfter);
+            for (Row row : rows) {
+                for (Text text : row.cells) {
+                    PdfPCell cell = new PdfPCell(text.phrase(payroll, employee, row.font));
+                    cell.setPadding(cellPadding);
+                    cell.setBorderWidth(borderWidth);
+                    table.addCell(cell);
+                }
+            }
+            return table;
+        }
+    }
+
+    // ---- compilation ----
+
+    private static RenderPlan compile(JsonNode definition, String source) {
+        String id = definition.path("id").asText(null);
+        if (id == null || id.isBlank() || id.indexOf('@') >= 0) {
+            throw new IllegalStateException("Payslip template " + source + " needs an id without '@'");
+        }
+        int version = definition.path("version").asInt(1);
+
+        Map<String, Font> fonts = new HashMap<>();
+        definition.path("fonts").fields().forEachRemaining(entry -> fonts.put(entry.getKey(),
+                FontFactory.getFont(entry.getValue().path("name").asText(FontFactory.HELVETICA),
+                        (float) entry.getValue().path("size").asDouble(10))));
+
+        JsonNode tableDefaults = definition.path("table");
+        List<Block> blocks = new ArrayList<>();
+        for (JsonNode block : definition.path("blocks")) {
+            String where = source + " block " + (blocks.size() + 1);
+            Font font = font(fonts, block.path("font").asText(null), where);
+            float spacingBefore = (float) block.path("spacingBefore").asDouble(0);
+            float spacingAfter = (float) block.path("spacingAfter").asDouble(0);
+
+            if (block.has("paragraph")) {
+                blocks.add(new ParagraphBlock(text(block.get("paragraph").asText(), where), font,
+                        alignment(block.path("align").asText(null), where), spacingBefore, spacingAfter));
+            } else if (block.has("table")) {
+                List<Row> rows = new ArrayList<>();
+                int columns = 0;
+                for (JsonNode row : block.get("table")) {
+                    JsonNode cells = row.isArray() ? row : row.path("cells");
+                    Font rowFont = row.has("font") ? font(fonts, row.get("font").asText(), where) : font;
+                    Text[] texts = new Text[cells.size()];
+                    for (int i = 0; i < texts.length; i++) {
+                        texts[i] = text(cells.get(i).asText(), where);
+                    }
+                    if (columns != 0 && texts.length != columns) {
+                        throw new IllegalStateException("Rows of different widths in payslip template " + where);
+                    }
+                    columns = texts.length;
+                    rows.add(new Row(texts, rowFont));
+                }
+                if (columns == 0) {
+                    throw new IllegalStateException("Empty table in payslip template " + where);
+                }
+                blocks.add(new TableBlock(columns, rows,
+                        (float) block.path("widthPercentage").asDouble(tableDefaults.path("widthPercentage").asDouble(100)),
+                        spacingBefore, spacingAfter,
+                        (float) block.path("cellPadding").asDouble(tableDefaults.path("cellPadding").asDouble(5)),
+                        (float) block.path("borderWidth").asDouble(tableDefaults.path("borderWidth").asDouble(0.5))));
+            } else {
+                throw new IllegalStateException("Payslip template " + where + " is neither a paragraph nor a table");
+            }
+        }
+        return new RenderPlan(id, version, blocks);
+    }
+
+    private static Font font(Map<String, Font> fonts, String name, String where) {
+        Font font = fonts.get(name);
+        if (font == null) {
+            throw new IllegalStateException("Unknown font '" + name + "' in payslip template " + where);
+        }
+        return font;
+    }
+
+    private static int alignment(String align, String where) {
+        if (align == null) {
+            return Element.ALIGN_UNDEFINED;
+        }
+        switch (align.toLowerCase()) {
+            case "left":
+                return Element.ALIGN_LEFT;
+            case "center":
+                return Element.ALIGN_CENTER;
+            case "right":
+                return Element.ALIGN_RIGHT;
+            default:
+                throw new IllegalStateException("Unknown alignment '" + align + "' in payslip template " + where);
+        }
+    }
+
+    private static Text text(String template, String where) {
+        if (template.indexOf('{') < 0) {
+            return new Text(template, null);
+        }
+        List<Object> parts = new ArrayList<>();
+        int pos = 0;
+        while (pos < template.length()) {
+            int open = template.indexOf('{', pos);
+            if (open < 0) {
+                parts.add(template.substring(pos));
+                break;
+            }
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalStateException("Unclosed placeholder in payslip template " + where + ": " + template);
+            }
+            if (open > pos) {
+                parts.add(template.substring(pos, open));
+            }
+            String name = template.substring(open + 1, close);
+            BiFunction<Payroll, Employee, String> field = FIELDS.get(name);
+            if (field == null) {
+                throw new IllegalStateException("Unknown field {" + name + "} in payslip template " + where);
+            }
+            parts.add(field);
+            pos = close + 1;
+        }
+        return new Text(null, parts.toArray());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.tsh.web.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// LRU of PDFs rendered on demand for payslips without stored content, keyed by payroll id and template version
+// and bounded by total bytes. PayrollService evicts a payroll's entries when its numbers change.
+@Service
+public class RenderedPayslipCache {
+
+    public static class RenderedPdf {
+        private final byte[] content;
+        private final String contentHash;
+
+        RenderedPdf(byte[] content) {
+            this.content = content;
+            this.contentHash = LocalPayslipBlobStore.sha256(content);
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+    }
+
+    private final long maxBytes;
+
+    // access-ordered, guarded by this
+    private final LinkedHashMap<String, RenderedPdf> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    // bumped on every invalidation; a render that overlapped one is served but not cached
+    private long invalidationEpoch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public RenderedPayslipCache(@Value("${app.payslip.lazy.cache-max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public RenderedPdf get(long payrollId, String templateVersion, Supplier<byte[]> render) {
+        String key = key(payrollId, templateVersion);
+        long epoch;
+        synchronized (this) {
+            RenderedPdf cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            epoch = invalidationEpoch;
+        }
+
+        misses.increment();
+        RenderedPdf rendered = new RenderedPdf(render.get());
+        synchronized (this) {
+            if (epoch == invalidationEpoch && rendered.content.length <= maxBytes) {
+                RenderedPdf previous = entries.put(key, rendered);
+                totalBytes += rendered.content.length - (previous != null ? previous.content.length : 0);
+                evictOverflow();
+            }
+        }
+        return rendered;
+    }
+
+    public synchronized void invalidatePayroll(long payrollId) {
+        invalidationEpoch++;
+        String prefix = payrollId + ":";
+        Iterator<Map.Entry<String, RenderedPdf>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, RenderedPdf> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                totalBytes -= entry.getValue().content.length;
+                it.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<RenderedPdf> it = entries.values().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            totalBytes -= it.next().content.length;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static String key(long payrollId, String templateVersion) {
+        return payrollId + ":" + templateVersion;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", totalBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+}
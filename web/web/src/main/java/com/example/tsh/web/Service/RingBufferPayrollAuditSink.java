@@ -0,0 +1,65 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.DTO.PayrollAuditEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class RingBufferPayrollAuditSink implements PayrollAuditSink {
+
+    private final Level level;
+    // sampled employees are those whose hashed id falls below sampleRate of the 53-bit range
+    private final long sampleThreshold;
+    private final PayrollAuditEntry[] buffer;
+    private long written;
+
+    public RingBufferPayrollAuditSink(@Value("${app.payroll.audit.level:OFF}") Level level,
+                                      @Value("${app.payroll.audit.sample-rate:1.0}") double sampleRate,
+                                      @Value("${app.payroll.audit.capacity:1000}") int capacity) {
+        this.level = level;
+        this.sampleThreshold = sampleRate >= 1.0 ? Long.MAX_VALUE : (long) (Math.max(0.0, sampleRate) * (1L << 53));
+        this.buffer = new PayrollAuditEntry[Math.max(1, capacity)];
+    }
+
+    @Override
+    public Level getLevel() {
+        return level;
+    }
+
+    @Override
+    public boolean shouldRecord(long employeeId) {
+        if (level == Level.OFF) {
+            return false;
+        }
+        // deterministic per employee, so a sampled employee is audited on every run and across nodes
+        return (mix(employeeId) >>> 11) < sampleThreshold;
+    }
+
+    // splitmix64 finaliser: consecutive ids spread evenly over the range
+    static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public synchronized void record(PayrollAuditEntry entry) {
+        buffer[(int) (written % buffer.length)] = entry;
+        written++;
+    }
+
+    @Override
+    public synchronized List<PayrollAuditEntry> recent(int limit) {
+        int available = (int) Math.min(written, buffer.length);
+        int count = Math.min(Math.max(0, limit), available);
+        List<PayrollAuditEntry> entries = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            entries.add(buffer[(int) ((written - i) % buffer.length)]);
+        }
+        return entries;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.tsh.web.Service;
 
+import com.example.tsh.web.DTO.TimeLogDTO;
 import com.example.tsh.web.DTO.TimeLogSummary;
 import com.example.tsh.web.Entity.Employee;
 import com.example.tsh.web.Entity.HR;
@@ -10,19 +11,34 @@ import com.example.tsh.web.Repository.TimeLogRepo;
 import com.example.tsh.web.Util.CutoffUtil;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Types;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class TimeLogService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TimeLogService.class);
+
     @Autowired
     private TimeLogRepo timeLogRepository;
 
@@ -32,6 +48,89 @@ public class TimeLogService {
     @Autowired
     private EmployeeRepo employeeRepo;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DailyAttendanceService dailyAttendanceService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${app.attendance.seed-on-startup:true}")
+    private boolean seedAttendanceOnStartup;
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    // columns of TimeLogDTO plus the event key and whether this statement wrote the row
+    private static final String CLOCK_EVENT_RESULT =
+            "SELECT r.time_log_id, r.time_in, r.time_out, r.duration_minutes, r.date, r.cutoff_period, r.overtime_minutes, " +
+            "e.employee_id, e.username, e.first_name, e.last_name, e.email, e.position, " +
+            "h.hr_id, h.first_name AS hr_first_name, h.last_name AS hr_last_name, r.event_key, r.applied " +
+            "FROM result r JOIN employee e ON e.employee_id = r.employee_id " +
+            "LEFT JOIN hr h ON h.hr_id = r.assigned_hr_id ";
+
+    // opens a log and counts it in the rollup; the partial unique index on open logs turns a second open
+    // (or a replayed key) into a no-op
+    private static final String OPEN_LOG_CTE =
+            "opened AS (" +
+            "  INSERT INTO time_logs (employee_id, time_in, date, cutoff_period, clock_in_key) " +
+            "  VALUES (:employeeId, :now, :now, :cutoffPeriod, :key) " +
+            "  ON CONFLICT DO NOTHING RETURNING *" +
+            ")";
+    private static final String OPEN_LOG_ROLLUP =
+            "INSERT INTO daily_attendance (employee_id, work_date, log_count, present, worked_minutes, overtime_minutes) " +
+            "SELECT employee_id, CAST(time_in AS date), 1, false, 0, 0 FROM opened " +
+            "ON CONFLICT (employee_id, work_date) DO UPDATE SET " +
+            "log_count = daily_attendance.log_count + 1";
+
+    // closes the open log, derives duration/overtime the same way TimeLog.recalculateOvertimeMutates does and
+    // adds them to the rollup; a key that already closed a log makes it a no-op
+    private static final String CLOSE_LOG_CTE =
+            "closed AS (" +
+            "  UPDATE time_logs SET time_out = :now, clock_out_key = :key, " +
+            "  duration_minutes = CAST(FLOOR(EXTRACT(EPOCH FROM (:now - time_in)) / 60) AS integer), " +
+            "  overtime_minutes = GREATEST(0, CAST(FLOOR(EXTRACT(EPOCH FROM (:now - time_in)) / 60) AS integer) - " +
+            TimeLog.STANDARD_WORK_MINUTES + ") " +
+            "  WHERE employee_id = :employeeId AND time_out IS NULL " +
+            "  AND NOT EXISTS (SELECT 1 FROM time_logs k WHERE k.employee_id = :employeeId AND k.clock_out_key = :key) " +
+            "  RETURNING *" +
+            ")";
+    private static final String CLOSE_LOG_ROLLUP =
+            "INSERT INTO daily_attendance (employee_id, work_date, log_count, present, worked_minutes, overtime_minutes) " +
+            "SELECT employee_id, CAST(time_in AS date), 0, duration_minutes > 0, GREATEST(duration_minutes, 0), " +
+            "overtime_minutes FROM closed " +
+            "ON CONFLICT (employee_id, work_date) DO UPDATE SET " +
+            "present = daily_attendance.worked_minutes + EXCLUDED.worked_minutes > 0, " +
+            "worked_minutes = daily_attendance.worked_minutes + EXCLUDED.worked_minutes, " +
+            "overtime_minutes = daily_attendance.overtime_minutes + EXCLUDED.overtime_minutes";
+
+    // write-only forms for batched ingestion, the update count is 0 when the event was a no-op
+    static final String CLOCK_IN_WRITE_SQL = "WITH " + OPEN_LOG_CTE + " " + OPEN_LOG_ROLLUP;
+    static final String CLOCK_OUT_WRITE_SQL = "WITH " + CLOSE_LOG_CTE + " " + CLOSE_LOG_ROLLUP;
+
+    // request/response forms: the row written, or the existing row when the event was a no-op
+    private static final String CLOCK_IN_SQL =
+            "WITH " + OPEN_LOG_CTE + ", rollup AS (" + OPEN_LOG_ROLLUP + "), result AS (" +
+            "  SELECT o.*, o.clock_in_key AS event_key, true AS applied FROM opened o " +
+            "  UNION ALL " +
+            "  SELECT t.*, t.clock_in_key, false FROM time_logs t " +
+            "  WHERE t.employee_id = :employeeId AND (t.time_out IS NULL OR t.clock_in_key = :key) " +
+            "  AND NOT EXISTS (SELECT 1 FROM opened)" +
+            ") " + CLOCK_EVENT_RESULT +
+            "ORDER BY r.applied DESC, (r.event_key = :key) DESC NULLS LAST LIMIT 1";
+
+    private static final String CLOCK_OUT_SQL =
+            "WITH " + CLOSE_LOG_CTE + ", rollup AS (" + CLOSE_LOG_ROLLUP + "), result AS (" +
+            "  SELECT c.*, c.clock_out_key AS event_key, true AS applied FROM closed c " +
+            "  UNION ALL " +
+            "  SELECT t.*, t.clock_out_key, false FROM time_logs t " +
+            "  WHERE t.employee_id = :employeeId AND t.clock_out_key = :key AND NOT EXISTS (SELECT 1 FROM closed)" +
+            ") " + CLOCK_EVENT_RESULT + "LIMIT 1";
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+
 
     CutoffUtil cutoffUtil;
 
@@ -47,60 +146,149 @@ public class TimeLogService {
         return timeLogRepository.save(timeLog);
     }
 
-    public List<TimeLog> findAllTimeLogs() {
-        return timeLogRepository.findAll();
+    // every log in one list; large tables should use findTimeLogPage or forEachTimeLog
+    public List<TimeLogDTO> findAllTimeLogs() {
+        return timeLogRepository.findAllDtos();
+    }
+
+    // keyset pagination on timeLogId, pass the last id of the previous page as after
+    public List<TimeLogDTO> findTimeLogPage(Long after, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        return timeLogRepository.findPageAfter(after != null ? after : 0L, PageRequest.of(0, size));
+    }
+
+    // walks every time log through a database cursor, the transaction stays open until the consumer is done
+    public void forEachTimeLog(Consumer<TimeLogDTO> action) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TimeLogDTO> logs = timeLogRepository.streamAll()) {
+                logs.forEach(action);
+            }
+        });
     }
 
     public Optional<TimeLog> findTimeLogById(Long id) {
         return timeLogRepository.findById(id);
     }
 
-    public List<TimeLog> findTimeLogsByEmployee(Employee employee) {
-        return timeLogRepository.findByEmployee(employee);
+    public List<TimeLogDTO> findTimeLogsByEmployee(Employee employee) {
+        return timeLogRepository.findDtosByEmployee(employee.getEmployeeId());
     }
 
-    public List<TimeLog> findTodayLogsByEmployee(Employee employee) {
-        return timeLogRepository.findTodayLogsByEmployee(employee);
+    public List<TimeLogDTO> findTodayLogsByEmployee(Employee employee) {
+        return findLogsByEmployeeAndDay(employee, LocalDate.now());
     }
 
-    public List<TimeLog> findLogsByEmployeeAndDate(Employee employee, LocalDateTime date) {
-        return timeLogRepository.findByEmployeeAndDate(employee, date);
+    public List<TimeLogDTO> findLogsByEmployeeAndDate(Employee employee, LocalDateTime date) {
+        return findLogsByEmployeeAndDay(employee, date.toLocalDate());
     }
 
-    public TimeLog timeIn(Employee employee) {
-        TimeLog activeLog = timeLogRepository.findActiveLogByEmployee(employee);
+    private List<TimeLogDTO> findLogsByEmployeeAndDay(Employee employee, LocalDate day) {
+        return timeLogRepository.findDtosByEmployeeAndDateRange(
+                employee.getEmployeeId(), day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
 
-        if (activeLog != null) {
-            throw new IllegalStateException("Employee already timed in");
+    public List<TimeLogDTO> findAssignedLogs(HR hr) {
+        return timeLogRepository.findDtosByAssignedHr(hr.getHrId());
+    }
+
+    // employeeId is optional, without it every employee's logs for the month are returned
+    public List<TimeLogDTO> findLogsForMonth(Long employeeId, int year, int month) {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        LocalDateTime start = yearMonth.atDay(1).atStartOfDay();
+        LocalDateTime end = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
+
+        if (employeeId == null) {
+            return timeLogRepository.findDtosByDateRange(start, end);
         }
+        return timeLogRepository.findDtosByEmployeeAndDateRange(employeeId, start, end);
+    }
 
+    // one round trip, no transaction: the statement is atomic on its own. idempotencyKey is optional,
+    // repeating a key returns the log that key already opened
+    public TimeLogDTO timeIn(Long employeeId, String idempotencyKey) {
+        ClockEventRow row = runClockEvent(CLOCK_IN_SQL, clockInParams(employeeId, idempotencyKey, LocalDateTime.now()));
+        if (row == null || (!row.applied && (idempotencyKey == null || !idempotencyKey.equals(row.eventKey)))) {
+            throw new IllegalStateException("Employee already timed in");
+        }
+        return row.log;
+    }
 
-        LocalDateTime now = LocalDateTime.now();
-        String cutoffLabel = CutoffUtil.getCutoffLabel(now.toLocalDate());
+    // repeating a key returns the log that key already closed
+    public TimeLogDTO timeOut(Long employeeId, String idempotencyKey) {
+        ClockEventRow row = runClockEvent(CLOCK_OUT_SQL, clockOutParams(employeeId, idempotencyKey, LocalDateTime.now()));
+        if (row == null) {
+            throw new IllegalStateException("No active time-in found for employee");
+        }
+        return row.log;
+    }
 
-        TimeLog timeLog = new TimeLog(employee, LocalDateTime.now(), null);
-        timeLog.setCutoffPeriod(cutoffLabel);
-        return timeLogRepository.save(timeLog);
+    static MapSqlParameterSource clockInParams(Long employeeId, String idempotencyKey, LocalDateTime now) {
+        return clockOutParams(employeeId, idempotencyKey, now)
+                .addValue("cutoffPeriod", CutoffUtil.getCutoffLabel(now.toLocalDate()));
     }
 
-    public TimeLog timeOut(Employee employee) {
-        TimeLog activeLog = timeLogRepository.findActiveLogByEmployee(employee);
+    static MapSqlParameterSource clockOutParams(Long employeeId, String idempotencyKey, LocalDateTime now) {
+        validateIdempotencyKey(idempotencyKey);
+        return new MapSqlParameterSource()
+                .addValue("employeeId", employeeId)
+                .addValue("key", idempotencyKey, Types.VARCHAR)
+                .addValue("now", now, Types.TIMESTAMP);
+    }
 
-        if (activeLog == null) {
-            throw new IllegalStateException("No active time-in found for employee");
+    static void validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
         }
+    }
 
-        activeLog.setTimeOut(LocalDateTime.now());
+    private static class ClockEventRow {
+        final TimeLogDTO log;
+        final String eventKey;
+        final boolean applied;
 
-        return timeLogRepository.save(activeLog);
+        ClockEventRow(TimeLogDTO log, String eventKey, boolean applied) {
+            this.log = log;
+            this.eventKey = eventKey;
+            this.applied = applied;
+        }
     }
 
-    public TimeLog saveTimeLog(TimeLog timeLog) {
-        return timeLogRepository.save(timeLog);
+    private ClockEventRow runClockEvent(String sql, MapSqlParameterSource params) {
+        // a conflicting event committed while this statement ran is not visible to its snapshot, the retry sees it
+        for (int attempt = 0; attempt < 2; attempt++) {
+            List<ClockEventRow> rows = namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) -> new ClockEventRow(
+                    new TimeLogDTO(
+                            rs.getLong("time_log_id"),
+                            rs.getObject("time_in", LocalDateTime.class),
+                            rs.getObject("time_out", LocalDateTime.class),
+                            rs.getObject("duration_minutes", Integer.class),
+                            rs.getObject("date", LocalDateTime.class),
+                            rs.getString("cutoff_period"),
+                            rs.getObject("overtime_minutes", Integer.class),
+                            rs.getLong("employee_id"),
+                            rs.getString("username"),
+                            rs.getString("first_name"),
+                            rs.getString("last_name"),
+                            rs.getString("email"),
+                            rs.getString("position"),
+                            rs.getObject("hr_id", Long.class),
+                            rs.getString("hr_first_name"),
+                            rs.getString("hr_last_name")),
+                    rs.getString("event_key"),
+                    rs.getBoolean("applied")));
+            if (!rows.isEmpty()) {
+                return rows.get(0);
+            }
+        }
+        return null;
     }
 
+    @Transactional
     public void deleteTimeLog(Long id) {
-        timeLogRepository.deleteById(id);
+        timeLogRepository.findById(id).ifPresent(log -> {
+            dailyAttendanceService.recordRemoval(log);
+            timeLogRepository.delete(log);
+        });
     }
 
     public TimeLog getCurrentStatus(Employee employee) {
@@ -108,6 +296,7 @@ public class TimeLogService {
     }
 
 
+    @Transactional
     public TimeLog adjustTimeLog(Long timeLogId, Employee employee, LocalDateTime timeIn, LocalDateTime timeOut) {
         TimeLog log = timeLogRepository.findById(timeLogId)
                 .orElseThrow(() -> new IllegalArgumentException("TimeLog not found"));
@@ -116,6 +305,7 @@ public class TimeLogService {
             throw new IllegalArgumentException("TimeLog does not belong to the specified employee");
         }
 
+        DailyAttendanceService.Contribution before = dailyAttendanceService.contributionOf(log);
 
         if (timeIn != null) {
             log.setTimeIn(timeIn);
@@ -124,14 +314,55 @@ public class TimeLogService {
             log.setTimeOut(timeOut);
         }
 
-        return timeLogRepository.save(log);
+        TimeLog saved = timeLogRepository.save(log);
+        dailyAttendanceService.recordChange(before, saved);
+        return saved;
+    }
+
+    // payroll reads only the rollup, so logs written before it existed (or by an older build) are folded in once:
+    // the first startup derives the missing minutes and rebuilds every day, later ones only see the recorded run.
+    // Data imported afterwards is rolled up with POST /api/hr/time-logs/attendance/rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedAttendanceRollup() {
+        if (!seedAttendanceOnStartup || dailyAttendanceService.hasRebuiltAll()) {
+            return;
+        }
+        try {
+            int backfilled = backfillDerivedMinutes();
+            if (backfilled > 0) {
+                logger.info("Backfilled derived minutes on {} time logs", backfilled);
+            }
+            dailyAttendanceService.rebuildAllOnce();
+        } catch (RuntimeException e) {
+            logger.error("Seeding the daily attendance rollup failed, run POST /api/hr/time-logs/attendance/rebuild", e);
+        }
+    }
+
+    // one-off job: fills durationMinutes/overtimeMinutes on legacy rows, one transaction per batch
+    public int backfillDerivedMinutes() {
+        int total = 0;
+        while (true) {
+            Integer updated = transactionTemplate.execute(status -> {
+                List<TimeLog> batch = timeLogRepository.findClosedLogsMissingDerivedMinutes(
+                        PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                for (TimeLog log : batch) {
+                    log.recalculateOvertimeMutates();
+                }
+                timeLogRepository.saveAll(batch);
+                return batch.size();
+            });
+            if (updated == null || updated == 0) {
+                return total;
+            }
+            total += updated;
+        }
     }
 
-    public List<TimeLog> getAttendanceForMonth(Long employeeId, int year, int month) {
+    public List<TimeLogDTO> getAttendanceForMonth(Long employeeId, int year, int month) {
         Employee employee = employeeRepo.findById(employeeId)
                 .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
 
-        return timeLogRepository.findByEmployeeAndMonthAndYear(employee, month, year);
+        return findLogsForMonth(employee.getEmployeeId(), year, month);
     }
 
     public List<Map<String, Object>> getEmployeeHoursByCutoff(Long employeeId) {
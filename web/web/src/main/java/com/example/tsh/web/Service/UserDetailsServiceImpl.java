@@ -11,18 +11,22 @@ import com.example.tsh.web.Repository.EmployeeRepo;
 import com.example.tsh.web.Repository.HRRepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final AdminRepo adminRepo;
     private final HRRepo hrRepo;
@@ -30,11 +34,45 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     private final ThreadLocal<String> authType = new ThreadLocal<>();
     private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
+    // bounded LRU of resolved principals, guarded by its own monitor
+    private final Map<String, CachedPrincipal> principalCache;
+    private final int cacheMaxSize;
+    private final long cacheTtlMillis;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheEvictions = new LongAdder();
+    // bumped on every invalidation so a load that raced with it is not cached
+    private final AtomicLong invalidations = new AtomicLong();
 
-    public UserDetailsServiceImpl(AdminRepo adminRepo, HRRepo hrRepo, EmployeeRepo employeeRepo) {
+
+    public UserDetailsServiceImpl(AdminRepo adminRepo, HRRepo hrRepo, EmployeeRepo employeeRepo,
+                                  @Value("${app.security.principal-cache.max-size:10000}") int cacheMaxSize,
+                                  @Value("${app.security.principal-cache.ttl-seconds:300}") long cacheTtlSeconds) {
         this.adminRepo = adminRepo;
         this.hrRepo = hrRepo;
         this.employeeRepo = employeeRepo;
+        this.cacheMaxSize = cacheMaxSize;
+        this.cacheTtlMillis = TimeUnit.SECONDS.toMillis(cacheTtlSeconds);
+        this.principalCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                if (size() > UserDetailsServiceImpl.this.cacheMaxSize) {
+                    cacheEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static class CachedPrincipal {
+        final AuthPrincipal principal;
+        final long expiresAt;
+
+        CachedPrincipal(AuthPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
     }
 
     public void setAuthType(String type) {
@@ -45,32 +83,114 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         logger.debug("Username: {}", username);
 
+        AuthPrincipal cached = lookupCached(username);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached.copy();
+        }
+        cacheMisses.increment();
+
+        long generation = invalidations.get();
+        AuthPrincipal loaded = loadFromDatabase(username);
+        if (cacheMaxSize > 0 && cacheTtlMillis > 0) {
+            synchronized (principalCache) {
+                if (generation == invalidations.get()) {
+                    principalCache.put(username, new CachedPrincipal(loaded, System.currentTimeMillis() + cacheTtlMillis));
+                }
+            }
+        }
+        return loaded.copy();
+    }
+
+    // called by the authentication provider after a successful login whose hash used an older BCrypt cost
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (!(user instanceof AuthPrincipal principal)) {
+            return user;
+        }
+
+        switch (principal.getRole()) {
+            case ADMIN -> adminRepo.findById(principal.getUserId()).ifPresent(admin -> {
+                admin.setPassword(newPassword);
+                adminRepo.save(admin);
+            });
+            case HR -> hrRepo.findById(principal.getUserId()).ifPresent(hr -> {
+                hr.password = newPassword;
+                hrRepo.save(hr);
+            });
+            case EMPLOYEE -> employeeRepo.findById(principal.getUserId()).ifPresent(employee -> {
+                employee.password = newPassword;
+                employeeRepo.save(employee);
+            });
+        }
+        evictPrincipal(principal.getUsername());
+        logger.info("Rehashed password for {} at the configured BCrypt cost", principal.getUsername());
+        return new AuthPrincipal(principal.getUsername(), newPassword, principal.getRole(), principal.getUserId());
+    }
+
+    // call whenever a user's password, role or profile changes so the next request sees it
+    public void evictPrincipal(String username) {
+        if (username == null) {
+            return;
+        }
+        synchronized (principalCache) {
+            invalidations.incrementAndGet();
+            principalCache.remove(username);
+        }
+    }
+
+    public Map<String, Object> getPrincipalCacheStats() {
+        long hits = cacheHits.sum();
+        long misses = cacheMisses.sum();
+        int size;
+        synchronized (principalCache) {
+            size = principalCache.size();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxSize", cacheMaxSize);
+        stats.put("ttlSeconds", TimeUnit.MILLISECONDS.toSeconds(cacheTtlMillis));
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", cacheEvictions.sum());
+        stats.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        return stats;
+    }
+
+    private AuthPrincipal lookupCached(String username) {
+        synchronized (principalCache) {
+            CachedPrincipal entry = principalCache.get(username);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                principalCache.remove(username);
+                cacheEvictions.increment();
+                return null;
+            }
+            return entry.principal;
+        }
+    }
+
+    private AuthPrincipal loadFromDatabase(String username) {
         Optional<Admin> admin = adminRepo.findByUsername(username);
         if (admin.isPresent()) {
-            return User.builder()
-                    .username(admin.get().getUsername())
-                    .password(admin.get().getPassword())
-                    .authorities("ROLE_" + admin.get().getRole().name())
-                    .build();
+            return new AuthPrincipal(admin.get().getUsername(), admin.get().getPassword(),
+                    admin.get().getRole(), admin.get().getAdminId());
         }
 
         Optional<HR> hr = hrRepo.findByUsername(username);
         if (hr.isPresent()) {
-            return User.builder()
-                    .username(hr.get().getUsername())
-                    .password(hr.get().getPassword())
-                    .authorities("ROLE_" + hr.get().getRole().name())
-                    .build();
+            return new AuthPrincipal(hr.get().getUsername(), hr.get().getPassword(),
+                    hr.get().getRole(), hr.get().getHrId());
         }
 
         Optional<Employee> employee = employeeRepo.findByUsername(username);
         if(employee.isPresent()){
-            return  User.builder()
-                    .username(employee.get().getUsername())
-                    .password(employee.get().getPassword())
-                    .authorities("ROLE_" + employee.get().getRole().name())
-                    .build();
+            return new AuthPrincipal(employee.get().getUsername(), employee.get().getPassword(),
+                    employee.get().getRole(), employee.get().getEmployeeId());
         }
         throw new UsernameNotFoundException("User not found with username: " + username);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.example.tsh.web.Util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+public class NdjsonUtil {
+
+    // one JSON document per line, written as the source produces rows so only the current row is held in memory
+    public static <T> StreamingResponseBody stream(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        return out -> source.accept(row -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(row));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+-- Runs after Hibernate's schema update (spring.jpa.defer-datasource-initialization), every statement is idempotent.
+
+-- duplicate open logs left by the old select-then-insert clock-in: keep the latest, close the rest with zero duration
+UPDATE time_logs t SET time_out = t.time_in, duration_minutes = 0, overtime_minutes = 0
+WHERE t.time_out IS NULL AND EXISTS (
+    SELECT 1 FROM time_logs n
+    WHERE n.employee_id = t.employee_id AND n.time_out IS NULL AND n.time_log_id > t.time_log_id);
+
+-- at most one open time log per employee: concurrent clock-ins cannot create a second one
+CREATE UNIQUE INDEX IF NOT EXISTS ux_time_logs_open_per_employee
+    ON time_logs (employee_id) WHERE time_out IS NULL;
+
+-- a retried clock event with the same idempotency key resolves to the row it already wrote
+CREATE UNIQUE INDEX IF NOT EXISTS ux_time_logs_clock_in_key
+    ON time_logs (employee_id, clock_in_key) WHERE clock_in_key IS NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_time_logs_clock_out_key
+    ON time_logs (employee_id, clock_out_key) WHERE clock_out_key IS NOT NULL;
+
+-- at most one pending message per dedupe key, EmailOutboxRepository.enqueue upserts against it
+CREATE UNIQUE INDEX IF NOT EXISTS ux_email_outbox_pending_key
+    ON email_outbox (dedupe_key) WHERE status = 'PENDING';
+
+-- one running or completed payroll run per pay period; periods that were already run twice keep the latest run
+UPDATE payroll_run r SET status = 'SUPERSEDED'
+WHERE r.status IN ('RUNNING', 'COMPLETED') AND EXISTS (
+    SELECT 1 FROM payroll_run n
+    WHERE n.period_start = r.period_start AND n.period_end = r.period_end
+      AND n.status IN ('RUNNING', 'COMPLETED') AND n.payroll_run_id > r.payroll_run_id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_payroll_run_period
+    ON payroll_run (period_start, period_end) WHERE status IN ('RUNNING', 'COMPLETED');
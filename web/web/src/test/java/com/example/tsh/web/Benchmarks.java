@@ -0,0 +1,32 @@
+package com.example.tsh.web;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+// Runs the JMH benchmarks of one class from a @Tag("benchmark") test (mvn -Pperf test -Dtest=SomeBenchmark).
+// Iterations come from each class's @Warmup/@Measurement. The GC profiler adds gc.alloc.rate.norm, the bytes
+// allocated per operation. -Djmh.forks=0 runs in the surefire JVM
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static Collection<RunResult> run(Class<?> benchmark) throws RunnerException {
+        return run(benchmark, new OptionsBuilder());
+    }
+
+    public static Collection<RunResult> run(Class<?> benchmark, ChainedOptionsBuilder options) throws RunnerException {
+        return new Runner(options
+                .include(Pattern.quote(benchmark.getName()) + "\\.")
+                .forks(Integer.getInteger("jmh.forks", 1))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
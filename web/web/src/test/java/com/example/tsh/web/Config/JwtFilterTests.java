@@ -0,0 +1,106 @@
+package com.example.tsh.web.Config;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Role;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Service.AuthPrincipal;
+import com.example.tsh.web.Service.JwtKeyProvider;
+import com.example.tsh.web.Service.JwtService;
+import com.example.tsh.web.Service.UserDetailsServiceImpl;
+import com.example.tsh.web.SqlStatementCounter;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the filter builds the principal from the token's role and uid claims; only tokens issued without them are looked up
+@AutoConfigureMockMvc
+class JwtFilterTests extends PostgresTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JwtKeyProvider keyProvider;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        truncate("daily_attendance", "time_logs", "employee");
+        employee = employeeRepo.save(new Employee("ben", "x", "ben@example.com", "Ben", "Santos", "0917", "Clerk", 22000));
+        userDetailsService.evictPrincipal("ben");
+    }
+
+    @Test
+    void clockInWithClaimsRunsNoHibernateStatements() throws Exception {
+        String token = jwtService.generateToken(new AuthPrincipal("ben", "", Role.EMPLOYEE, employee.getEmployeeId()));
+        long misses = (long) userDetailsService.getPrincipalCacheStats().get("misses");
+
+        SqlStatementCounter.reset();
+        clockIn(token).andExpect(status().isOk())
+                .andExpect(jsonPath("$.employee.employeeId").value(employee.getEmployeeId()));
+
+        // no principal lookup and no employee load; the clock-in itself is one JdbcTemplate statement
+        assertEquals(List.of(), SqlStatementCounter.statements());
+        assertEquals(misses, userDetailsService.getPrincipalCacheStats().get("misses"));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_logs WHERE time_out IS NULL", Long.class));
+    }
+
+    @Test
+    void revokedTokenIsUnauthorized() throws Exception {
+        String token = jwtService.generateToken(new AuthPrincipal("ben", "", Role.EMPLOYEE, employee.getEmployeeId()));
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        clockIn(token).andExpect(status().isUnauthorized());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_logs", Long.class));
+    }
+
+    @Test
+    void tokenWithoutClaimsFallsBackToTheUserLookup() throws Exception {
+        long now = System.currentTimeMillis();
+        // issued before kid, role and uid were written
+        String legacy = Jwts.builder()
+                .setSubject("ben")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 60_000))
+                .signWith(keyProvider.activeKey())
+                .compact();
+        long misses = (long) userDetailsService.getPrincipalCacheStats().get("misses");
+
+        SqlStatementCounter.reset();
+        clockIn(legacy).andExpect(status().isOk())
+                .andExpect(jsonPath("$.employee.employeeId").value(employee.getEmployeeId()));
+
+        assertEquals(misses + 1, userDetailsService.getPrincipalCacheStats().get("misses"));
+        // admin, hr, then employee
+        assertEquals(3, SqlStatementCounter.statements().size(), SqlStatementCounter.statements().toString());
+    }
+
+    private ResultActions clockIn(String token) throws Exception {
+        return mockMvc.perform(post("/api/time-logs/time-in").header("Authorization", "Bearer " + token));
+    }
+}
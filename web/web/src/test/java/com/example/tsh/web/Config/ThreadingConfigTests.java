@@ -0,0 +1,43 @@
+package com.example.tsh.web.Config;
+
+import com.example.tsh.web.PostgresTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// with no Executor beans of our own, Boot creates applicationTaskExecutor and hands it to MVC async;
+// an Executor bean anywhere in the context would silently replace it with an unbounded SimpleAsyncTaskExecutor
+class ThreadingConfigTests extends PostgresTestSupport {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Test
+    void mvcAsyncRunsOnBootsApplicationTaskExecutor() {
+        AsyncTaskExecutor executor = context.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+                AsyncTaskExecutor.class);
+
+        assertSame(executor, ReflectionTestUtils.getField(handlerAdapter, "taskExecutor"));
+        // platform threads (Java 17): a bounded pool, not a thread per task
+        ThreadPoolTaskExecutor pool = assertInstanceOf(ThreadPoolTaskExecutor.class, executor);
+        assertEquals("task-", pool.getThreadNamePrefix());
+    }
+
+    @Test
+    void scheduledJobsHaveAScheduler() {
+        assertEquals(1, context.getBeanNamesForType(TaskScheduler.class).length);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.tsh.web.Controller;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.HR;
+import com.example.tsh.web.Entity.Payroll;
+import com.example.tsh.web.Entity.Role;
+import com.example.tsh.web.Entity.TimeLog;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.HRRepo;
+import com.example.tsh.web.Repository.PayrollRepository;
+import com.example.tsh.web.Repository.TimeLogRepo;
+import com.example.tsh.web.Service.AuthPrincipal;
+import com.example.tsh.web.Service.DailyAttendanceService;
+import com.example.tsh.web.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// listings are single projection queries: the statement count per request must not grow with the rows returned
+@AutoConfigureMockMvc
+class ListingStatementCountTests extends PostgresTestSupport {
+
+    private static final int EMPLOYEES = 4;
+    private static final int LOGS_PER_EMPLOYEE = 3;
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private HRRepo hrRepo;
+
+    @Autowired
+    private TimeLogRepo timeLogRepo;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private DailyAttendanceService dailyAttendanceService;
+
+    private Employee first;
+
+    @BeforeEach
+    void setUp() {
+        truncate("payroll", "daily_attendance", "time_logs", "employee", "hr");
+        HR hr = new HR();
+        hr.setUsername("hr1");
+        hr.setPassword("x");
+        hrRepo.save(hr);
+
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = employeeRepo.save(new Employee("user" + i, "x", "user" + i + "@example.com",
+                    "First" + i, "Last" + i, "0917", "Clerk", 22000));
+            if (first == null) {
+                first = employee;
+            }
+            for (int day = 0; day < LOGS_PER_EMPLOYEE; day++) {
+                LocalDateTime timeIn = MONDAY.plusDays(day).atTime(8, 0);
+                timeLogRepo.save(new TimeLog(employee, timeIn, timeIn.plusHours(9)));
+            }
+            Payroll payroll = new Payroll();
+            payroll.setEmployee(employee);
+            payroll.setPayrollDate(MONDAY.plusDays(7));
+            payrollRepository.save(payroll);
+        }
+        dailyAttendanceService.rebuild(MONDAY, MONDAY.plusDays(LOGS_PER_EMPLOYEE));
+    }
+
+    @Test
+    void hrListingsAreOneStatementEach() throws Exception {
+        int rows = EMPLOYEES * LOGS_PER_EMPLOYEE;
+        assertStatements(1, get("/hr/get-all").header("Authorization", "Bearer test").with(hr()), rows);
+        assertStatements(1, get("/hr/get-all/page").header("Authorization", "Bearer test").with(hr()), rows);
+        assertStatements(1, get("/hr/all-employee").with(hr()), EMPLOYEES);
+        // the controller looks up the calling HR first
+        assertStatements(2, get("/api/hr/time-logs/all").with(hr()), rows);
+    }
+
+    @Test
+    void adminEmployeeListingIsOneStatement() throws Exception {
+        assertStatements(1, get("/admin/all-employee").with(user("admin").roles("ADMIN")), EMPLOYEES);
+    }
+
+    @Test
+    void attendanceCalendarReadsEmployeesAndTheRollupOnce() throws Exception {
+        // every employee gets every day of March, present or absent
+        assertStatements(2, get("/hr/attendance-calendar").param("month", "3").param("year", "2025").with(hr()),
+                EMPLOYEES * 31);
+        assertStatements(2, get("/hr/attendance-calendar").param("month", "3").param("year", "2025")
+                .param("page", "0").param("size", "2").with(hr()), 2 * 31);
+    }
+
+    @Test
+    void payrollListingsAreOneStatementEach() throws Exception {
+        assertStatements(1, get("/api/payrolls").with(hr()), EMPLOYEES);
+        assertStatements(1, get("/api/payrolls/employee/" + first.getEmployeeId()).with(hr()), 1);
+        assertStatements(1, get("/api/payrolls/dateRange")
+                .param("startDate", MONDAY.toString()).param("endDate", MONDAY.plusDays(10).toString()).with(hr()), EMPLOYEES);
+    }
+
+    @Test
+    void employeeOwnLogsAreOneStatement() throws Exception {
+        AuthPrincipal principal = new AuthPrincipal(first.getUsername(), "x", Role.EMPLOYEE, first.getEmployeeId());
+        assertStatements(1, get("/api/time-logs").with(user(principal)), LOGS_PER_EMPLOYEE);
+    }
+
+    private static org.springframework.test.web.servlet.request.RequestPostProcessor hr() {
+        return user("hr1").roles("HR");
+    }
+
+    private void assertStatements(int expected, RequestBuilder request, int rows) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(rows));
+        List<String> statements = SqlStatementCounter.statements();
+        assertEquals(expected, statements.size(), String.join("\n", statements));
+    }
+}
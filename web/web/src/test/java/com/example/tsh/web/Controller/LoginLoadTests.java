@@ -0,0 +1,102 @@
+package com.example.tsh.web.Controller;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.LoadGenerator;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// a shift-start login burst against a deliberately small login pool, with clock status polling alongside.
+// Logins past the queue must be turned away with a 503, and status calls must not queue behind BCrypt: they share
+// the CPU with the hashing but not the login queue, so their p99 stays far below the logins' p99 on any machine.
+// Run with: mvn -Pperf test -Dtest=LoginLoadTests
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {"app.security.login.threads=1", "app.security.login.queue-capacity=40"})
+class LoginLoadTests extends PostgresTestSupport {
+
+    private static final int EMPLOYEES = 50;
+    private static final int LOGINS = 400;
+    private static final int LOGIN_CLIENTS = 120;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper json = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        truncate("daily_attendance", "time_logs", "employee");
+        String hash = passwordEncoder.encode("secret");
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employeeRepo.save(new Employee("user" + i, hash, "user" + i + "@example.com", "First" + i, "Last" + i,
+                    "0917", "Clerk", 22000));
+        }
+    }
+
+    @Test
+    void loginBurstIsShedWithoutStarvingClockTraffic() throws Exception {
+        String token = json.readTree(login("user0").body()).get("token").asText();
+        LoadGenerator.run("status baseline", 2_000, 20, () -> get("/api/time-logs/status", token).statusCode());
+
+        CompletableFuture<LoadGenerator.Result> logins = CompletableFuture.supplyAsync(() -> load(() ->
+                LoadGenerator.run("login burst", LOGINS, LOGIN_CLIENTS,
+                        () -> login("user" + ThreadLocalRandom.current().nextInt(EMPLOYEES)).statusCode())));
+        LoadGenerator.Result status = LoadGenerator.run("status during burst", 2_000, 20,
+                () -> get("/api/time-logs/status", token).statusCode());
+        LoadGenerator.Result burst = logins.get();
+
+        assertEquals(LOGINS, burst.count(200) + burst.count(503), burst.toString());
+        assertTrue(burst.count(503) > 0, "the burst should overflow a 1-thread, 40-slot login pool");
+        assertEquals(2_000, status.count(200), status.toString());
+        assertTrue(status.p99Millis() * 4 < burst.p99Millis(), status + " vs " + burst);
+    }
+
+    private HttpResponse<String> login(String username) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/employee/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + username + "\",\"password\":\"secret\"}"))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token).GET().build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static LoadGenerator.Result load(Callable<LoadGenerator.Result> run) {
+        try {
+            return run.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
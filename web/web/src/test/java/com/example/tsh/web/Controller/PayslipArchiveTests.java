@@ -0,0 +1,169 @@
+package com.example.tsh.web.Controller;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Payroll;
+import com.example.tsh.web.Entity.Payslip;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.PayrollRepository;
+import com.example.tsh.web.Service.PayslipService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the streamed ZIP must hold exactly the PDFs its manifest lists as included
+@AutoConfigureMockMvc
+class PayslipArchiveTests extends PostgresTestSupport {
+
+    private static final LocalDate PAY_DATE = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayslipService payslipService;
+
+    private final List<Long> payslipIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        truncate("payslip", "payroll", "employee");
+        payslipIds.clear();
+        for (int i = 0; i < 4; i++) {
+            Employee employee = employeeRepo.save(new Employee("user" + i, "x", "user" + i + "@example.com",
+                    "First" + i, i == 0 ? "Cruz, Jr." : "Last" + i, "0917", "Clerk", 22000));
+            Payroll payroll = new Payroll();
+            payroll.setEmployee(employee);
+            payroll.setPayrollDate(PAY_DATE);
+            payroll.setBaseSalary(11000f + i);
+            payroll.setNetIncome(10000f + i);
+            payroll = payrollRepository.save(payroll);
+            Payslip payslip = payslipService.generatePayslip(payroll.getPayrollId());
+            payslipIds.add(payslip.getPayslipId());
+        }
+        // the second was generated in lazy mode, the third points at a blob that is no longer in the store
+        jdbcTemplate.update("UPDATE payslip SET content_hash = NULL, content_size = NULL WHERE payslip_id = ?",
+                payslipIds.get(1));
+        jdbcTemplate.update("UPDATE payslip SET content_hash = ? WHERE payslip_id = ?", "0".repeat(64),
+                payslipIds.get(2));
+    }
+
+    @Test
+    void archiveEntriesMatchTheManifest() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/payslips/runs/" + PAY_DATE + "/archive").with(user("hr1").roles("HR")))
+                .andExpect(request().asyncStarted()).andReturn();
+        byte[] zip = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                entries.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        List<String> names = new ArrayList<>(entries.keySet());
+        assertEquals("manifest.csv", names.get(names.size() - 1), names.toString());
+
+        String[] lines = new String(entries.get("manifest.csv"), StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].startsWith("payslip_id,file_name,"));
+        List<String> listed = new ArrayList<>();
+        Map<Long, String[]> rows = new LinkedHashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            String[] row = parseCsv(lines[i]);
+            assertEquals(11, row.length, lines[i]);
+            rows.put(Long.parseLong(row[0]), row);
+            if (Boolean.parseBoolean(row[10])) {
+                listed.add(row[1]);
+            }
+        }
+        assertEquals(payslipIds, new ArrayList<>(rows.keySet()));
+        assertEquals(listed, names.subList(0, names.size() - 1));
+
+        // stored, with the name of the employee quoted
+        String[] stored = rows.get(payslipIds.get(0));
+        assertEquals("First0 Cruz, Jr.", stored[3]);
+        assertEquals(Long.parseLong(stored[8]), entries.get(stored[1]).length);
+        // rendered into the archive, size and hash unknown until rendered
+        String[] lazy = rows.get(payslipIds.get(1));
+        assertEquals("true", lazy[10]);
+        assertEquals("", lazy[8]);
+        assertEquals("", lazy[9]);
+        assertTrue(new String(entries.get(lazy[1]), 0, 5, StandardCharsets.ISO_8859_1).startsWith("%PDF-"));
+        // listed, but no file in the archive
+        String[] missing = rows.get(payslipIds.get(2));
+        assertEquals("false", missing[10]);
+        assertEquals("", missing[1]);
+        assertEquals("0".repeat(64), missing[9]);
+        assertEquals(3, names.size() - 1);
+    }
+
+    @Test
+    void unknownSelectionsAnswerWithAnErrorBody() throws Exception {
+        MvcResult none = mockMvc.perform(get("/api/payslips/runs/2025-04-10/archive").with(user("hr1").roles("HR")))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(none)).andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("No payslips for date-2025-04-10"));
+
+        MvcResult malformed = mockMvc.perform(get("/api/payslips/runs/last-week/archive").with(user("hr1").roles("HR")))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(malformed)).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    private static String[] parseCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
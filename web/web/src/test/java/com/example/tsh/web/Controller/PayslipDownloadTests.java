@@ -0,0 +1,147 @@
+package com.example.tsh.web.Controller;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Payroll;
+import com.example.tsh.web.Entity.Payslip;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.PayrollRepository;
+import com.example.tsh.web.Service.PayrollService;
+import com.example.tsh.web.Service.PayslipService;
+import com.example.tsh.web.Service.RenderedPayslipCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// lazily rendered payslips: the ETag must survive a re-render, a resume must not splice two different PDFs,
+// and the browser frontend must be able to read the headers that drive both
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "app.payslip.render-mode=lazy")
+class PayslipDownloadTests extends PostgresTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayslipService payslipService;
+
+    @Autowired
+    private RenderedPayslipCache renderedPayslipCache;
+
+    private Payroll payroll;
+    private String download;
+
+    @BeforeEach
+    void setUp() {
+        truncate("payslip", "payroll", "employee");
+        Employee employee = employeeRepo.save(new Employee("areyes", "x", "areyes@example.com", "Ana", "Reyes",
+                "0917", "Clerk", 22000));
+        payroll = new Payroll();
+        payroll.setEmployee(employee);
+        payroll.setPayrollDate(LocalDate.of(2025, 3, 10));
+        payroll.setBaseSalary(11000f);
+        payroll.setNetIncome(11000f);
+        payroll = payrollRepository.save(payroll);
+        // ids restart with every test, so drop what an earlier test rendered for this one
+        renderedPayslipCache.invalidatePayroll(payroll.getPayrollId());
+        Payslip payslip = payslipService.generatePayslip(payroll.getPayrollId());
+        assertNull(payslip.getContentHash());
+        download = "/api/payslips/" + payslip.getPayslipId() + "/download";
+    }
+
+    @Test
+    void reRenderedPayslipKeepsItsETag() throws Exception {
+        MvcResult first = mockMvc.perform(get(download).with(employee())).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // rendered again from scratch, as after an eviction or on another node
+        renderedPayslipCache.invalidatePayroll(payroll.getPayrollId());
+        MvcResult second = mockMvc.perform(get(download).with(employee())).andExpect(status().isOk()).andReturn();
+
+        assertEquals(etag, second.getResponse().getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(first.getResponse().getContentAsByteArray(), second.getResponse().getContentAsByteArray());
+        renderedPayslipCache.invalidatePayroll(payroll.getPayrollId());
+        mockMvc.perform(get(download).header(HttpHeaders.IF_NONE_MATCH, etag).with(employee()))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void resumeOfTheSamePdfGetsTheRestOfIt() throws Exception {
+        MvcResult full = mockMvc.perform(get(download).with(employee())).andExpect(status().isOk()).andReturn();
+        byte[] pdf = full.getResponse().getContentAsByteArray();
+        String etag = full.getResponse().getHeader(HttpHeaders.ETAG);
+        renderedPayslipCache.invalidatePayroll(payroll.getPayrollId());
+
+        MvcResult rest = mockMvc.perform(get(download).header(HttpHeaders.RANGE, "bytes=100-")
+                        .header(HttpHeaders.IF_RANGE, etag).with(employee()))
+                .andExpect(status().isPartialContent()).andReturn();
+
+        assertArrayEquals(Arrays.copyOfRange(pdf, 100, pdf.length), rest.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void resumeAfterACorrectionGetsTheWholeNewPdf() throws Exception {
+        MvcResult full = mockMvc.perform(get(download).with(employee())).andExpect(status().isOk()).andReturn();
+        String etag = full.getResponse().getHeader(HttpHeaders.ETAG);
+
+        Payroll correction = new Payroll();
+        correction.setPayrollDate(payroll.getPayrollDate());
+        correction.setOvertimeHours(6f);
+        correction.setOvertimeRate(120f);
+        payrollService.updatePayroll(payroll.getPayrollId(), correction);
+
+        MvcResult resumed = mockMvc.perform(get(download).header(HttpHeaders.RANGE, "bytes=100-")
+                        .header(HttpHeaders.IF_RANGE, etag).with(employee()))
+                .andExpect(status().isOk()).andReturn();
+        String newEtag = resumed.getResponse().getHeader(HttpHeaders.ETAG);
+        byte[] pdf = resumed.getResponse().getContentAsByteArray();
+
+        assertNotEquals(etag, newEtag);
+        assertEquals(pdf.length, resumed.getResponse().getContentLength());
+        MvcResult current = mockMvc.perform(get(download).with(employee())).andExpect(status().isOk()).andReturn();
+        assertArrayEquals(current.getResponse().getContentAsByteArray(), pdf);
+    }
+
+    @Test
+    void frontendCanReadTheValidatorsCrossOrigin() throws Exception {
+        MvcResult result = mockMvc.perform(get(download).header(HttpHeaders.ORIGIN, "http://localhost:5173")
+                        .header(HttpHeaders.RANGE, "bytes=0-99").with(employee()))
+                .andExpect(status().isPartialContent()).andReturn();
+
+        List<String> exposed = Arrays.stream(result.getResponse()
+                .getHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS).split(",\\s*")).toList();
+        assertTrue(exposed.containsAll(List.of(HttpHeaders.ETAG, HttpHeaders.CONTENT_RANGE, HttpHeaders.ACCEPT_RANGES)),
+                exposed.toString());
+    }
+
+    private static org.springframework.test.web.servlet.request.RequestPostProcessor employee() {
+        return user("areyes").roles("EMPLOYEE");
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.tsh.web.Controller;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.HR;
+import com.example.tsh.web.Entity.TimeLog;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.HRRepo;
+import com.example.tsh.web.Repository.TimeLogRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@WithMockUser(username = "hr1", roles = "HR")
+class TimeLogListingTests extends PostgresTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private HRRepo hrRepo;
+
+    @Autowired
+    private TimeLogRepo timeLogRepo;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        truncate("daily_attendance", "time_logs", "employee", "hr");
+        HR hr = new HR();
+        hr.setUsername("hr1");
+        hr.setPassword("x");
+        hrRepo.save(hr);
+        Employee employee = employeeRepo.save(new Employee("ana", "x", "ana@example.com", "Ana", "Reyes", "0917", "Clerk", 22000));
+        LocalDateTime start = LocalDateTime.of(2025, 3, 3, 8, 0);
+        ids.clear();
+        for (int i = 0; i < 3; i++) {
+            ids.add(timeLogRepo.save(new TimeLog(employee, start.plusDays(i), start.plusDays(i).plusHours(9))).getTimeLogId());
+        }
+    }
+
+    @Test
+    void unpagedListingsStillReturnEveryLog() throws Exception {
+        mockMvc.perform(get("/hr/get-all").header("Authorization", "Bearer test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].timeLogId").value(ids.get(0)))
+                .andExpect(jsonPath("$[0].employee.firstName").value("Ana"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        mockMvc.perform(get("/api/hr/time-logs/all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    void keysetPagesFollowTheCursor() throws Exception {
+        mockMvc.perform(get("/hr/get-all/page").header("Authorization", "Bearer test").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string("X-Next-Cursor", String.valueOf(ids.get(1))));
+
+        mockMvc.perform(get("/api/hr/time-logs/all/page").param("after", String.valueOf(ids.get(1))).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].timeLogId").value(ids.get(2)))
+                .andExpect(header().string("X-Next-Cursor", String.valueOf(ids.get(2))));
+
+        mockMvc.perform(get("/api/hr/time-logs/all/page").param("after", String.valueOf(ids.get(2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void browsersCanReadTheCursorHeader() throws Exception {
+        mockMvc.perform(get("/api/hr/time-logs/all/page").header("Origin", "http://localhost:5173"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Expose-Headers", containsString("X-Next-Cursor")));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.tsh.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// closed-loop load for the "load" tagged tests: a fixed number of clients send requests back to back and each
+// request reports its HTTP status; latency is measured around the call
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static Result run(String name, int requests, int clients, Callable<Integer> request) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        long[] latencies = new long[requests];
+        int[] statuses = new int[requests];
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        long began = System.nanoTime();
+                        try {
+                            statuses[i] = request.call();
+                        } catch (Exception e) {
+                            statuses[i] = -1;
+                        } finally {
+                            latencies[i] = System.nanoTime() - began;
+                            inFlight.decrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(10, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (int status : statuses) {
+            counts.merge(status, 1, Integer::sum);
+        }
+        Arrays.sort(latencies);
+        Result result = new Result(name, counts, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1_000_000.0, requests / (elapsed / 1_000_000_000.0), peak.get());
+        System.out.println(result);
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    public record Result(String name, Map<Integer, Integer> statuses, double p50Millis, double p99Millis,
+                         double maxMillis, double perSecond, int peakConcurrency) {
+
+        public int count(int status) {
+            return statuses.getOrDefault(status, 0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-28s statuses=%s p50=%.1fms p99=%.1fms max=%.1fms throughput=%.0f/s concurrency=%d",
+                    name, statuses, p50Millis, p99Millis, maxMillis, perSecond, peakConcurrency);
+        }
+    }
+}
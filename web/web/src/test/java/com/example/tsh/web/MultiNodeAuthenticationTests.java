@@ -0,0 +1,131 @@
+package com.example.tsh.web;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// separate application contexts on their own ports stand in for replicas behind a load balancer:
+// nodeA and nodeB share the k1 key, rotated has moved on to k2 and keeps k1 only for verification
+class MultiNodeAuthenticationTests {
+
+    private static final String K1 = Base64.getEncoder().encodeToString("k1-shared-secret-for-all-nodes-!".getBytes());
+    private static final String K2 = Base64.getEncoder().encodeToString("k2-secret-after-the-key-rotation".getBytes());
+
+    private static final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private static final HttpClient http = HttpClient.newHttpClient();
+    private static final ObjectMapper json = new ObjectMapper();
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static ConfigurableApplicationContext rotated;
+
+    @BeforeAll
+    static void startNodes() {
+        assumeTrue(PostgresTestSupport.databaseAvailable(), "Set TEST_DB_URL or start Docker to run the Postgres tests");
+        nodeA = start("k1", K1, "");
+        nodeB = start("k1", K1, "");
+        rotated = start("k2", K2, "k1:" + K1);
+
+        nodeA.getBean(JdbcTemplate.class).execute("TRUNCATE employee RESTART IDENTITY CASCADE");
+        Employee employee = new Employee("ana", nodeA.getBean(PasswordEncoder.class).encode("secret"), "ana@example.com",
+                "Ana", "Reyes", "0917", "Clerk", 22000);
+        nodeA.getBean(EmployeeRepo.class).save(employee);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+        contexts.clear();
+    }
+
+    @Test
+    void tokenIssuedByOneNodeAuthenticatesOnAnother() throws Exception {
+        String token = login(nodeA);
+
+        assertEquals("k1", keyId(token));
+        HttpResponse<String> me = get(nodeB, "/employee/me", token);
+        assertEquals(200, me.statusCode(), me.body());
+        assertEquals("ana", json.readTree(me.body()).get("username").asText());
+        assertEquals(200, get(nodeA, "/employee/me", token).statusCode());
+    }
+
+    @Test
+    void rotatedNodeStillAcceptsTokensSignedWithTheRetiredKey() throws Exception {
+        String token = login(nodeB);
+
+        assertEquals(200, get(rotated, "/employee/me", token).statusCode());
+    }
+
+    @Test
+    void tokensSignedWithAKeyANodeDoesNotKnowAreRejected() throws Exception {
+        String token = login(rotated);
+
+        assertEquals("k2", keyId(token));
+        assertEquals(200, get(rotated, "/employee/me", token).statusCode());
+        // nodeA was never given k2, so the kid header finds no key
+        assertEquals(401, get(nodeA, "/employee/me", token).statusCode());
+    }
+
+    private static ConfigurableApplicationContext start(String keyId, String secret, String verificationKeys) {
+        Map<String, Object> properties = new HashMap<>(PostgresTestSupport.datasourceProperties());
+        properties.put("server.port", "0");
+        properties.put("app.jwt.key-source", "env");
+        properties.put("app.jwt.key-id", keyId);
+        properties.put("app.jwt.secret", secret);
+        properties.put("app.jwt.verification-keys", verificationKeys);
+        // command line arguments: builder default properties would lose to application.properties
+        String[] args = properties.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(WebApplication.class)
+                .profiles("test")
+                .run(args);
+        contexts.add(context);
+        return context;
+    }
+
+    private static String login(ConfigurableApplicationContext node) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(node, "/employee/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"ana\",\"password\":\"secret\"}"))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return json.readTree(response.body()).get("token").asText();
+    }
+
+    private static HttpResponse<String> get(ConfigurableApplicationContext node, String path, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(node, path)).header("Authorization", "Bearer " + token).GET().build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(ConfigurableApplicationContext node, String path) {
+        int port = ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String keyId(String token) throws Exception {
+        JsonNode header = json.readTree(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        return header.get("kid").asText();
+    }
+}
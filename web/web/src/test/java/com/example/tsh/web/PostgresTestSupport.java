@@ -0,0 +1,69 @@
+package com.example.tsh.web;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Base class for tests that need the real schema: the partial indexes, ON CONFLICT upserts and SKIP LOCKED queries
+// only mean something on Postgres. TEST_DB_URL (plus TEST_DB_USERNAME / TEST_DB_PASSWORD) points the tests at a
+// disposable database, otherwise a Testcontainers Postgres is started once per JVM; without either they are skipped.
+// Tests truncate the tables they use, never point TEST_DB_URL at a database you care about.
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class PostgresTestSupport {
+
+    private static PostgreSQLContainer<?> container;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    static boolean databaseAvailable() {
+        return System.getenv("TEST_DB_URL") != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @BeforeAll
+    static void requireDatabase() {
+        assumeTrue(databaseAvailable(), "Set TEST_DB_URL or start Docker to run the Postgres tests");
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        datasourceProperties().forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    // the same connection settings as spring.datasource.* entries, for tests that build their own contexts
+    static Map<String, Object> datasourceProperties() {
+        String url = System.getenv("TEST_DB_URL");
+        if (url != null) {
+            return Map.of("spring.datasource.url", url,
+                    "spring.datasource.username", System.getenv().getOrDefault("TEST_DB_USERNAME", "postgres"),
+                    "spring.datasource.password", System.getenv().getOrDefault("TEST_DB_PASSWORD", ""));
+        }
+        PostgreSQLContainer<?> postgres = startContainer();
+        return Map.of("spring.datasource.url", postgres.getJdbcUrl(),
+                "spring.datasource.username", postgres.getUsername(),
+                "spring.datasource.password", postgres.getPassword());
+    }
+
+    private static synchronized PostgreSQLContainer<?> startContainer() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        return container;
+    }
+
+    protected void truncate(String... tables) {
+        jdbcTemplate.execute("TRUNCATE " + String.join(", ", tables) + " RESTART IDENTITY CASCADE");
+    }
+}
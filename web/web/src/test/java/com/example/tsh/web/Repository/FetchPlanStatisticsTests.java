@@ -0,0 +1,176 @@
+package com.example.tsh.web.Repository;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.HR;
+import com.example.tsh.web.Entity.PasswordResetToken;
+import com.example.tsh.web.Entity.Payroll;
+import com.example.tsh.web.Entity.Role;
+import com.example.tsh.web.Entity.TimeLog;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Service.AuthPrincipal;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// guards the lazy associations and their per-use-case fetch plans with Hibernate statistics
+// (hibernate.generate_statistics is on for the test profile)
+@AutoConfigureMockMvc
+class FetchPlanStatisticsTests extends PostgresTestSupport {
+
+    private static final int EMPLOYEES = 5;
+    private static final int LOGS_PER_EMPLOYEE = 4;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private HRRepo hrRepo;
+
+    @Autowired
+    private TimeLogRepo timeLogRepo;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    private Statistics statistics;
+    private Employee employee;
+    private TimeLog assignedLog;
+
+    @BeforeEach
+    void setUp() {
+        truncate("password_reset_token", "payroll", "daily_attendance", "time_logs", "employee", "hr");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        HR hr = new HR();
+        hr.setUsername("hr1");
+        hr.setPassword("x");
+        hr = hrRepo.save(hr);
+
+        LocalDateTime start = LocalDateTime.of(2025, 3, 3, 8, 0);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee saved = employeeRepo.save(new Employee("user" + i, "x", "user" + i + "@example.com",
+                    "First" + i, "Last" + i, "0917", "Clerk", 22000));
+            for (int day = 0; day < LOGS_PER_EMPLOYEE; day++) {
+                TimeLog log = timeLogRepo.save(new TimeLog(saved, start.plusDays(day), start.plusDays(day).plusHours(9)));
+                if (employee == null) {
+                    log.setAssignedHr(hr);
+                    assignedLog = timeLogRepo.save(log);
+                    employee = saved;
+                }
+            }
+        }
+
+        Payroll payroll = new Payroll();
+        payroll.setEmployee(employee);
+        payroll.setPayrollDate(LocalDate.of(2025, 3, 10));
+        payrollRepository.save(payroll);
+        passwordResetTokenRepository.save(new PasswordResetToken(employee));
+        statistics.clear();
+    }
+
+    @Test
+    void loadingTimeLogsDoesNotLoadTheirEmployees() {
+        List<TimeLog> logs = transactionTemplate.execute(status -> timeLogRepo.findAll());
+
+        assertEquals(EMPLOYEES * LOGS_PER_EMPLOYEE, logs.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(EMPLOYEES * LOGS_PER_EMPLOYEE, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(logs.stream().noneMatch(log -> Hibernate.isInitialized(log.getEmployee())));
+    }
+
+    @Test
+    void singleTimeLogFetchesEmployeeAndHrInOneStatement() {
+        TimeLog log = transactionTemplate.execute(status -> timeLogRepo.findById(assignedLog.getTimeLogId()).orElseThrow());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        // the log, its employee and its assigned HR, and none of the employee's collections
+        assertEquals(3, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(Hibernate.isInitialized(log.getEmployee()));
+        assertTrue(Hibernate.isInitialized(log.getAssignedHr()));
+    }
+
+    @Test
+    void payrollByIdFetchesItsEmployeeInOneStatement() {
+        Long payrollId = payrollRepository.findAll().get(0).getPayrollId();
+        statistics.clear();
+
+        Payroll payroll = transactionTemplate.execute(status -> payrollRepository.findById(payrollId).orElseThrow());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(Hibernate.isInitialized(payroll.getEmployee()));
+    }
+
+    @Test
+    void passwordResetTokenFetchesItsOwnerInOneStatement() {
+        String token = passwordResetTokenRepository.findByEmployee(employee).orElseThrow().getToken();
+        statistics.clear();
+
+        PasswordResetToken resetToken = transactionTemplate.execute(status -> passwordResetTokenRepository.findByToken(token));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(Hibernate.isInitialized(resetToken.getEmployee()));
+    }
+
+    @Test
+    void employeeTimeLogRequestsReadNoEntitiesForListings() throws Exception {
+        AuthPrincipal principal = new AuthPrincipal(employee.getUsername(), "x", Role.EMPLOYEE, employee.getEmployeeId());
+
+        mockMvc.perform(get("/api/time-logs").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(LOGS_PER_EMPLOYEE));
+        // projection rows only: no entity, and so no employee row per log
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/time-logs/" + assignedLog.getTimeLogId()).with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employee.firstName").value(employee.getFirstName()));
+        assertEquals(3, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void employeeCollectionsStayUnloaded() {
+        Employee loaded = transactionTemplate.execute(status -> employeeRepo.findById(employee.getEmployeeId()).orElseThrow());
+
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertFalse(Hibernate.isInitialized(loaded.getTimeLogs()));
+    }
+}
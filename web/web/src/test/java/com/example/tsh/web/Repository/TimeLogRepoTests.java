@@ -0,0 +1,129 @@
+package com.example.tsh.web.Repository;
+
+import com.example.tsh.web.DTO.TimeLogDTO;
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.TimeLog;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Service.TimeLogService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// the half-open [start, end) day and month ranges must select exactly the rows the YEAR/MONTH and CAST(... AS date)
+// predicates they replaced did; the old JPQL is run as it was written, against logs on either side of each boundary
+class TimeLogRepoTests extends PostgresTestSupport {
+
+    // last instant a timestamp column can hold before midnight
+    private static final LocalTime LAST_MICROSECOND = LocalTime.of(23, 59, 59, 999_999_000);
+
+    private static final List<LocalDateTime> BOUNDARIES = List.of(
+            LocalDateTime.of(2024, 12, 1, 0, 0),
+            LocalDateTime.of(2024, 12, 31, 23, 59),
+            LocalDate.of(2024, 12, 31).atTime(LAST_MICROSECOND),
+            LocalDateTime.of(2025, 1, 1, 0, 0),
+            LocalDateTime.of(2025, 1, 31, 23, 59),
+            LocalDateTime.of(2025, 2, 1, 0, 0),
+            LocalDate.of(2025, 2, 28).atTime(LAST_MICROSECOND),
+            LocalDateTime.of(2025, 3, 1, 0, 0),
+            LocalDateTime.of(2025, 3, 1, 12, 30));
+
+    @Autowired
+    private TimeLogService timeLogService;
+
+    @Autowired
+    private TimeLogRepo timeLogRepo;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Employee ana;
+    private Employee ben;
+
+    @BeforeEach
+    void setUp() {
+        truncate("daily_attendance", "time_logs", "employee");
+        ana = employeeRepo.save(new Employee("ana", "x", "ana@example.com", "Ana", "Reyes", "0917", "Clerk", 22000));
+        ben = employeeRepo.save(new Employee("ben", "x", "ben@example.com", "Ben", "Santos", "0917", "Clerk", 22000));
+        for (LocalDateTime timeIn : BOUNDARIES) {
+            timeLogRepo.save(new TimeLog(ana, timeIn, timeIn.plusMinutes(1)));
+            timeLogRepo.save(new TimeLog(ben, timeIn, timeIn.plusMinutes(1)));
+        }
+    }
+
+    @Test
+    void monthRangesMatchTheYearAndMonthPredicates() {
+        int[][] months = {{2024, 11}, {2024, 12}, {2025, 1}, {2025, 2}, {2025, 3}};
+        for (int[] month : months) {
+            int year = month[0];
+            int monthValue = month[1];
+
+            List<Long> legacy = ids("SELECT t.timeLogId FROM TimeLog t " +
+                    "WHERE YEAR(t.date) = ?1 AND MONTH(t.date) = ?2 ORDER BY t.timeLogId", year, monthValue);
+            assertEquals(legacy, dtoIds(timeLogService.findLogsForMonth(null, year, monthValue)), year + "-" + monthValue);
+
+            List<Long> legacyForAna = ids("SELECT t.timeLogId FROM TimeLog t WHERE t.employee = ?3 " +
+                    "AND YEAR(t.date) = ?1 AND MONTH(t.date) = ?2 ORDER BY t.timeLogId", year, monthValue, ana);
+            assertEquals(legacyForAna, dtoIds(timeLogService.findLogsForMonth(ana.getEmployeeId(), year, monthValue)),
+                    year + "-" + monthValue);
+        }
+
+        // December keeps its last microsecond and stops at New Year, February ends on the 28th
+        assertEquals(6, timeLogService.findLogsForMonth(null, 2024, 12).size());
+        assertEquals(2, timeLogService.findLogsForMonth(ana.getEmployeeId(), 2025, 1).size());
+        assertEquals(2, timeLogService.findLogsForMonth(ana.getEmployeeId(), 2025, 2).size());
+    }
+
+    @Test
+    void dayRangesMatchTheCastToDatePredicate() {
+        for (LocalDateTime boundary : BOUNDARIES) {
+            for (LocalDate day : List.of(boundary.toLocalDate().minusDays(1), boundary.toLocalDate(),
+                    boundary.toLocalDate().plusDays(1))) {
+                // any time of the day was accepted, the cast dropped it
+                LocalDateTime date = day.atTime(15, 45);
+                List<Long> legacy = ids("SELECT t.timeLogId FROM TimeLog t WHERE t.employee = ?1 " +
+                        "AND CAST(t.date AS date) = CAST(?2 AS date) ORDER BY t.timeLogId", ana, date);
+                assertEquals(legacy, dtoIds(timeLogService.findLogsByEmployeeAndDate(ana, date)), day.toString());
+            }
+        }
+
+        assertEquals(2, timeLogService.findLogsByEmployeeAndDate(ana, LocalDateTime.of(2024, 12, 31, 0, 0)).size());
+        assertEquals(1, timeLogService.findLogsByEmployeeAndDate(ana, LocalDateTime.of(2025, 1, 1, 23, 59)).size());
+    }
+
+    @Test
+    void todayRangeMatchesTheCurrentDatePredicate() {
+        LocalDate today = LocalDate.now();
+        for (LocalDateTime timeIn : List.of(today.minusDays(1).atTime(LAST_MICROSECOND), today.atStartOfDay(),
+                today.atTime(LAST_MICROSECOND), today.plusDays(1).atStartOfDay())) {
+            timeLogRepo.save(new TimeLog(ana, timeIn, timeIn.plusMinutes(1)));
+        }
+
+        List<Long> legacy = ids("SELECT t.timeLogId FROM TimeLog t WHERE t.employee = ?1 " +
+                "AND CAST(t.date AS date) = CURRENT_DATE ORDER BY t.timeLogId", ana);
+        assertEquals(legacy, dtoIds(timeLogService.findTodayLogsByEmployee(ana)));
+        assertEquals(2, legacy.size());
+    }
+
+    private List<Long> ids(String jpql, Object... parameters) {
+        var query = entityManager.createQuery(jpql, Long.class);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        return query.getResultList();
+    }
+
+    private static List<Long> dtoIds(List<TimeLogDTO> logs) {
+        return logs.stream().map(TimeLogDTO::getTimeLogId).toList();
+    }
+}
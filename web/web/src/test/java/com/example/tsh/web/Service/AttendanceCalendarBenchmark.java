@@ -0,0 +1,119 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Benchmarks;
+import com.example.tsh.web.DTO.AttendanceRecord;
+import com.example.tsh.web.DTO.EmployeeSummary;
+import com.example.tsh.web.Entity.DailyAttendance;
+import com.example.tsh.web.Repository.DailyAttendanceRepo;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.HRRepo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// all-employees calendar for a 31-day month with everyone present on weekdays, repositories stubbed out.
+// quadratic is the anyMatch scan the bitmask calendar replaced; at 10k employees one call takes minutes, so it runs
+// as a single shot. Run one size with: java -cp <test classpath> org.openjdk.jmh.Main AttendanceCalendarBenchmark -p employees=1000
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AttendanceCalendarBenchmark {
+
+    private static final LocalDate MONTH = LocalDate.of(2025, 1, 1);
+
+    @State(Scope.Benchmark)
+    public static class Calendar {
+
+        @Param({"1000", "5000", "10000"})
+        public int employees;
+
+        HRService hrService;
+        List<EmployeeSummary> summaries;
+        List<DailyAttendance> days;
+
+        @Setup
+        public void setUp() {
+            summaries = new ArrayList<>(employees);
+            days = new ArrayList<>();
+            for (long id = 1; id <= employees; id++) {
+                summaries.add(new EmployeeSummary(id, "user" + id, "First" + id, "Last" + id, "user" + id + "@example.com", "Clerk"));
+                for (LocalDate date = MONTH; date.getMonth() == MONTH.getMonth(); date = date.plusDays(1)) {
+                    if (date.getDayOfWeek().getValue() < 6) {
+                        DailyAttendance day = new DailyAttendance();
+                        day.setEmployeeId(id);
+                        day.setWorkDate(date);
+                        day.setLogCount(1);
+                        day.setPresent(true);
+                        days.add(day);
+                    }
+                }
+            }
+
+            // stubOnly: a recording mock would keep every invocation of the run
+            EmployeeRepo employeeRepo = mock(EmployeeRepo.class, withSettings().stubOnly());
+            DailyAttendanceRepo dailyAttendanceRepo = mock(DailyAttendanceRepo.class, withSettings().stubOnly());
+            when(employeeRepo.findAllSummaries()).thenReturn(summaries);
+            when(dailyAttendanceRepo.findByWorkDateBetween(any(), any())).thenReturn(days);
+            hrService = new HRService(mock(HRRepo.class), employeeRepo, mock(PasswordEncoder.class), dailyAttendanceRepo);
+        }
+    }
+
+    @Benchmark
+    public List<AttendanceRecord> bitmask(Calendar calendar) {
+        return calendar.hrService.getAttendanceRecords(null, MONTH.getMonthValue(), MONTH.getYear(), null);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public List<AttendanceRecord> quadratic(Calendar calendar) {
+        LocalDate endDate = MONTH.withDayOfMonth(MONTH.lengthOfMonth());
+        List<AttendanceRecord> records = new ArrayList<>();
+        for (int i = 0; i < calendar.days.size(); i++) {
+            DailyAttendance day = calendar.days.get(i);
+            records.add(new AttendanceRecord(day.getEmployeeId(), calendar.summaries.get((int) (day.getEmployeeId() - 1)),
+                    day.getWorkDate().toString(), "PRESENT"));
+        }
+        for (EmployeeSummary employee : calendar.summaries) {
+            LocalDate currentDate = MONTH;
+            while (!currentDate.isAfter(endDate)) {
+                String dateStr = currentDate.toString();
+                boolean hasRecord = records.stream()
+                        .anyMatch(r -> r.getEmployeeId().equals(employee.getEmployeeId()) && r.getDate().equals(dateStr));
+                if (!hasRecord) {
+                    records.add(new AttendanceRecord(employee.getEmployeeId(), employee, dateStr, "ABSENT"));
+                }
+                currentDate = currentDate.plusDays(1);
+            }
+        }
+        return records;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        Benchmarks.run(AttendanceCalendarBenchmark.class);
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Service.ClockEventIngestService.ClockEvent;
+import com.example.tsh.web.Service.ClockEventIngestService.EventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClockEventIngestServiceTests {
+
+    private static final LocalDateTime SHIFT_START = LocalDateTime.of(2025, 3, 3, 8, 0);
+
+    @TempDir
+    Path journalDir;
+
+    private final NamedParameterJdbcTemplate jdbc = mock(NamedParameterJdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    // keys of the events the writer sent to the database, in order
+    private final List<String> writtenKeys = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean databaseUp;
+    private final List<ClockEventIngestService> services = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(jdbc.batchUpdate(anyString(), any(SqlParameterSource[].class))).thenAnswer(invocation -> {
+            if (!databaseUp) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            SqlParameterSource[] params = invocation.getArgument(1);
+            for (SqlParameterSource param : params) {
+                writtenKeys.add((String) param.getValue("key"));
+            }
+            int[] counts = new int[params.length];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (ClockEventIngestService service : services) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void tornTailIsDiscardedAndTheSequenceResumesAfterTheLastIntactEvent() throws Exception {
+        String torn = ClockEventIngestService.encode(event(3, "k3"));
+        writeJournal(line(1, "k1") + line(2, "k2") + torn.substring(0, torn.length() / 2));
+
+        ClockEventIngestService service = start(new ClockEventIngestService(jdbc, transactionTemplate, "async",
+                journalDir.toString(), 100, 500, 1000, 2000));
+
+        assertEquals(line(1, "k1") + line(2, "k2"), readJournal());
+        assertEquals(3, service.submit(EventType.TIME_OUT, 7, "k4").getEvent().getSequence());
+        databaseUp = true;
+        awaitWritten(3);
+        assertEquals(List.of("k1", "k2", "k4"), writtenKeys);
+    }
+
+    @Test
+    void corruptLineIsSkippedWithoutLosingTheEventsAfterIt() throws Exception {
+        String corrupt = line(2, "k2").replace("\tTIME_IN\t", "\tTIME_OUT\t");
+        writeJournal(line(1, "k1") + corrupt + line(3, "k3"));
+
+        start(new ClockEventIngestService(jdbc, transactionTemplate, "async", journalDir.toString(), 100, 500, 1000, 2000));
+
+        assertEquals(line(1, "k1") + line(3, "k3"), readJournal());
+        databaseUp = true;
+        awaitWritten(2);
+        assertEquals(List.of("k1", "k3"), writtenKeys);
+    }
+
+    @Test
+    void onlyEventsAfterTheCheckpointAreReplayed() throws Exception {
+        writeJournal(line(1, "k1") + line(2, "k2") + line(3, "k3") + line(4, "k4"));
+        Files.writeString(journalDir.resolve("clock-events.checkpoint"), "2");
+        databaseUp = true;
+
+        ClockEventIngestService service = start(new ClockEventIngestService(jdbc, transactionTemplate, "async",
+                journalDir.toString(), 100, 500, 1000, 2000));
+        awaitWritten(2);
+
+        assertEquals(List.of("k3", "k4"), writtenKeys);
+        // keys of already written events are still remembered, a retried tap is not written twice
+        assertTrue(service.submit(EventType.TIME_IN, 7, "k1").isDuplicate());
+        assertEquals(5, service.submit(EventType.TIME_IN, 7, "k5").getEvent().getSequence());
+        awaitWritten(3);
+        assertEquals(List.of("k3", "k4", "k5"), writtenKeys);
+    }
+
+    @Test
+    void failedAppendIsCutBackSoLaterEventsSurviveRecovery() throws Exception {
+        FailingChannel[] channel = new FailingChannel[1];
+        ClockEventIngestService service = start(failingService(channel));
+
+        service.submit(EventType.TIME_IN, 7, "before");
+        channel[0].failNextWrite = true;
+        assertThrows(UncheckedIOException.class, () -> service.submit(EventType.TIME_IN, 8, "torn"));
+        service.submit(EventType.TIME_IN, 9, "after");
+        service.stop();
+        services.remove(service);
+
+        String journal = readJournal();
+        assertEquals(2, journal.split("\n").length, journal);
+        assertTrue(journal.endsWith("\n"));
+
+        databaseUp = true;
+        start(new ClockEventIngestService(jdbc, transactionTemplate, "async", journalDir.toString(), 100, 500, 1000, 2000));
+        awaitWritten(2);
+        assertEquals(List.of("before", "after"), writtenKeys);
+    }
+
+    @Test
+    void journalRefusesEventsOnceAFailedAppendCannotBeCutBack() throws Exception {
+        FailingChannel[] channel = new FailingChannel[1];
+        ClockEventIngestService service = start(failingService(channel));
+
+        service.submit(EventType.TIME_IN, 7, "before");
+        channel[0].failNextWrite = true;
+        channel[0].failTruncate = true;
+        assertThrows(UncheckedIOException.class, () -> service.submit(EventType.TIME_IN, 8, "torn"));
+
+        UncheckedIOException refused = assertThrows(UncheckedIOException.class,
+                () -> service.submit(EventType.TIME_IN, 9, "after"));
+        assertEquals("Clock event journal is unavailable", refused.getCause().getMessage());
+        service.stop();
+        services.remove(service);
+
+        // the acknowledged event before the torn append is still recovered
+        databaseUp = true;
+        start(new ClockEventIngestService(jdbc, transactionTemplate, "async", journalDir.toString(), 100, 500, 1000, 2000));
+        awaitWritten(1);
+        assertEquals(List.of("before"), writtenKeys);
+    }
+
+    private ClockEventIngestService failingService(FailingChannel[] channel) {
+        return new ClockEventIngestService(jdbc, transactionTemplate, "async", journalDir.toString(), 100, 500, 1000, 2000) {
+            @Override
+            FileChannel openJournal(Path file) throws IOException {
+                channel[0] = new FailingChannel(super.openJournal(file));
+                return channel[0];
+            }
+        };
+    }
+
+    private ClockEventIngestService start(ClockEventIngestService service) throws IOException {
+        services.add(service);
+        service.start();
+        return service;
+    }
+
+    private void awaitWritten(int events) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (writtenKeys.size() < events && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(events, writtenKeys.size(), writtenKeys.toString());
+    }
+
+    private static ClockEvent event(long sequence, String key) {
+        return new ClockEvent(sequence, EventType.TIME_IN, 7, SHIFT_START.plusMinutes(sequence), key);
+    }
+
+    private static String line(long sequence, String key) {
+        return ClockEventIngestService.encode(event(sequence, key));
+    }
+
+    private void writeJournal(String content) throws IOException {
+        Files.writeString(journalDir.resolve("clock-events.journal"), content);
+    }
+
+    private String readJournal() throws IOException {
+        return Files.readString(journalDir.resolve("clock-events.journal"), StandardCharsets.UTF_8);
+    }
+
+    // a real journal channel whose next write stops halfway through, the way a full disk or an I/O error leaves it
+    private static class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+        volatile boolean failNextWrite;
+        volatile boolean failTruncate;
+
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failNextWrite) {
+                failNextWrite = false;
+                ByteBuffer half = src.duplicate();
+                half.limit(src.position() + src.remaining() / 2);
+                delegate.write(half);
+                delegate.force(false);
+                throw new IOException("No space left on device");
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncate) {
+                throw new IOException("Input/output error");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.DailyAttendance;
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.TimeLog;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.TimeLogRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DailyAttendanceServiceTests extends PostgresTestSupport {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    @Autowired
+    private TimeLogService timeLogService;
+
+    @Autowired
+    private DailyAttendanceService dailyAttendanceService;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private TimeLogRepo timeLogRepo;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        truncate("maintenance_job", "daily_attendance", "time_logs", "employee");
+        employee = employeeRepo.save(new Employee("ana", "x", "ana@example.com", "Ana", "Reyes", "0917", "Clerk", 22000));
+    }
+
+    @Test
+    void logsWrittenWithoutTheRollupAreRolledUpOnceAtStartup() {
+        // written straight to time_logs, as before the rollup existed
+        saveLegacyLog(MONDAY.atTime(8, 0), MONDAY.atTime(12, 0));
+        saveLegacyLog(MONDAY.atTime(13, 0), MONDAY.atTime(19, 0));
+        saveLegacyLog(MONDAY.plusDays(1).atTime(8, 0), MONDAY.plusDays(1).atTime(17, 0));
+        saveLegacyLog(MONDAY.plusDays(2).atTime(8, 0), null);
+        // a legacy row that predates the derived minute columns
+        TimeLog underived = saveLegacyLog(MONDAY.plusDays(3).atTime(8, 0), MONDAY.plusDays(3).atTime(18, 0));
+        jdbcTemplate.update("UPDATE time_logs SET duration_minutes = NULL, overtime_minutes = NULL WHERE time_log_id = ?",
+                underived.getTimeLogId());
+
+        assertTrue(days().isEmpty());
+        assertFalse(dailyAttendanceService.hasRebuiltAll());
+
+        timeLogService.seedAttendanceRollup();
+
+        List<DailyAttendance> days = days();
+        assertEquals(4, days.size());
+        assertDay(days.get(0), 2, 600, 0);
+        assertDay(days.get(1), 1, 540, 60);
+        assertDay(days.get(2), 1, 0, 0);
+        assertDay(days.get(3), 1, 600, 120);
+        assertTrue(dailyAttendanceService.hasRebuiltAll());
+
+        // recorded, so the next startup leaves the tables alone
+        saveLegacyLog(MONDAY.plusDays(4).atTime(8, 0), MONDAY.plusDays(4).atTime(17, 0));
+        timeLogService.seedAttendanceRollup();
+        assertEquals(4, days().size());
+        assertFalse(dailyAttendanceService.rebuildAllOnce());
+        assertEquals(1, count("SELECT COUNT(*) FROM maintenance_job"));
+    }
+
+    @Test
+    void partlyRolledUpDaysAreRepaired() {
+        saveLegacyLog(MONDAY.atTime(8, 0), MONDAY.atTime(12, 0));
+        saveLegacyLog(MONDAY.atTime(13, 0), MONDAY.atTime(18, 0));
+        saveLegacyLog(MONDAY.plusDays(1).atTime(8, 0), MONDAY.plusDays(1).atTime(17, 0));
+        // only the morning log of the first day made it into the rollup, and with the old presence rule
+        jdbcTemplate.update("INSERT INTO daily_attendance (employee_id, work_date, log_count, present, worked_minutes, " +
+                "overtime_minutes) VALUES (?, ?, 1, true, 240, 0)", employee.getEmployeeId(), MONDAY);
+        jdbcTemplate.update("INSERT INTO daily_attendance (employee_id, work_date, log_count, present, worked_minutes, " +
+                "overtime_minutes) VALUES (?, ?, 1, true, 0, 0)", employee.getEmployeeId(), MONDAY.plusDays(5));
+
+        assertTrue(dailyAttendanceService.rebuildAllOnce());
+
+        List<DailyAttendance> days = days();
+        assertEquals(2, days.size());
+        assertDay(days.get(0), 2, 540, 0);
+        assertDay(days.get(1), 1, 540, 60);
+    }
+
+    @Test
+    void presentMeansWorkedTimeWhicheverWayTheRowIsWritten() {
+        timeLogService.timeIn(employee.getEmployeeId(), null);
+        DailyAttendance open = days(LocalDate.now()).get(0);
+        assertEquals(1, open.getLogCount());
+        assertFalse(open.isPresent());
+
+        // closed straight away: a log, but no time worked
+        timeLogService.timeOut(employee.getEmployeeId(), null);
+        assertFalse(days(LocalDate.now()).get(0).isPresent());
+
+        TimeLog log = timeLogRepo.findAll().get(0);
+        LocalDateTime timeIn = log.getTimeIn();
+        timeLogService.adjustTimeLog(log.getTimeLogId(), employee, timeIn, timeIn.plusHours(8));
+        assertTrue(days(LocalDate.now()).get(0).isPresent());
+
+        timeLogService.deleteTimeLog(log.getTimeLogId());
+        assertFalse(days(LocalDate.now()).get(0).isPresent());
+
+        // a rebuild applies the same rule
+        saveLegacyLog(MONDAY.atTime(8, 0), null);
+        saveLegacyLog(MONDAY.plusDays(1).atTime(8, 0), MONDAY.plusDays(1).atTime(8, 0));
+        saveLegacyLog(MONDAY.plusDays(2).atTime(8, 0), MONDAY.plusDays(2).atTime(8, 1));
+        dailyAttendanceService.rebuild(MONDAY, MONDAY.plusDays(6));
+        assertEquals(List.of(false, false, true), days().stream().map(DailyAttendance::isPresent).toList());
+    }
+
+    private TimeLog saveLegacyLog(LocalDateTime timeIn, LocalDateTime timeOut) {
+        return timeLogRepo.save(new TimeLog(employee, timeIn, timeOut));
+    }
+
+    private List<DailyAttendance> days() {
+        return dailyAttendanceService.getEmployeeDays(employee.getEmployeeId(), MONDAY, MONDAY.plusDays(6)).stream()
+                .sorted((a, b) -> a.getWorkDate().compareTo(b.getWorkDate()))
+                .toList();
+    }
+
+    private List<DailyAttendance> days(LocalDate date) {
+        return dailyAttendanceService.getEmployeeDays(employee.getEmployeeId(), date, date);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static void assertDay(DailyAttendance day, int logCount, int workedMinutes, int overtimeMinutes) {
+        assertEquals(logCount, day.getLogCount(), "log count on " + day.getWorkDate());
+        assertEquals(workedMinutes, day.getWorkedMinutes(), "worked minutes on " + day.getWorkDate());
+        assertEquals(overtimeMinutes, day.getOvertimeMinutes(), "overtime minutes on " + day.getWorkDate());
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmailOutboxRepository;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// sends through a GreenMail SMTP server on the port application-test.properties points spring.mail at
+class EmailOutboxDispatcherTests extends PostgresTestSupport {
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private GreenMail greenMail;
+
+    @BeforeEach
+    void setUp() {
+        truncate("email_outbox");
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        greenMail.stop();
+    }
+
+    @Test
+    void pendingMessagesWithTheSameKeyAreSentOnce() throws Exception {
+        emailService.queueMessage("ana@example.com", "Payslip 1", "first", "payslip:ana");
+        emailService.queueMessage("ana@example.com", "Payslip 2", "second", "payslip:ana");
+        emailService.queueMessage("ana@example.com", "Payslip 3", "third", "payslip:ana");
+        emailService.queueMessage("ben@example.com", "Welcome", "hello", null);
+
+        assertEquals(2, emailOutboxRepository.count());
+        Map<String, Object> row = outboxRow("payslip:ana");
+        assertEquals(2, row.get("revision"));
+
+        dispatcher.dispatch();
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 2));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        MimeMessage payslip = received[0].getSubject().startsWith("Payslip") ? received[0] : received[1];
+        assertEquals("Payslip 3", payslip.getSubject());
+        assertEquals("third", GreenMailUtil.getBody(payslip).trim());
+        assertEquals(2L, emailOutboxRepository.countByStatus("SENT"));
+
+        // once sent the key is free again, a later message gets its own row
+        emailService.queueMessage("ana@example.com", "Payslip 4", "fourth", "payslip:ana");
+        assertEquals(3, emailOutboxRepository.count());
+        assertEquals(1L, emailOutboxRepository.countByStatus("PENDING"));
+    }
+
+    @Test
+    void failedSendsBackOffExponentiallyAndGiveUpAfterMaxAttempts() {
+        greenMail.stop();
+        emailService.queueMessage("ana@example.com", "Payslip", "body", "payslip:ana");
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+        Map<String, Object> row = outboxRow("payslip:ana");
+        assertEquals("PENDING", row.get("status"));
+        assertEquals(1, row.get("attempts"));
+        assertNotNull(row.get("last_error"));
+        assertBackoff(before, row, 30);
+
+        // not due yet, a second poll leaves it alone
+        dispatcher.dispatch();
+        assertEquals(1, outboxRow("payslip:ana").get("attempts"));
+
+        makeDue();
+        before = LocalDateTime.now();
+        dispatcher.dispatch();
+        row = outboxRow("payslip:ana");
+        assertEquals(2, row.get("attempts"));
+        assertBackoff(before, row, 60);
+
+        jdbcTemplate.update("UPDATE email_outbox SET attempts = 7");
+        makeDue();
+        dispatcher.dispatch();
+        row = outboxRow("payslip:ana");
+        assertEquals("FAILED", row.get("status"));
+        assertEquals(8, row.get("attempts"));
+    }
+
+    @Test
+    void failureOfReplacedContentDoesNotPenaliseTheReplacement() {
+        emailService.queueMessage("ana@example.com", "Payslip", "old", "payslip:ana");
+        EmailOutboxDispatcher racing = dispatcherWith(new ReplacingSender(false));
+        try {
+            racing.dispatch();
+        } finally {
+            racing.shutdown();
+        }
+
+        Map<String, Object> row = outboxRow("payslip:ana");
+        assertEquals("PENDING", row.get("status"));
+        assertEquals(1, row.get("revision"));
+        assertEquals(0, row.get("attempts"));
+        assertNull(row.get("last_error"));
+        assertEquals("new", row.get("body"));
+
+        dispatcher.dispatch();
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        assertEquals("new", GreenMailUtil.getBody(greenMail.getReceivedMessages()[0]).trim());
+        assertEquals("SENT", outboxRow("payslip:ana").get("status"));
+    }
+
+    @Test
+    void sendOfReplacedContentDoesNotMarkTheReplacementSent() {
+        emailService.queueMessage("ana@example.com", "Payslip", "old", "payslip:ana");
+        EmailOutboxDispatcher racing = dispatcherWith(new ReplacingSender(true));
+        try {
+            racing.dispatch();
+        } finally {
+            racing.shutdown();
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        assertEquals("PENDING", outboxRow("payslip:ana").get("status"));
+
+        dispatcher.dispatch();
+        assertTrue(greenMail.waitForIncomingEmail(5000, 2));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals("old", GreenMailUtil.getBody(received[0]).trim());
+        assertEquals("new", GreenMailUtil.getBody(received[1]).trim());
+        assertEquals("SENT", outboxRow("payslip:ana").get("status"));
+    }
+
+    // replaces the message's content while it is being sent, then either delivers the old content or fails
+    private class ReplacingSender extends JavaMailSenderImpl {
+        private final boolean deliver;
+
+        ReplacingSender(boolean deliver) {
+            this.deliver = deliver;
+            setHost("localhost");
+            setPort(ServerSetupTest.SMTP.getPort());
+        }
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            emailService.queueMessage("ana@example.com", "Payslip", "new", "payslip:ana");
+            if (!deliver) {
+                throw new MailSendException("connection reset");
+            }
+            super.send(simpleMessages);
+        }
+    }
+
+    private EmailOutboxDispatcher dispatcherWith(JavaMailSenderImpl sender) {
+        EmailOutboxDispatcher racing = new EmailOutboxDispatcher(namedParameterJdbcTemplate, emailOutboxRepository, sender, 1);
+        ReflectionTestUtils.setField(racing, "batchSize", 100);
+        ReflectionTestUtils.setField(racing, "maxAttempts", 8);
+        ReflectionTestUtils.setField(racing, "leaseSeconds", 300L);
+        ReflectionTestUtils.setField(racing, "baseBackoffSeconds", 30L);
+        ReflectionTestUtils.setField(racing, "maxBackoffSeconds", 3600L);
+        return racing;
+    }
+
+    private Map<String, Object> outboxRow(String dedupeKey) {
+        return jdbcTemplate.queryForMap(
+                "SELECT status, attempts, revision, body, last_error, next_attempt_at FROM email_outbox " +
+                "WHERE dedupe_key = ? ORDER BY outbox_id DESC LIMIT 1", dedupeKey);
+    }
+
+    private void makeDue() {
+        jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = ?", LocalDateTime.now().minusSeconds(1));
+    }
+
+    private static void assertBackoff(LocalDateTime before, Map<String, Object> row, long seconds) {
+        LocalDateTime nextAttemptAt = ((java.sql.Timestamp) row.get("next_attempt_at")).toLocalDateTime();
+        long delay = Duration.between(before, nextAttemptAt).getSeconds();
+        assertTrue(delay >= seconds - 1 && delay <= seconds + 5, "backoff of " + delay + "s, expected " + seconds + "s");
+    }
+}
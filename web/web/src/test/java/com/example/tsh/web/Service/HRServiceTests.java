@@ -0,0 +1,148 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.DTO.AttendanceRecord;
+import com.example.tsh.web.DTO.EmployeeSummary;
+import com.example.tsh.web.Entity.DailyAttendance;
+import com.example.tsh.web.Repository.DailyAttendanceRepo;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.HRRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HRServiceTests {
+
+    private static final EmployeeSummary ANA = new EmployeeSummary(1L, "ana", "Ana", "Reyes", "ana@example.com", "Clerk");
+    private static final EmployeeSummary BEN = new EmployeeSummary(2L, "ben", "Ben", "Cruz", "ben@example.com", "Clerk");
+
+    private EmployeeRepo employeeRepo;
+    private DailyAttendanceRepo dailyAttendanceRepo;
+    private HRService hrService;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepo = mock(EmployeeRepo.class);
+        dailyAttendanceRepo = mock(DailyAttendanceRepo.class);
+        hrService = new HRService(mock(HRRepo.class), employeeRepo, mock(PasswordEncoder.class), dailyAttendanceRepo);
+    }
+
+    @Test
+    void everyDayOfA31DayMonthIsEitherPresentOrAbsent() {
+        LocalDate january = LocalDate.of(2025, 1, 1);
+        when(employeeRepo.findAllSummaries()).thenReturn(List.of(ANA, BEN));
+        when(dailyAttendanceRepo.findByWorkDateBetween(january, LocalDate.of(2025, 1, 31))).thenReturn(List.of(
+                day(1L, january, true),
+                day(1L, january.withDayOfMonth(15), true),
+                day(1L, january.withDayOfMonth(31), true),
+                day(2L, january.withDayOfMonth(2), true)));
+
+        List<AttendanceRecord> records = hrService.getAttendanceRecords(null, 1, 2025, null);
+
+        assertEquals(62, records.size());
+        List<AttendanceRecord> ana = records.subList(0, 31);
+        for (int i = 0; i < 31; i++) {
+            AttendanceRecord record = ana.get(i);
+            assertEquals(1L, record.getEmployeeId());
+            assertEquals(january.plusDays(i).toString(), record.getDate());
+            boolean present = i == 0 || i == 14 || i == 30;
+            assertEquals(present ? "PRESENT" : "ABSENT", record.getStatus(), record.getDate());
+        }
+        assertEquals(List.of("2025-01-02"), dates(records.subList(31, 62), "PRESENT"));
+        assertTrue(records.subList(31, 62).stream().allMatch(record -> record.getEmployee() == BEN));
+    }
+
+    @Test
+    void statusFilterSelectsOneSideOfTheMask() {
+        LocalDate january = LocalDate.of(2025, 1, 1);
+        when(employeeRepo.findAllSummaries()).thenReturn(List.of(ANA));
+        when(dailyAttendanceRepo.findByWorkDateBetween(any(), any())).thenReturn(List.of(
+                day(1L, january.withDayOfMonth(3), true),
+                day(1L, january.withDayOfMonth(4), true)));
+
+        assertEquals(List.of("2025-01-03", "2025-01-04"),
+                dates(hrService.getAttendanceRecords(null, 1, 2025, "present"), "PRESENT"));
+
+        List<AttendanceRecord> absent = hrService.getAttendanceRecords(null, 1, 2025, "ABSENT");
+        assertEquals(29, absent.size());
+        assertTrue(absent.stream().allMatch(record -> record.getStatus().equals("ABSENT")));
+    }
+
+    @Test
+    void monthLengthBoundsTheAbsentDays() {
+        when(employeeRepo.findAllSummaries()).thenReturn(List.of(ANA));
+        when(dailyAttendanceRepo.findByWorkDateBetween(any(), any())).thenReturn(List.of());
+
+        List<AttendanceRecord> leapFebruary = hrService.getAttendanceRecords(null, 2, 2024, null);
+        assertEquals(29, leapFebruary.size());
+        assertEquals("2024-02-29", leapFebruary.get(28).getDate());
+
+        assertEquals(28, hrService.getAttendanceRecords(null, 2, 2025, null).size());
+        assertEquals(30, hrService.getAttendanceRecords(null, 4, 2025, null).size());
+    }
+
+    @Test
+    void daysWhoseLogsWereRemovedAreNotPresent() {
+        LocalDate january = LocalDate.of(2025, 1, 1);
+        when(employeeRepo.findAllSummaries()).thenReturn(List.of(ANA));
+        when(dailyAttendanceRepo.findByWorkDateBetween(any(), any())).thenReturn(List.of(
+                day(1L, january.withDayOfMonth(6), false),
+                day(1L, january.withDayOfMonth(7), true)));
+
+        assertEquals(List.of("2025-01-07"), dates(hrService.getAttendanceRecords(null, 1, 2025, null), "PRESENT"));
+    }
+
+    @Test
+    void singleEmployeeCalendarListsOnlyPresentDays() {
+        LocalDate march = LocalDate.of(2025, 3, 1);
+        when(employeeRepo.findSummaryById(1L)).thenReturn(Optional.of(ANA));
+        when(dailyAttendanceRepo.findByEmployeeIdAndWorkDateBetween(1L, march, LocalDate.of(2025, 3, 31)))
+                .thenReturn(List.of(day(1L, march.withDayOfMonth(10), true)));
+
+        List<AttendanceRecord> records = hrService.getAttendanceRecords(1L, 3, 2025, null);
+
+        assertEquals(1, records.size());
+        assertEquals("2025-03-10", records.get(0).getDate());
+        assertEquals("PRESENT", records.get(0).getStatus());
+    }
+
+    @Test
+    void pagedCalendarLoadsOnlyThePagesEmployees() {
+        LocalDate january = LocalDate.of(2025, 1, 1);
+        when(employeeRepo.findSummaries(PageRequest.of(1, 1))).thenReturn(List.of(BEN));
+        when(dailyAttendanceRepo.findByEmployeeIdInAndWorkDateBetween(List.of(2L), january, LocalDate.of(2025, 1, 31)))
+                .thenReturn(List.of(day(2L, january.withDayOfMonth(20), true)));
+
+        List<AttendanceRecord> records = hrService.getAttendanceRecords(null, 1, 2025, null, 1, 1);
+
+        assertEquals(31, records.size());
+        assertEquals(List.of("2025-01-20"), dates(records, "PRESENT"));
+        verify(employeeRepo, never()).findAllSummaries();
+        verify(dailyAttendanceRepo, never()).findByWorkDateBetween(any(), any());
+    }
+
+    private static DailyAttendance day(Long employeeId, LocalDate date, boolean present) {
+        DailyAttendance day = new DailyAttendance();
+        day.setEmployeeId(employeeId);
+        day.setWorkDate(date);
+        day.setPresent(present);
+        day.setLogCount(present ? 1 : 0);
+        return day;
+    }
+
+    private static List<String> dates(List<AttendanceRecord> records, String status) {
+        return records.stream().filter(record -> record.getStatus().equals(status)).map(AttendanceRecord::getDate).toList();
+    }
+}
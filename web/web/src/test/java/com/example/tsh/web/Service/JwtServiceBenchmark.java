@@ -0,0 +1,94 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Benchmarks;
+import com.example.tsh.web.Entity.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// token issue and validate throughput. The legacy* methods replay the old JwtService: the key is Base64-decoded
+// and rebuilt on every call, and validation builds a new parser for each of its three parses (subject, subject, expiry)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @State(Scope.Benchmark)
+    public static class Tokens {
+
+        JwtService jwtService;
+        AuthPrincipal principal;
+        String token;
+
+        @Setup
+        public void setUp() {
+            jwtService = new JwtService(new EnvJwtKeyProvider(SECRET, "bench", ""));
+            principal = new AuthPrincipal("ana", "", Role.EMPLOYEE, 42L);
+            token = jwtService.generateToken(principal);
+        }
+    }
+
+    @Benchmark
+    public String issue(Tokens tokens) {
+        return tokens.jwtService.generateToken(tokens.principal);
+    }
+
+    @Benchmark
+    public AuthPrincipal validate(Tokens tokens) {
+        Claims claims = tokens.jwtService.parseToken(tokens.token);
+        return tokens.jwtService.isRevoked(claims) ? null : tokens.jwtService.toPrincipal(claims);
+    }
+
+    @Benchmark
+    public String legacyIssue(Tokens tokens) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(tokens.principal.getUsername())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 60 * 60 * 1000))
+                .signWith(legacyKey())
+                .compact();
+    }
+
+    @Benchmark
+    public boolean legacyValidate(Tokens tokens) {
+        // the filter read the subject, then validateToken read it again and the expiry
+        String username = legacyClaims(tokens.token).getSubject();
+        return legacyClaims(tokens.token).getSubject().equals(username)
+                && !legacyClaims(tokens.token).getExpiration().before(new Date());
+    }
+
+    private static Key legacyKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder().setSigningKey(legacyKey()).build().parseClaimsJws(token).getBody();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        Benchmarks.run(JwtServiceBenchmark.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.tsh.web.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalPayslipBlobStoreTests {
+
+    private static final byte[] PDF = "%PDF-1.4 payslip of Ana Reyes".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path root;
+
+    private LocalPayslipBlobStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new LocalPayslipBlobStore(root.toString());
+    }
+
+    @Test
+    void blobIsStoredUnderItsShardedSha256() throws Exception {
+        String hash = store.put(PDF);
+
+        assertEquals(LocalPayslipBlobStore.sha256(PDF), hash);
+        assertTrue(hash.matches("[0-9a-f]{64}"));
+        Path file = root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+        assertArrayEquals(PDF, Files.readAllBytes(file));
+        assertTrue(store.exists(hash));
+        try (InputStream in = store.open(hash)) {
+            assertArrayEquals(PDF, in.readAllBytes());
+        }
+        Resource resource = store.resource(hash);
+        assertEquals(PDF.length, resource.contentLength());
+    }
+
+    @Test
+    void sameContentIsStoredOnce() throws Exception {
+        String first = store.put(PDF);
+        String second = store.put(PDF.clone());
+
+        assertEquals(first, second);
+        assertEquals(1, blobFiles());
+        assertNotEquals(first, store.put("%PDF-1.4 payslip of Ben Cruz".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(2, blobFiles());
+    }
+
+    @Test
+    void concurrentPutsOfTheSameContentLeaveOneCompleteBlob() throws Exception {
+        byte[] large = new byte[256 * 1024];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i * 31);
+        }
+        int writers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> hashes = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                hashes.add(pool.submit(() -> {
+                    start.await();
+                    return store.put(large);
+                }));
+            }
+            start.countDown();
+            for (Future<String> hash : hashes) {
+                assertEquals(LocalPayslipBlobStore.sha256(large), hash.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // no temp files left behind, and the one blob is whole
+        assertEquals(1, blobFiles());
+        try (InputStream in = store.open(LocalPayslipBlobStore.sha256(large))) {
+            assertArrayEquals(large, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void unknownOrMalformedHashesAreNotFound() {
+        String unknown = LocalPayslipBlobStore.sha256(PDF);
+
+        assertFalse(store.exists(unknown));
+        assertFalse(store.exists(null));
+        assertThrows(NoSuchFileException.class, () -> store.open(unknown));
+        assertThrows(NoSuchFileException.class, () -> store.resource(unknown));
+        // a hash is only ever resolved inside the store directory
+        assertFalse(store.exists("../../etc/passwd"));
+        assertThrows(NoSuchFileException.class, () -> store.open("../" + unknown.substring(3)));
+        assertThrows(NoSuchFileException.class, () -> store.open(unknown.toUpperCase()));
+    }
+
+    private long blobFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
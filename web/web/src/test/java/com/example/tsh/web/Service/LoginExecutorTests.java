@@ -0,0 +1,76 @@
+package com.example.tsh.web.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginExecutorTests {
+
+    // one worker and a one-slot queue: the third concurrent login has nowhere to go
+    private final LoginExecutor loginExecutor = new LoginExecutor(1, 1);
+    private final CountDownLatch running = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        loginExecutor.shutdown();
+    }
+
+    @Test
+    void loginsBeyondTheQueueAreAnswered503() throws Exception {
+        CompletableFuture<ResponseEntity<?>> first = loginExecutor.submit(this::blockingLogin);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<?>> queued = loginExecutor.submit(() -> ResponseEntity.ok("queued"));
+
+        CompletableFuture<ResponseEntity<?>> rejected = loginExecutor.submit(() -> ResponseEntity.ok("never runs"));
+
+        assertTrue(rejected.isDone());
+        ResponseEntity<?> response = rejected.get();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(Map.of("error", "Too many logins in progress, please try again"), response.getBody());
+        assertFalse(first.isDone());
+        assertFalse(queued.isDone());
+
+        Map<String, Object> stats = loginExecutor.getStats();
+        assertEquals(1L, stats.get("rejected"));
+        assertEquals(1, stats.get("queued"));
+        assertEquals(1, stats.get("queueCapacity"));
+    }
+
+    @Test
+    void queuedLoginsRunOnceTheWorkerIsFree() throws Exception {
+        CompletableFuture<ResponseEntity<?>> first = loginExecutor.submit(this::blockingLogin);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<?>> queued = loginExecutor.submit(() -> ResponseEntity.ok("queued"));
+
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(HttpStatus.OK, loginExecutor.submit(() -> ResponseEntity.ok("after")).get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(0L, loginExecutor.getStats().get("rejected"));
+    }
+
+    private ResponseEntity<?> blockingLogin() {
+        running.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return ResponseEntity.ok("first");
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Benchmarks;
+import com.example.tsh.web.Entity.DailyAttendance;
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Payroll;
+import com.example.tsh.web.Entity.TimeLog;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import java.util.logging.StreamHandler;
+
+// cost of one payroll calculation per audit level; OFF should allocate only the Payroll itself.
+// legacyLogging is the baseline the audit trail replaced: the same calculation plus the INFO lines the old
+// generatePayrollForEmployee wrote per payroll and per time log. They are formatted by a JUL handler into a
+// discarding stream, so the number is a lower bound: the console or file write the application did is not included
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PayrollAuditBenchmark {
+
+    private static final LocalDate PAY_DATE = LocalDate.of(2025, 5, 10);
+
+    // one employee working every weekday of the period, 9 hours a day
+    private static class Fixture {
+        final Employee employee;
+        final PayrollService.PayPeriod period;
+        final List<DailyAttendance> days = new ArrayList<>();
+        final List<TimeLog> timeLogs = new ArrayList<>();
+
+        Fixture(PayrollService payrollService) {
+            employee = new Employee("ana", "x", "ana@example.com", "Ana", "Reyes", "0917", "Clerk", 30000);
+            employee.setEmployeeId(1);
+            period = payrollService.determinePayPeriod(PAY_DATE);
+
+            for (LocalDate date = period.startDate; !date.isAfter(period.endDate); date = date.plusDays(1)) {
+                if (date.getDayOfWeek().getValue() < 6) {
+                    DailyAttendance day = new DailyAttendance();
+                    day.setEmployeeId(1L);
+                    day.setWorkDate(date);
+                    day.setLogCount(1);
+                    day.setPresent(true);
+                    day.setWorkedMinutes(540);
+                    day.setOvertimeMinutes(60);
+                    days.add(day);
+
+                    TimeLog log = new TimeLog(employee, date.atTime(8, 0), date.atTime(17, 0));
+                    log.setTimeLogId((long) timeLogs.size() + 1);
+                    timeLogs.add(log);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Audited {
+        @Param({"OFF", "SUMMARY", "DETAIL"})
+        public PayrollAuditSink.Level level;
+
+        PayrollService payrollService;
+        Fixture fixture;
+
+        @Setup
+        public void setUp() {
+            payrollService = new PayrollService(null, null, null, new RingBufferPayrollAuditSink(level, 1.0, 1000), null);
+            fixture = new Fixture(payrollService);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Legacy {
+        PayrollService payrollService;
+        Fixture fixture;
+        Logger logger;
+
+        @Setup
+        public void setUp() {
+            payrollService = new PayrollService(null, null, null,
+                    new RingBufferPayrollAuditSink(PayrollAuditSink.Level.OFF, 1.0, 1000), null);
+            fixture = new Fixture(payrollService);
+            logger = Logger.getAnonymousLogger();
+            logger.setUseParentHandlers(false);
+            logger.setLevel(Level.INFO);
+            logger.addHandler(new StreamHandler(OutputStream.nullOutputStream(), new SimpleFormatter()));
+        }
+    }
+
+    @Benchmark
+    public Payroll calculate(Audited state) {
+        Payroll payroll = new Payroll();
+        payroll.setEmployee(state.fixture.employee);
+        state.payrollService.applyPayrollCalculation(payroll, state.fixture.employee, state.fixture.period,
+                state.fixture.days);
+        return payroll;
+    }
+
+    // the lines of the removed logging, in the order calculatePayrollDetails, ensureOvertimeCalculated,
+    // calculateAttendance, calculateOvertimeDetails and Payroll.calculatePayroll wrote them
+    @Benchmark
+    public Payroll legacyLogging(Legacy state) {
+        Logger logger = state.logger;
+        Employee employee = state.fixture.employee;
+        PayrollService.PayPeriod period = state.fixture.period;
+        List<TimeLog> timeLogs = state.fixture.timeLogs;
+
+        logger.info("Generating payroll for employee ID: " + employee.getEmployeeId() + " for date: " + PAY_DATE);
+        logger.info("Employee base salary: " + employee.getBaseSalary());
+        Payroll payroll = new Payroll();
+        payroll.setEmployee(employee);
+        payroll.setPayrollDate(PAY_DATE);
+        state.payrollService.applyPayrollCalculation(payroll, employee, period, state.fixture.days);
+
+        logger.info("Pay period: " + period.startDate + " to " + period.endDate);
+        logger.info("Found " + timeLogs.size() + " time logs for the pay period");
+        for (TimeLog log : timeLogs) {
+            logger.info("Time log ID: " + log.getTimeLogId() +
+                    " - Duration: " + log.getDurationMinutes() +
+                    " min, Overtime: " + log.getOvertimeMinutes() + " min");
+        }
+        logger.info("Saved " + timeLogs.size() + " updated time logs with overtime calculations");
+        TimeLog sampleLog = timeLogs.get(0);
+        logger.info("Sample time log data after ensuring overtime calculation:");
+        logger.info("  ID: " + sampleLog.getTimeLogId() +
+                ", Date: " + sampleLog.getDate() +
+                ", TimeIn: " + sampleLog.getTimeIn() +
+                ", TimeOut: " + sampleLog.getTimeOut() +
+                ", Duration: " + sampleLog.getDurationMinutes() +
+                ", Overtime: " + sampleLog.getOvertimeMinutes());
+
+        int presentDays = state.fixture.days.size();
+        logger.info("Present days: " + presentDays);
+        logger.info("Working days in period: " + (presentDays + payroll.getAbsenceDays()));
+        logger.info("Absence days: " + payroll.getAbsenceDays());
+        float dailyRate = employee.getBaseSalary() / 22;
+        logger.info("Full monthly salary: " + employee.getBaseSalary());
+        logger.info("Daily rate: " + dailyRate + ", Present days: " + presentDays);
+        logger.info("Prorated salary: " + payroll.getBaseSalary());
+        logger.info("Absence days: " + payroll.getAbsenceDays() + ", Absence deduction: " + payroll.getAbsenceDeduction());
+
+        logger.info("===== STARTING OVERTIME CALCULATION =====");
+        logger.info("Number of time logs to process: " + timeLogs.size());
+        logger.info("Daily rate: " + dailyRate + ", Hourly rate: " + dailyRate / 8 + ", Overtime rate: " +
+                payroll.getOvertimeRate());
+        for (TimeLog log : timeLogs) {
+            logger.info("Processing TimeLog ID: " + log.getTimeLogId() +
+                    ", Date: " + log.getDate() +
+                    ", TimeIn: " + log.getTimeIn() +
+                    ", TimeOut: " + log.getTimeOut() +
+                    ", Duration: " + log.getDurationMinutes() + " minutes, " +
+                    "Overtime: " + log.getOvertimeMinutes() + " minutes");
+            if (log.getOvertimeMinutes() > 0) {
+                logger.info("Added " + log.getOvertimeMinutes() / 60.0f + " overtime hours from log ID: " +
+                        log.getTimeLogId());
+            }
+        }
+        logger.info("Total calculated overtime hours: " + payroll.getOvertimeHours());
+        logger.info("Final overtime pay calculation: " + payroll.getOvertimeHours() + " hours × " +
+                payroll.getOvertimeRate() + " = " + payroll.getOvertimePay());
+        logger.info("===== COMPLETED OVERTIME CALCULATION =====");
+
+        logger.info("Starting payroll calculation");
+        logger.info("Base salary (already prorated): " + payroll.getBaseSalary());
+        logger.info("Overtime hours: " + payroll.getOvertimeHours());
+        logger.info("Overtime rate: " + payroll.getOvertimeRate());
+        logger.info("Calculated gross income: " + payroll.getGrossIncome());
+        logger.info("SSS contribution: " + payroll.getSssContribution());
+        logger.info("PhilHealth contribution: " + payroll.getPhilhealthContribution());
+        logger.info("Pag-IBIG contribution: " + payroll.getPagibigContribution());
+        logger.info("Taxable income: " + (payroll.getGrossIncome() - (payroll.getSssContribution() +
+                payroll.getPhilhealthContribution() + payroll.getPagibigContribution())));
+        logger.info("Income tax: " + payroll.getIncomeTax());
+        logger.info("Total deductions: " + payroll.getTotalDeductions());
+        logger.info("Calculated net income: " + payroll.getNetIncome());
+
+        logger.info("Final payroll calculation:");
+        logger.info("Base salary (prorated): " + payroll.getBaseSalary());
+        logger.info("Overtime pay: " + payroll.getOvertimePay());
+        logger.info("Gross income: " + payroll.getGrossIncome());
+        logger.info("Total deductions: " + payroll.getTotalDeductions());
+        logger.info("Net income: " + payroll.getNetIncome());
+        return payroll;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        Benchmarks.run(PayrollAuditBenchmark.class);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.PayrollRun;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.PayrollRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// compute time of a whole payroll run, SEQUENTIAL against PARALLEL on 1, 2, 4 ... workers, at two chunk sizes.
+// Each configuration gets its own PayrollRunService so the fork-join pool has that many workers; the median of
+// a few runs is printed once both modes have been warmed up. Load and persist are the same for both modes and printed for scale.
+// Run with: mvn -Pperf test -Dtest=PayrollRunScalingTests [-Dpayroll.scaling.employees=20000]
+@Tag("load")
+class PayrollRunScalingTests extends PostgresTestSupport {
+
+    private static final LocalDate PAY_DATE = LocalDate.of(2025, 3, 10);
+    private static final int EMPLOYEES = Integer.getInteger("payroll.scaling.employees", 5_000);
+    private static final int DAYS = 10;
+    private static final int RUNS = 7;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollRunRepository payrollRunRepository;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private DailyAttendanceService dailyAttendanceService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        truncate("payroll", "payroll_run", "daily_attendance", "time_logs", "employee");
+        List<Employee> employees = new ArrayList<>(EMPLOYEES);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(new Employee("user" + i, "x", "user" + i + "@example.com", "First" + i, "Last" + i,
+                    "0917", "Clerk", 18000 + (i % 40) * 500));
+        }
+        employees = employeeRepo.saveAll(employees);
+
+        List<Object[]> days = new ArrayList<>(EMPLOYEES * DAYS);
+        for (int i = 0; i < employees.size(); i++) {
+            for (int day = 0; day < DAYS; day++) {
+                int worked = 420 + (i * 37 + day * 53) % 240;
+                days.add(new Object[]{employees.get(i).getEmployeeId(), Date.valueOf(PAY_DATE.withDayOfMonth(1 + day)),
+                        worked, Math.max(0, worked - 480)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO daily_attendance (employee_id, work_date, log_count, present, " +
+                "worked_minutes, overtime_minutes) VALUES (?, ?, 1, true, ?, ?)", days);
+    }
+
+    @Test
+    void computeTimeByModeWorkersAndChunkSize() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> workers = new ArrayList<>();
+        for (int w = 1; w < cores; w *= 2) {
+            workers.add(w);
+        }
+        workers.add(cores);
+
+        System.out.printf("payroll run of %d employees, %d attendance rows each, %d cores%n", EMPLOYEES, DAYS, cores);
+        System.out.printf("%-10s %7s %6s %11s %8s %11s %9s%n",
+                "mode", "workers", "chunk", "compute ms", "speedup", "persist ms", "load ms");
+        // both code paths are compiled before anything is timed, otherwise whichever runs first looks slowest
+        measure(cores, 200, false);
+        measure(cores, 200, true);
+        long[] sequential = measure(1, 200, false);
+        System.out.printf("%-10s %7s %6s %11d %8s %11d %9d%n", "SEQUENTIAL", "-", "-",
+                sequential[0], "1.00x", sequential[1], sequential[2]);
+        for (int chunkSize : new int[]{50, 200}) {
+            for (int w : workers) {
+                long[] parallel = measure(w, chunkSize, true);
+                System.out.printf("%-10s %7d %6d %11d %7.2fx %11d %9d%n", "PARALLEL", w, chunkSize, parallel[0],
+                        (double) sequential[0] / Math.max(1, parallel[0]), parallel[1], parallel[2]);
+            }
+        }
+    }
+
+    // median compute, persist and load millis of RUNS runs after one warm-up run
+    private long[] measure(int workers, int chunkSize, boolean parallel) {
+        PayrollRunService service = new PayrollRunService(payrollService, payrollRunRepository, employeeRepo,
+                dailyAttendanceService, jdbcTemplate, transactionTemplate, workers);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "chunkSize", chunkSize);
+        ReflectionTestUtils.setField(service, "runTimeoutMinutes", 60L);
+        try {
+            run(service, parallel);
+            long[] compute = new long[RUNS];
+            long[] persist = new long[RUNS];
+            long[] load = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                PayrollRun run = run(service, parallel);
+                compute[i] = run.getComputeMillis();
+                persist[i] = run.getPersistMillis();
+                load[i] = run.getLoadMillis();
+            }
+            return new long[]{median(compute), median(persist), median(load)};
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    // runs the period, then frees it and drops the rows so every run inserts into the same table size
+    private PayrollRun run(PayrollRunService service, boolean parallel) {
+        PayrollRun run = service.runPayroll(PAY_DATE, parallel);
+        assertEquals(EMPLOYEES, run.getPayrollCount());
+        jdbcTemplate.update("UPDATE payroll_run SET status = 'SUPERSEDED' WHERE payroll_run_id = ?", run.getPayrollRunId());
+        jdbcTemplate.update("DELETE FROM payroll WHERE payroll_run_id = ?", run.getPayrollRunId());
+        return run;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
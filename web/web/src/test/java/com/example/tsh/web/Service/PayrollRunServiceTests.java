@@ -0,0 +1,191 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.PayrollRun;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.PayrollRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PayrollRunServiceTests extends PostgresTestSupport {
+
+    private static final LocalDate PAY_DATE = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private PayrollRunService payrollRunService;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private PayrollRunRepository payrollRunRepository;
+
+    @BeforeEach
+    void setUp() {
+        truncate("payroll", "payroll_run", "daily_attendance", "time_logs", "employee");
+        employeeRepo.save(new Employee("ana", "x", "ana@example.com", "Ana", "Reyes", "0917", "Clerk", 22000));
+        employeeRepo.save(new Employee("ben", "x", "ben@example.com", "Ben", "Cruz", "0918", "Clerk", 24000));
+    }
+
+    @Test
+    void secondRunForTheSamePeriodIsRejected() {
+        PayrollRun first = payrollRunService.runPayroll(PAY_DATE, false);
+        assertEquals("COMPLETED", first.getStatus());
+        assertEquals(2, first.getPayrollCount());
+
+        IllegalStateException rejected = assertThrows(IllegalStateException.class,
+                () -> payrollRunService.runPayroll(PAY_DATE.plusDays(2), true));
+        assertEquals(true, rejected.getMessage().contains("run " + first.getPayrollRunId()));
+
+        assertEquals(2, payrollRows());
+        assertEquals(1, payrollRunRepository.count());
+    }
+
+    @Test
+    void concurrentRunsClaimThePeriodOnce() throws Exception {
+        int callers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PayrollRun>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return payrollRunService.runPayroll(PAY_DATE, false);
+            }));
+        }
+        start.countDown();
+
+        int completed = 0;
+        int rejected = 0;
+        for (Future<PayrollRun> result : results) {
+            try {
+                result.get();
+                completed++;
+            } catch (java.util.concurrent.ExecutionException e) {
+                assertEquals(IllegalStateException.class, e.getCause().getClass());
+                rejected++;
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(1, completed);
+        assertEquals(callers - 1, rejected);
+        assertEquals(2, payrollRows());
+    }
+
+    @Test
+    void staleAndFailedRunsDoNotHoldThePeriod() {
+        PayrollService.PayPeriod period = payrollService.determinePayPeriod(PAY_DATE);
+
+        PayrollRun failed = new PayrollRun();
+        failed.setPeriodStart(period.startDate);
+        failed.setPeriodEnd(period.endDate);
+        failed.setStatus("FAILED");
+        payrollRunRepository.save(failed);
+
+        PayrollRun stale = new PayrollRun();
+        stale.setPeriodStart(period.startDate);
+        stale.setPeriodEnd(period.endDate);
+        stale.setStartedAt(LocalDateTime.now().minusHours(3));
+        stale = payrollRunRepository.save(stale);
+
+        PayrollRun run = payrollRunService.runPayroll(PAY_DATE, false);
+
+        assertEquals("COMPLETED", run.getStatus());
+        assertEquals("FAILED", payrollRunRepository.findById(stale.getPayrollRunId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void runningStatusIsVisibleWhileTheRunHoldsThePeriod() {
+        PayrollService.PayPeriod period = payrollService.determinePayPeriod(PAY_DATE);
+        PayrollRun running = new PayrollRun();
+        running.setPeriodStart(period.startDate);
+        running.setPeriodEnd(period.endDate);
+        payrollRunRepository.save(running);
+
+        IllegalStateException rejected = assertThrows(IllegalStateException.class,
+                () -> payrollRunService.runPayroll(PAY_DATE, false));
+        assertEquals(true, rejected.getMessage().contains("RUNNING"));
+        assertEquals(0, payrollRows());
+    }
+
+    @Test
+    void parallelAndSequentialRunsComputeTheSamePayrolls() {
+        // 23 employees with varied attendance, so chunk sizes of 1, 4, 11, 22, 23 and 24 split the list unevenly,
+        // exactly at its size and not at all
+        for (int i = 0; i < 21; i++) {
+            Employee employee = employeeRepo.save(new Employee("user" + i, "x", "user" + i + "@example.com",
+                    "First" + i, "Last" + i, "0917", "Clerk", 15000 + i * 1750));
+            for (int day = 0; day < i % 11; day++) {
+                int worked = day % 4 == 3 ? 0 : 420 + (i * 37 + day * 53) % 300;
+                jdbcTemplate.update("INSERT INTO daily_attendance (employee_id, work_date, log_count, present, " +
+                                "worked_minutes, overtime_minutes) VALUES (?, ?, 1, ?, ?, ?)",
+                        employee.getEmployeeId(), PAY_DATE.withDayOfMonth(1 + day), worked > 0, worked,
+                        Math.max(0, worked - 480));
+            }
+        }
+
+        Object configuredChunkSize = ReflectionTestUtils.getField(payrollRunService, "chunkSize");
+        List<String> expected = null;
+        try {
+            for (int chunkSize : new int[]{1, 4, 11, 22, 23, 24}) {
+                ReflectionTestUtils.setField(payrollRunService, "chunkSize", chunkSize);
+                for (boolean parallel : new boolean[]{false, true}) {
+                    PayrollRun run = payrollRunService.runPayroll(PAY_DATE, parallel);
+                    assertEquals(23, run.getPayrollCount());
+                    List<String> payrolls = payrollsOf(run);
+                    if (expected == null) {
+                        expected = payrolls;
+                    }
+                    assertEquals(expected, payrolls,
+                            (parallel ? "PARALLEL" : "SEQUENTIAL") + " with chunk size " + chunkSize);
+                    // frees the period for the next run
+                    jdbcTemplate.update("UPDATE payroll_run SET status = 'SUPERSEDED' WHERE payroll_run_id = ?",
+                            run.getPayrollRunId());
+                }
+            }
+        } finally {
+            ReflectionTestUtils.setField(payrollRunService, "chunkSize", configuredChunkSize);
+        }
+    }
+
+    // every computed column in insert order, without the ids that differ between runs
+    private List<String> payrollsOf(PayrollRun run) {
+        String[] amounts = {"base_salary", "overtime_hours", "overtime_rate", "overtime_pay", "absence_deduction",
+                "sss_contribution", "philhealth_contribution", "pagibig_contribution", "income_tax",
+                "total_deductions", "gross_income", "net_income"};
+        return jdbcTemplate.query("SELECT * FROM payroll WHERE payroll_run_id = ? ORDER BY payroll_id",
+                (rs, rowNum) -> {
+                    StringBuilder row = new StringBuilder()
+                            .append(rs.getLong("employee_id")).append('|').append(rs.getDate("payroll_date"))
+                            .append('|').append(rs.getInt("absence_days"));
+                    for (String amount : amounts) {
+                        row.append('|').append(rs.getFloat(amount));
+                    }
+                    return row.toString();
+                },
+                run.getPayrollRunId());
+    }
+
+    private int payrollRows() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM payroll", Integer.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Payroll;
+import com.example.tsh.web.Entity.TimeLog;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.TimeLogRepo;
+import com.example.tsh.web.SqlStatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// payroll reads the daily attendance rollup and never writes the time logs behind it, legacy rows included
+class PayrollServiceTests extends PostgresTestSupport {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private DailyAttendanceService dailyAttendanceService;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private TimeLogRepo timeLogRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        truncate("payroll", "daily_attendance", "time_logs", "employee");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        employee = employeeRepo.save(new Employee("ana", "x", "ana@example.com", "Ana", "Reyes", "0917", "Clerk", 22000));
+        for (int day = 0; day < 5; day++) {
+            LocalDateTime timeIn = MONDAY.plusDays(day).atTime(8, 0);
+            TimeLog log = timeLogRepo.save(new TimeLog(employee, timeIn, timeIn.plusHours(10)));
+            // the first two predate the derived columns, the old calculation saved them back on every run
+            if (day < 2) {
+                jdbcTemplate.update("UPDATE time_logs SET duration_minutes = NULL, overtime_minutes = NULL " +
+                        "WHERE time_log_id = ?", log.getTimeLogId());
+            }
+        }
+        dailyAttendanceService.rebuild(MONDAY.withDayOfMonth(1), MONDAY.withDayOfMonth(15));
+        statistics.clear();
+        SqlStatementCounter.reset();
+    }
+
+    @Test
+    void generateUpdateAndCreateLeaveTheTimeLogsAlone() {
+        Payroll generated = transactionTemplate.execute(status ->
+                payrollService.generatePayrollForEmployee(employee.getEmployeeId(), MONDAY.plusDays(7)));
+
+        Payroll details = new Payroll();
+        details.setPayrollDate(MONDAY.plusDays(9));
+        transactionTemplate.executeWithoutResult(status -> payrollService.updatePayroll(generated.getPayrollId(), details));
+
+        Payroll created = new Payroll();
+        created.setPayrollDate(MONDAY.plusDays(11));
+        transactionTemplate.executeWithoutResult(status -> payrollService.createPayroll(employee.getEmployeeId(), created));
+
+        EntityStatistics timeLogs = statistics.getEntityStatistics(TimeLog.class.getName());
+        assertEquals(0, timeLogs.getUpdateCount());
+        assertEquals(0, timeLogs.getLoadCount());
+        List<String> touchingTimeLogs = SqlStatementCounter.statements().stream()
+                .filter(sql -> sql.toLowerCase().contains("time_logs"))
+                .toList();
+        assertEquals(List.of(), touchingTimeLogs);
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM time_logs WHERE duration_minutes IS NULL AND overtime_minutes IS NULL", Long.class));
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Benchmarks;
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Payroll;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.FontFactory;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+// time and bytes allocated (gc.alloc.rate.norm) per rendered payslip. legacy replays the hand-built renderer the
+// templates replaced: a Phrase per cell with iText's default split check, which runs a date regex per character
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PayslipRenderBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Payslip {
+
+        PayslipTemplateEngine engine;
+        Payroll payroll;
+        Employee employee;
+
+        @Setup
+        public void setUp() throws Exception {
+            engine = new PayslipTemplateEngine(new ObjectMapper(), "classpath*:payslip-templates/*.json", "default");
+            employee = new Employee("mdelacruz", "x", "mdelacruz@example.com", "Maria Cristina", "Dela Cruz-Santos",
+                    "0917", "Senior Payroll Operations Specialist", 36000);
+            employee.setEmployeeId(1042);
+            payroll = new Payroll();
+            payroll.setPayrollId(88231);
+            payroll.setEmployee(employee);
+            payroll.setPayrollDate(LocalDate.of(2025, 3, 31));
+            payroll.setBaseSalary(18000f);
+            payroll.setOvertimeHours(6.5f);
+            payroll.setOvertimeRate(234.38f);
+            payroll.setOvertimePay(1523.47f);
+            payroll.setGrossIncome(19523.47f);
+            payroll.setSssContribution(900f);
+            payroll.setPhilhealthContribution(450f);
+            payroll.setPagibigContribution(100f);
+            payroll.setIncomeTax(1204.69f);
+            payroll.setAbsenceDays(1);
+            payroll.setAbsenceDeduction(818.18f);
+            payroll.setTotalDeductions(3472.87f);
+            payroll.setNetIncome(16050.60f);
+        }
+    }
+
+    @Benchmark
+    public byte[] defaultTemplate(Payslip payslip) {
+        return payslip.engine.render("default@1", payslip.payroll, payslip.employee);
+    }
+
+    @Benchmark
+    public byte[] compactTemplate(Payslip payslip) {
+        return payslip.engine.render("compact@1", payslip.payroll, payslip.employee);
+    }
+
+    @Benchmark
+    public byte[] legacy(Payslip payslip) throws Exception {
+        return LegacyRenderer.render(payslip.payroll, payslip.employee);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        Benchmarks.run(PayslipRenderBenchmark.class);
+    }
+
+    // the layout of the default template, built by hand per document as PayslipService did before templates
+    private static final class LegacyRenderer {
+
+        private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16);
+        private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+        private static final Font SECTION_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+        private static final Font NORMAL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 10);
+        private static final Font BOLD_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10);
+        private static final Font NET_INCOME_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+        private static final DateTimeFormatter DISPLAY_DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+        static byte[] render(Payroll payroll, Employee employee) throws Exception {
+            Document document = new Document();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(4096);
+            PdfWriter.getInstance(document, outputStream);
+            document.open();
+
+            document.add(paragraph("IDEAL TECH STAFFING PHILIPPINES", HEADER_FONT, Element.ALIGN_CENTER, 0, 0));
+            document.add(paragraph("11/F 1Nito Tower, Archbishop Ave, Lahug, Cebu City 6000 Philippines", NORMAL_FONT,
+                    Element.ALIGN_CENTER, 0, 0));
+            document.add(paragraph("Phone: +639345919392 | Email: tsh@gmail.com", NORMAL_FONT, Element.ALIGN_CENTER, 0, 0));
+            document.add(paragraph("PAYSLIP", TITLE_FONT, Element.ALIGN_CENTER, 15, 15));
+
+            PdfPTable employeeTable = table(0);
+            cells(employeeTable, NORMAL_FONT, "Employee ID:", String.valueOf(employee.getEmployeeId()),
+                    "Employee Name:", employee.getFirstName() + " " + employee.getLastName(),
+                    "Position:", String.valueOf(employee.getPosition()));
+            document.add(employeeTable);
+
+            LocalDate payDate = payroll.getPayrollDate();
+            LocalDate periodStart = payDate.getDayOfMonth() <= 15 ? payDate.withDayOfMonth(1) : payDate.withDayOfMonth(16);
+            LocalDate periodEnd = payDate.getDayOfMonth() <= 15 ? payDate.withDayOfMonth(15) : payDate.withDayOfMonth(payDate.lengthOfMonth());
+            PdfPTable periodTable = table(10);
+            cells(periodTable, NORMAL_FONT, "Pay Date:", date(payDate), "Pay Period:", date(periodStart) + " to " + date(periodEnd));
+            document.add(periodTable);
+
+            document.add(paragraph("EARNINGS", SECTION_FONT, Element.ALIGN_UNDEFINED, 15, 5));
+            PdfPTable earningsTable = table(0);
+            cells(earningsTable, NORMAL_FONT, "Base Salary:", currency(payroll.getBaseSalary()),
+                    "Overtime Pay (" + payroll.getOvertimeHours() + " hrs @ " + currency(payroll.getOvertimeRate()) + "):",
+                    currency(payroll.getOvertimePay()));
+            cells(earningsTable, BOLD_FONT, "GROSS INCOME:", currency(payroll.getGrossIncome()));
+            document.add(earningsTable);
+
+            document.add(paragraph("DEDUCTIONS", SECTION_FONT, Element.ALIGN_UNDEFINED, 15, 5));
+            PdfPTable deductionsTable = table(0);
+            cells(deductionsTable, NORMAL_FONT, "SSS Contribution:", currency(payroll.getSssContribution()),
+                    "PhilHealth Contribution:", currency(payroll.getPhilhealthContribution()),
+                    "Pag-IBIG Contribution:", currency(payroll.getPagibigContribution()),
+                    "Absence Deduction (" + payroll.getAbsenceDays() + " days):", currency(payroll.getAbsenceDeduction()));
+            cells(deductionsTable, BOLD_FONT, "TOTAL DEDUCTIONS:", currency(payroll.getTotalDeductions()));
+            document.add(deductionsTable);
+
+            PdfPTable summaryTable = table(15);
+            cells(summaryTable, NET_INCOME_FONT, "NET INCOME:", currency(payroll.getNetIncome()));
+            document.add(summaryTable);
+
+            document.add(paragraph("This is an electronically generated payslip and does not require signature.",
+                    NORMAL_FONT, Element.ALIGN_CENTER, 30, 0));
+            document.close();
+            return outputStream.toByteArray();
+        }
+
+        private static Paragraph paragraph(String text, Font font, int alignment, float before, float after) {
+            Paragraph paragraph = new Paragraph(text, font);
+            paragraph.setAlignment(alignment);
+            paragraph.setSpacingBefore(before);
+            paragraph.setSpacingAfter(after);
+            return paragraph;
+        }
+
+        private static PdfPTable table(float spacingBefore) {
+            PdfPTable table = new PdfPTable(2);
+            table.setWidthPercentage(100);
+            table.setSpacingBefore(spacingBefore);
+            return table;
+        }
+
+        private static void cells(PdfPTable table, Font font, String... texts) {
+            for (String text : texts) {
+                PdfPCell cell = new PdfPCell(new Phrase(text, font));
+                cell.setPadding(5);
+                cell.setBorderWidth(0.5f);
+                table.addCell(cell);
+            }
+        }
+
+        private static String date(LocalDate date) {
+            return date.format(DISPLAY_DATE_FORMAT);
+        }
+
+        private static String currency(float amount) {
+            return String.format("₱ %.2f", amount);
+        }
+    }
+}
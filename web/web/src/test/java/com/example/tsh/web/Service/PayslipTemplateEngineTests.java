@@ -0,0 +1,156 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Payroll;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayslipTemplateEngineTests {
+
+    private static final String TEMPLATES = "classpath*:payslip-templates/*.json";
+
+    private static final String FONTS = "\"fonts\": {\"normal\": {\"name\": \"Helvetica\", \"size\": 9}}";
+
+    @TempDir
+    Path templateDir;
+
+    private PayslipTemplateEngine engine;
+    private Employee employee;
+    private Payroll payroll;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        engine = new PayslipTemplateEngine(new ObjectMapper(), TEMPLATES, "default");
+        employee = new Employee("areyes", "x", "areyes@example.com", "Ana", "Reyes", "0917", "Clerk", 22000);
+        employee.setEmployeeId(7);
+        payroll = payroll(41L, 11000f);
+    }
+
+    @Test
+    void sameSlipRendersToTheSameBytes() throws Exception {
+        byte[] first = engine.render("default@1", payroll, employee);
+        // past the one-second resolution of PDF dates, where clock-stamped renders would differ
+        Thread.sleep(1100);
+        byte[] second = engine.render("default@1", payroll, employee);
+
+        assertArrayEquals(first, second);
+        assertEquals(LocalPayslipBlobStore.sha256(first), LocalPayslipBlobStore.sha256(second));
+        String pdf = new String(first, StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.contains("/CreationDate(D:20250310000000Z"), pdf.substring(pdf.lastIndexOf("obj")));
+    }
+
+    @Test
+    void fileIdFollowsThePayrollAndTemplate() {
+        String id = fileId(engine.render("default@1", payroll, employee));
+
+        assertTrue(id.matches("\\[<([0-9a-f]{32})><\\1>]"), id);
+        assertNotEquals(id, fileId(engine.render("default@1", payroll(42L, 11000f), employee)));
+        assertNotEquals(id, fileId(engine.render("compact@1", payroll, employee)));
+        // a corrected payroll keeps its /ID but not its content hash
+        byte[] corrected = engine.render("default@1", payroll(41L, 12000f), employee);
+        assertEquals(id, fileId(corrected));
+        assertNotEquals(LocalPayslipBlobStore.sha256(engine.render("default@1", payroll, employee)),
+                LocalPayslipBlobStore.sha256(corrected));
+    }
+
+    @Test
+    void bundledTemplatesCompile() {
+        assertEquals("default@1", engine.versionKey(null));
+        assertEquals("compact@1", engine.versionKey("compact"));
+        assertEquals(Set.of(Map.of("id", "compact", "version", 1, "default", false),
+                Map.of("id", "default", "version", 1, "default", true)), Set.copyOf(engine.getTemplates()));
+        assertThrows(IllegalArgumentException.class, () -> engine.versionKey("missing"));
+    }
+
+    @Test
+    void removedTemplateFallsBackToTheDefault() {
+        assertArrayEquals(engine.render("default@1", payroll, employee), engine.render("retired@3", payroll, employee));
+    }
+
+    @Test
+    void mistakesInATemplateFailAtStartupNamingTheFileAndBlock() throws Exception {
+        assertCompileError("Unknown field {netPay} in payslip template slip.json block 2",
+                "{\"paragraph\": \"ok\", \"font\": \"normal\"}, {\"paragraph\": \"Net {netPay}\", \"font\": \"normal\"}");
+        assertCompileError("Unclosed placeholder in payslip template slip.json block 1: Net {netIncome",
+                "{\"paragraph\": \"Net {netIncome\", \"font\": \"normal\"}");
+        assertCompileError("Unknown font 'heading' in payslip template slip.json block 1",
+                "{\"paragraph\": \"Payslip\", \"font\": \"heading\"}");
+        assertCompileError("Unknown font 'bold' in payslip template slip.json block 1",
+                "{\"table\": [{\"font\": \"bold\", \"cells\": [\"Net\", \"{netIncome}\"]}], \"font\": \"normal\"}");
+        assertCompileError("Unknown alignment 'middle' in payslip template slip.json block 1",
+                "{\"paragraph\": \"Payslip\", \"font\": \"normal\", \"align\": \"middle\"}");
+        assertCompileError("Rows of different widths in payslip template slip.json block 1",
+                "{\"table\": [[\"Base\", \"{baseSalary}\"], [\"Net\"]], \"font\": \"normal\"}");
+        assertCompileError("Empty table in payslip template slip.json block 1",
+                "{\"table\": [], \"font\": \"normal\"}");
+        assertCompileError("Payslip template slip.json block 1 is neither a paragraph nor a table",
+                "{\"image\": \"logo.png\", \"font\": \"normal\"}");
+    }
+
+    @Test
+    void templateIdsMustBeUsableAsVersionKeys() throws Exception {
+        Files.writeString(templateDir.resolve("slip.json"), "{\"id\": \"slip@2\", \"blocks\": []}");
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> compile("slip"));
+        assertEquals("Payslip template slip.json needs an id without '@'", error.getMessage());
+    }
+
+    @Test
+    void duplicateIdsAndAMissingDefaultFailAtStartup() throws Exception {
+        Files.writeString(templateDir.resolve("a.json"), template("slip", "{\"paragraph\": \"A\", \"font\": \"normal\"}"));
+        Files.writeString(templateDir.resolve("b.json"), template("slip", "{\"paragraph\": \"B\", \"font\": \"normal\"}"));
+        IllegalStateException duplicate = assertThrows(IllegalStateException.class, () -> compile("slip"));
+        assertTrue(duplicate.getMessage().startsWith("Duplicate payslip template id 'slip' in "), duplicate.getMessage());
+
+        Files.delete(templateDir.resolve("b.json"));
+        IllegalStateException missing = assertThrows(IllegalStateException.class, () -> compile("default"));
+        assertTrue(missing.getMessage().startsWith("Default payslip template 'default' not found in "), missing.getMessage());
+        assertEquals("slip@1", compile("slip").versionKey(null));
+    }
+
+    private void assertCompileError(String message, String blocks) throws Exception {
+        Files.writeString(templateDir.resolve("slip.json"), template("slip", blocks));
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> compile("slip"));
+        assertEquals(message, error.getMessage());
+    }
+
+    private PayslipTemplateEngine compile(String defaultTemplateId) throws Exception {
+        return new PayslipTemplateEngine(new ObjectMapper(), "file:" + templateDir + "/*.json", defaultTemplateId);
+    }
+
+    private static String template(String id, String blocks) {
+        return "{\"id\": \"" + id + "\", \"version\": 1, " + FONTS + ", \"blocks\": [" + blocks + "]}";
+    }
+
+    private static String fileId(byte[] pdf) {
+        String text = new String(pdf, StandardCharsets.ISO_8859_1);
+        int at = text.lastIndexOf("/ID [");
+        return text.substring(at + 4, text.indexOf(']', at) + 1);
+    }
+
+    private Payroll payroll(long id, float netIncome) {
+        Payroll payroll = new Payroll();
+        payroll.setPayrollId(id);
+        payroll.setEmployee(employee);
+        payroll.setPayrollDate(LocalDate.of(2025, 3, 10));
+        payroll.setBaseSalary(11000f);
+        payroll.setGrossIncome(11000f);
+        payroll.setNetIncome(netIncome);
+        return payroll;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.Payroll;
+import com.example.tsh.web.Entity.PayrollRun;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.PayrollRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// payslips per second for a whole cutoff: one generatePayslip call per payroll (what HR clicked through before)
+// against the bulk run, which renders on the payslip render pool and saves batch-size payslips per transaction.
+// Run with: mvn -Pperf test -Dtest=PayslipThroughputTests [-Dpayslip.throughput.employees=4000]
+@Tag("load")
+class PayslipThroughputTests extends PostgresTestSupport {
+
+    private static final LocalDate PAY_DATE = LocalDate.of(2025, 3, 10);
+    private static final int EMPLOYEES = Integer.getInteger("payslip.throughput.employees", 1_000);
+    private static final int SEQUENTIAL_SAMPLE = Math.min(200, EMPLOYEES);
+
+    @Autowired
+    private PayrollRunService payrollRunService;
+
+    @Autowired
+    private PayslipService payslipService;
+
+    @Autowired
+    private PayslipBatchService payslipBatchService;
+
+    @Autowired
+    private PayslipTemplateEngine payslipTemplateEngine;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    private PayrollRun run;
+
+    @BeforeEach
+    void setUp() {
+        truncate("payslip", "payroll", "payroll_run", "daily_attendance", "time_logs", "employee");
+        List<Employee> employees = new ArrayList<>(EMPLOYEES);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(new Employee("user" + i, "x", "user" + i + "@example.com", "First" + i, "Last" + i,
+                    "0917", "Clerk", 18000 + (i % 40) * 500));
+        }
+        employeeRepo.saveAll(employees);
+        run = payrollRunService.runPayroll(PAY_DATE, false);
+    }
+
+    @Test
+    void payslipsPerSecondOneByOneAndInBulk() throws Exception {
+        List<Payroll> payrolls = payrollRepository.findByPayrollRunIdOrderByPayrollId(run.getPayrollRunId());
+        assertEquals(EMPLOYEES, payrolls.size());
+
+        // warm up the render path first, so neither side pays for the JIT
+        for (Payroll payroll : payrolls.subList(0, SEQUENTIAL_SAMPLE)) {
+            payslipService.renderPayslip(payroll, payroll.getEmployee(), payslipTemplateEngine.versionKey(null));
+        }
+        long started = System.nanoTime();
+        for (Payroll payroll : payrolls.subList(0, SEQUENTIAL_SAMPLE)) {
+            payslipService.generatePayslip(payroll.getPayrollId());
+        }
+        double sequential = SEQUENTIAL_SAMPLE * 1e9 / (System.nanoTime() - started);
+        truncate("payslip");
+
+        long jobId = ((Number) payslipBatchService.startBatch(String.valueOf(run.getPayrollRunId()), null).get("jobId")).longValue();
+        Map<String, Object> job = payslipBatchService.getBatch(jobId);
+        long deadline = System.currentTimeMillis() + 600_000;
+        while (("QUEUED".equals(job.get("status")) || "RUNNING".equals(job.get("status"))) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+            job = payslipBatchService.getBatch(jobId);
+        }
+
+        System.out.printf("one request per payslip: %.1f payslips/s (%d payslips)%n", sequential, SEQUENTIAL_SAMPLE);
+        System.out.printf("bulk run on %d cores:     %s payslips/s (%d payslips, render %s ms, persist %s ms)%n",
+                Runtime.getRuntime().availableProcessors(), job.get("payslipsPerSecond"), EMPLOYEES,
+                job.get("renderMillis"), job.get("persistMillis"));
+        assertEquals("COMPLETED", job.get("status"), job.toString());
+        assertEquals(EMPLOYEES, job.get("persisted"));
+        assertEquals(0, job.get("failed"));
+        assertEquals((long) EMPLOYEES, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payslip", Long.class));
+    }
+}
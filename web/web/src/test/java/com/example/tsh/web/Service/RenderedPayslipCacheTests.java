@@ -0,0 +1,110 @@
+package com.example.tsh.web.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RenderedPayslipCacheTests {
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    void secondDownloadIsServedFromTheCache() {
+        RenderedPayslipCache cache = new RenderedPayslipCache(1_000);
+
+        RenderedPayslipCache.RenderedPdf first = cache.get(1, "default@1", () -> pdf(100));
+        RenderedPayslipCache.RenderedPdf second = cache.get(1, "default@1", () -> pdf(100));
+
+        assertSame(first, second);
+        assertEquals(1, renders.get());
+        assertEquals(LocalPayslipBlobStore.sha256(first.getContent()), first.getContentHash());
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void templateVersionIsPartOfTheKey() {
+        RenderedPayslipCache cache = new RenderedPayslipCache(1_000);
+
+        cache.get(1, "default@1", () -> pdf(100));
+        cache.get(1, "compact@1", () -> pdf(100));
+
+        assertEquals(2, renders.get());
+        assertEquals(2, cache.getStats().get("entries"));
+    }
+
+    @Test
+    void leastRecentlyUsedGoesFirstOnceOverTheByteBound() {
+        RenderedPayslipCache cache = new RenderedPayslipCache(250);
+
+        cache.get(1, "default@1", () -> pdf(100));
+        cache.get(2, "default@1", () -> pdf(100));
+        cache.get(1, "default@1", () -> pdf(100));
+        cache.get(3, "default@1", () -> pdf(100));
+
+        assertEquals(3, renders.get());
+        assertEquals(2, cache.getStats().get("entries"));
+        assertEquals(200L, cache.getStats().get("bytes"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+        // 1 was used after 2, so 2 was the one dropped
+        cache.get(1, "default@1", () -> pdf(100));
+        assertEquals(3, renders.get());
+        cache.get(2, "default@1", () -> pdf(100));
+        assertEquals(4, renders.get());
+    }
+
+    @Test
+    void pdfLargerThanTheBoundIsServedButNotKept() {
+        RenderedPayslipCache cache = new RenderedPayslipCache(50);
+
+        byte[] content = cache.get(1, "default@1", () -> pdf(100)).getContent();
+
+        assertEquals(100, content.length);
+        assertEquals(0, cache.getStats().get("entries"));
+        assertEquals(0L, cache.getStats().get("bytes"));
+    }
+
+    @Test
+    void invalidationDropsOnlyThatPayroll() {
+        RenderedPayslipCache cache = new RenderedPayslipCache(1_000);
+        cache.get(1, "default@1", () -> pdf(100));
+        cache.get(1, "compact@1", () -> pdf(100));
+        cache.get(11, "default@1", () -> pdf(100));
+
+        cache.invalidatePayroll(1);
+
+        assertEquals(1, cache.getStats().get("entries"));
+        assertEquals(2L, cache.getStats().get("invalidations"));
+        cache.get(11, "default@1", () -> pdf(100));
+        assertEquals(3, renders.get());
+        cache.get(1, "default@1", () -> pdf(100));
+        assertEquals(4, renders.get());
+    }
+
+    @Test
+    void renderThatOverlapsAnInvalidationIsNotCached() {
+        RenderedPayslipCache cache = new RenderedPayslipCache(1_000);
+
+        // the payroll is corrected while its old numbers are still being rendered
+        byte[] stale = cache.get(1, "default@1", () -> {
+            byte[] content = pdf(100);
+            cache.invalidatePayroll(1);
+            return content;
+        }).getContent();
+        byte[] fresh = cache.get(1, "default@1", () -> pdf(120)).getContent();
+
+        assertEquals(100, stale.length);
+        assertEquals(120, fresh.length);
+        assertArrayEquals(fresh, cache.get(1, "default@1", () -> pdf(140)).getContent());
+        assertEquals(2, renders.get());
+    }
+
+    private byte[] pdf(int size) {
+        renders.incrementAndGet();
+        return new byte[size];
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.DTO.PayrollAuditEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferPayrollAuditSinkTests {
+
+    private static final LocalDate PAY_DATE = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void offRecordsNobody() {
+        RingBufferPayrollAuditSink sink = new RingBufferPayrollAuditSink(PayrollAuditSink.Level.OFF, 1.0, 10);
+        for (long id = 1; id <= 1000; id++) {
+            assertFalse(sink.shouldRecord(id));
+        }
+    }
+
+    @Test
+    void fullAndZeroRatesRecordEveryoneOrNobody() {
+        RingBufferPayrollAuditSink all = new RingBufferPayrollAuditSink(PayrollAuditSink.Level.SUMMARY, 1.0, 10);
+        RingBufferPayrollAuditSink none = new RingBufferPayrollAuditSink(PayrollAuditSink.Level.SUMMARY, 0.0, 10);
+        for (long id = 1; id <= 1000; id++) {
+            assertTrue(all.shouldRecord(id));
+            assertFalse(none.shouldRecord(id));
+        }
+    }
+
+    @Test
+    void samplingIsDeterministicPerEmployee() {
+        RingBufferPayrollAuditSink first = new RingBufferPayrollAuditSink(PayrollAuditSink.Level.DETAIL, 0.1, 10);
+        RingBufferPayrollAuditSink second = new RingBufferPayrollAuditSink(PayrollAuditSink.Level.DETAIL, 0.1, 10);
+        for (long id = 1; id <= 1000; id++) {
+            boolean sampled = first.shouldRecord(id);
+            assertEquals(sampled, first.shouldRecord(id));
+            assertEquals(sampled, second.shouldRecord(id));
+        }
+    }
+
+    @Test
+    void samplingRateHoldsOverConsecutiveIds() {
+        RingBufferPayrollAuditSink sink = new RingBufferPayrollAuditSink(PayrollAuditSink.Level.SUMMARY, 0.25, 10);
+        int sampled = 0;
+        for (long id = 1; id <= 100_000; id++) {
+            if (sink.shouldRecord(id)) {
+                sampled++;
+            }
+        }
+        assertTrue(sampled > 24_000 && sampled < 26_000, "sampled " + sampled + " of 100000");
+    }
+
+    @Test
+    void lowerRatesSampleASubsetOfHigherRates() {
+        RingBufferPayrollAuditSink low = new RingBufferPayrollAuditSink(PayrollAuditSink.Level.SUMMARY, 0.05, 10);
+        RingBufferPayrollAuditSink high = new RingBufferPayrollAuditSink(PayrollAuditSink.Level.SUMMARY, 0.5, 10);
+        for (long id = 1; id <= 10_000; id++) {
+            if (low.shouldRecord(id)) {
+                assertTrue(high.shouldRecord(id));
+            }
+        }
+    }
+
+    @Test
+    void recentReturnsNewestFirstAndKeepsOnlyCapacity() {
+        RingBufferPayrollAuditSink sink = new RingBufferPayrollAuditSink(PayrollAuditSink.Level.SUMMARY, 1.0, 3);
+        assertEquals(List.of(), sink.recent(10));
+
+        for (long id = 1; id <= 5; id++) {
+            sink.record(new PayrollAuditEntry(id, PAY_DATE, PAY_DATE.withDayOfMonth(1), PAY_DATE.withDayOfMonth(15)));
+        }
+
+        assertEquals(List.of(5L, 4L, 3L), employeeIds(sink.recent(10)));
+        assertEquals(List.of(5L, 4L), employeeIds(sink.recent(2)));
+        assertEquals(List.of(), sink.recent(0));
+        assertEquals(List.of(), sink.recent(-1));
+    }
+
+    private static List<Long> employeeIds(List<PayrollAuditEntry> entries) {
+        return entries.stream().map(PayrollAuditEntry::getEmployeeId).toList();
+    }
+}
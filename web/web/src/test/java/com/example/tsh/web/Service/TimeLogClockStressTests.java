@@ -0,0 +1,192 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.DTO.TimeLogDTO;
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 1,000 employees clock in and out at once, each with a keyless double tap and a replayed idempotency key racing
+// each other. Only the partial unique indexes and the single-statement clock events keep this consistent.
+// Run with: mvn -Pperf test -Dtest=TimeLogClockStressTests
+@Tag("load")
+class TimeLogClockStressTests extends PostgresTestSupport {
+
+    private static final int EMPLOYEES = 1_000;
+    private static final int CLIENTS = 64;
+
+    @Autowired
+    private TimeLogService timeLogService;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    private final List<Long> employeeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        truncate("daily_attendance", "time_logs", "employee");
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(new Employee("user" + i, "x", "user" + i + "@example.com", "First" + i, "Last" + i,
+                    "0917", "Clerk", 22000));
+        }
+        employeeIds.clear();
+        employeeRepo.saveAll(employees).forEach(employee -> employeeIds.add(employee.getEmployeeId()));
+    }
+
+    @Test
+    void concurrentClockEventsLeaveOneLogPerEmployeeAndAConsistentRollup() throws Exception {
+        Map<Long, List<Long>> clockedIn = new ConcurrentHashMap<>();
+        Map<Long, List<Long>> keyedIn = new ConcurrentHashMap<>();
+        List<Runnable> taps = new ArrayList<>();
+        for (Long id : employeeIds) {
+            for (int tap = 0; tap < 2; tap++) {
+                taps.add(() -> record(clockedIn, id, () -> timeLogService.timeIn(id, null), "Employee already timed in"));
+                taps.add(() -> record(keyedIn, id, () -> timeLogService.timeIn(id, "in-" + id), "Employee already timed in"));
+            }
+        }
+        long started = System.nanoTime();
+        runAtOnce(taps);
+        System.out.printf("clock-in: %d taps in %d ms%n", taps.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        assertEquals(EMPLOYEES, count("SELECT COUNT(*) FROM time_logs"));
+        assertEquals(EMPLOYEES, count("SELECT COUNT(*) FROM time_logs WHERE time_out IS NULL"));
+        for (Long id : employeeIds) {
+            List<Long> logIds = new ArrayList<>(clockedIn.getOrDefault(id, List.of()));
+            List<Long> keyed = keyedIn.getOrDefault(id, List.of());
+            logIds.addAll(keyed);
+            // whichever tap won, every successful answer names the same log, and a key either opened it (both
+            // replays answer with it) or lost to a keyless tap (both are refused)
+            assertEquals(1, logIds.stream().distinct().count(), "employee " + id + " got " + logIds);
+            assertTrue(keyed.isEmpty() || keyed.size() == 2, "employee " + id + " keyed answers " + keyed);
+            assertTrue(clockedIn.getOrDefault(id, List.of()).size() <= 1, "employee " + id + " opened twice");
+        }
+        // open logs are counted but the day is not present until time is clocked out
+        assertEquals(EMPLOYEES, count("SELECT COUNT(*) FROM daily_attendance WHERE log_count = 1 AND NOT present"));
+        assertRollupMatchesTimeLogs();
+
+        // replaying the winning keys after the race is a no-op that answers with the same log
+        List<Runnable> replays = new ArrayList<>();
+        Map<Long, List<Long>> replayed = new ConcurrentHashMap<>();
+        keyedIn.keySet().forEach(id -> replays.add(() ->
+                record(replayed, id, () -> timeLogService.timeIn(id, "in-" + id), null)));
+        runAtOnce(replays);
+        keyedIn.forEach((id, logIds) -> assertEquals(List.of(logIds.get(0)), replayed.get(id)));
+        assertEquals(EMPLOYEES, count("SELECT COUNT(*) FROM time_logs"));
+
+        Map<Long, List<Long>> clockedOut = new ConcurrentHashMap<>();
+        Map<Long, List<Long>> keyedOut = new ConcurrentHashMap<>();
+        taps.clear();
+        for (Long id : employeeIds) {
+            for (int tap = 0; tap < 2; tap++) {
+                taps.add(() -> record(clockedOut, id, () -> timeLogService.timeOut(id, null), "No active time-in found for employee"));
+                taps.add(() -> record(keyedOut, id, () -> timeLogService.timeOut(id, "out-" + id), "No active time-in found for employee"));
+            }
+        }
+        started = System.nanoTime();
+        runAtOnce(taps);
+        System.out.printf("clock-out: %d taps in %d ms%n", taps.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        assertEquals(0, count("SELECT COUNT(*) FROM time_logs WHERE time_out IS NULL"));
+        assertEquals(EMPLOYEES, count("SELECT COUNT(*) FROM time_logs"));
+        for (Long id : employeeIds) {
+            List<Long> keyless = clockedOut.getOrDefault(id, List.of());
+            List<Long> keyed = keyedOut.getOrDefault(id, List.of());
+            assertEquals(1, keyless.size() + (keyed.isEmpty() ? 0 : 1), "employee " + id + " closed " + keyless + " " + keyed);
+            assertTrue(keyed.isEmpty() || keyed.size() == 2, "employee " + id + " keyed answers " + keyed);
+        }
+        assertRollupMatchesTimeLogs();
+    }
+
+    @Test
+    void partialIndexesBackTheClockStatements() {
+        Map<String, String> indexes = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT indexname, indexdef FROM pg_indexes WHERE tablename = 'time_logs'",
+                rs -> { indexes.put(rs.getString(1), rs.getString(2)); });
+
+        assertTrue(indexes.get("ux_time_logs_open_per_employee").matches("CREATE UNIQUE INDEX .*\\(employee_id\\) WHERE \\(time_out IS NULL\\)"),
+                indexes.toString());
+        assertTrue(indexes.get("ux_time_logs_clock_in_key").contains("(employee_id, clock_in_key) WHERE (clock_in_key IS NOT NULL)"));
+        assertTrue(indexes.get("ux_time_logs_clock_out_key").contains("(employee_id, clock_out_key) WHERE (clock_out_key IS NOT NULL)"));
+
+        // the index, not the statement, is what refuses a second open log written by any other path
+        Long id = employeeIds.get(0);
+        jdbcTemplate.update("INSERT INTO time_logs (employee_id, time_in) VALUES (?, now())", id);
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update("INSERT INTO time_logs (employee_id, time_in) VALUES (?, now())", id));
+    }
+
+    private void record(Map<Long, List<Long>> results, Long employeeId, ClockEvent event, String expectedRefusal) {
+        try {
+            TimeLogDTO log = event.run();
+            results.computeIfAbsent(employeeId, k -> Collections.synchronizedList(new ArrayList<>())).add(log.getTimeLogId());
+        } catch (IllegalStateException e) {
+            if (expectedRefusal == null || !expectedRefusal.equals(e.getMessage())) {
+                throw e;
+            }
+        }
+    }
+
+    private void assertRollupMatchesTimeLogs() {
+        long mismatches = count(
+                "SELECT COUNT(*) FROM (" +
+                "  SELECT employee_id, CAST(time_in AS date) AS work_date, COUNT(*) AS log_count, " +
+                "  COALESCE(SUM(GREATEST(duration_minutes, 0)), 0) AS worked, COALESCE(SUM(overtime_minutes), 0) AS overtime " +
+                "  FROM time_logs GROUP BY employee_id, CAST(time_in AS date)" +
+                ") t FULL JOIN daily_attendance d ON d.employee_id = t.employee_id AND d.work_date = t.work_date " +
+                "WHERE t.employee_id IS NULL OR d.employee_id IS NULL OR d.log_count <> t.log_count " +
+                "OR d.worked_minutes <> t.worked OR d.overtime_minutes <> t.overtime OR d.present <> (t.worked > 0)");
+        assertEquals(0, mismatches);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    // the taps of one employee sit next to each other in the list, so with every client released by the same gate
+    // they run on different connections at the same moment
+    private static void runAtOnce(List<Runnable> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch gate = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable task : tasks) {
+                futures.add(pool.submit(() -> {
+                    gate.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            gate.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface ClockEvent {
+        TimeLogDTO run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.TimeLog;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.TimeLogRepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimeLogServiceTests extends PostgresTestSupport {
+
+    private static final LocalDateTime MONDAY_8AM = LocalDateTime.of(2025, 3, 3, 8, 0);
+
+    @Autowired
+    private TimeLogService timeLogService;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private TimeLogRepo timeLogRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        truncate("daily_attendance", "time_logs", "employee");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        employee = employeeRepo.save(new Employee("ana", "x", "ana@example.com", "Ana", "Reyes", "0917", "Clerk", 22000));
+    }
+
+    @Test
+    void backfillWritesOnlyTheRowsMissingDerivedMinutes() {
+        // clean rows hold values the backfill would not compute, so a rewrite of either would show
+        long cleanA = log(0, 10, 1, 0);
+        long cleanB = log(1, 9, 7, 7);
+        long bothMissing = log(2, 10, null, null);
+        long durationMissing = log(3, 9, null, 60);
+        long overtimeMissing = log(4, 11, 660, null);
+        // still open, nothing to derive yet
+        long open = saveOpen(5);
+        statistics.clear();
+
+        assertEquals(3, timeLogService.backfillDerivedMinutes());
+        assertEquals(3, statistics.getEntityStatistics(TimeLog.class.getName()).getUpdateCount());
+
+        assertMinutes(cleanA, 1, 0);
+        assertMinutes(cleanB, 7, 7);
+        assertMinutes(bothMissing, 600, 120);
+        assertMinutes(durationMissing, 540, 60);
+        assertMinutes(overtimeMissing, 660, 180);
+        assertMinutes(open, null, null);
+
+        statistics.clear();
+        assertEquals(0, timeLogService.backfillDerivedMinutes());
+        assertEquals(0, statistics.getEntityStatistics(TimeLog.class.getName()).getUpdateCount());
+    }
+
+    private long log(int day, int hours, Integer durationMinutes, Integer overtimeMinutes) {
+        LocalDateTime timeIn = MONDAY_8AM.plusDays(day);
+        long id = timeLogRepo.save(new TimeLog(employee, timeIn, timeIn.plusHours(hours))).getTimeLogId();
+        jdbcTemplate.update("UPDATE time_logs SET duration_minutes = ?, overtime_minutes = ? WHERE time_log_id = ?",
+                durationMinutes, overtimeMinutes, id);
+        return id;
+    }
+
+    private long saveOpen(int day) {
+        return timeLogRepo.save(new TimeLog(employee, MONDAY_8AM.plusDays(day), null)).getTimeLogId();
+    }
+
+    private void assertMinutes(long timeLogId, Integer durationMinutes, Integer overtimeMinutes) {
+        Integer[] stored = jdbcTemplate.queryForObject(
+                "SELECT duration_minutes, overtime_minutes FROM time_logs WHERE time_log_id = ?",
+                (rs, rowNum) -> new Integer[]{(Integer) rs.getObject(1), (Integer) rs.getObject(2)}, timeLogId);
+        assertArrayEquals(new Integer[]{durationMinutes, overtimeMinutes}, stored, "time log " + timeLogId);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.tsh.web.Service;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Entity.PasswordResetToken;
+import com.example.tsh.web.PostgresTestSupport;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.example.tsh.web.Repository.PasswordResetTokenRepository;
+import com.example.tsh.web.SqlStatementCounter;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// tokens issued before role and uid claims were added resolve their principal through loadUserByUsername:
+// three lookups (admin, hr, employee) on a miss, none once it is cached
+@AutoConfigureMockMvc
+class UserDetailsServiceImplTests extends PostgresTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private EmployeeRepo employeeRepo;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtKeyProvider keyProvider;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        truncate("password_reset_token", "employee");
+        employee = employeeRepo.save(new Employee("ana", passwordEncoder.encode("secret"), "ana@example.com",
+                "Ana", "Reyes", "0917", "Clerk", 22000));
+        // ids restart after the truncate, so nothing cached by an earlier test may survive
+        userDetailsService.evictPrincipal("ana");
+    }
+
+    @Test
+    void cachedPrincipalTakesTheLookupsOffAuthenticatedRequests() throws Exception {
+        String token = legacyToken("ana");
+        long hits = stat("hits");
+        long misses = stat("misses");
+
+        assertEquals(3, selectsFor(token));
+        assertEquals(misses + 1, stat("misses"));
+        assertEquals(hits, stat("hits"));
+
+        assertEquals(0, selectsFor(token));
+        assertEquals(0, selectsFor(token));
+        assertEquals(misses + 1, stat("misses"));
+        assertEquals(hits + 2, stat("hits"));
+    }
+
+    @Test
+    void passwordResetEvictsThePrincipal() throws Exception {
+        String token = legacyToken("ana");
+        selectsFor(token);
+        assertEquals(0, selectsFor(token));
+        int cached = (int) userDetailsService.getPrincipalCacheStats().get("size");
+
+        PasswordResetToken resetToken = passwordResetTokenRepository.save(new PasswordResetToken(employee));
+        mockMvc.perform(post("/api/password/reset").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"" + resetToken.getToken() + "\",\"newPassword\":\"changed\"}"))
+                .andExpect(status().isOk());
+        assertEquals(cached - 1, userDetailsService.getPrincipalCacheStats().get("size"));
+
+        // the reset also revokes the token, so the reload is checked on the service itself
+        long misses = stat("misses");
+        SqlStatementCounter.reset();
+        UserDetails reloaded = userDetailsService.loadUserByUsername("ana");
+        assertEquals(3, selects());
+        assertEquals(misses + 1, stat("misses"));
+        assertTrue(passwordEncoder.matches("changed", reloaded.getPassword()));
+    }
+
+    @Test
+    void profileUpdateEvictsThePrincipal() throws Exception {
+        String token = legacyToken("ana");
+        selectsFor(token);
+        assertEquals(0, selectsFor(token));
+
+        mockMvc.perform(put("/employee/update-profile").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Ana Maria\",\"lastName\":\"Reyes\",\"email\":\"ana@example.com\"," +
+                                "\"contact\":\"0918\"}"))
+                .andExpect(status().isOk());
+
+        long misses = stat("misses");
+        assertEquals(3, selectsFor(token));
+        assertEquals(misses + 1, stat("misses"));
+        assertEquals(0, selectsFor(token));
+    }
+
+    // signed with the active key but without kid, role or uid, as tokens were issued before those existed
+    private String legacyToken(String username) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(username)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 60_000))
+                .signWith(keyProvider.activeKey())
+                .compact();
+    }
+
+    // an authenticated request to an endpoint that runs no SQL of its own, so every SELECT is the principal's
+    private long selectsFor(String token) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/api/payslips/test").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        return selects();
+    }
+
+    private static long selects() {
+        return SqlStatementCounter.statements().stream()
+                .filter(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+                .count();
+    }
+
+    private long stat(String name) {
+        return (long) userDetailsService.getPrincipalCacheStats().get(name);
+    }
+}
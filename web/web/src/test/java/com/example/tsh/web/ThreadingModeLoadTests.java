@@ -0,0 +1,102 @@
+package com.example.tsh.web;
+
+import com.example.tsh.web.Entity.Employee;
+import com.example.tsh.web.Repository.EmployeeRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// the same workload against the default platform-thread Tomcat and the "virtual" profile: /api/time-logs/status with
+// more clients than Tomcat's 200 request threads, then a login burst. Compare the printed p99 and concurrency lines.
+// The virtual run needs Java 21 (mvn -Pjava21,perf test -Dtest=ThreadingModeLoadTests) and is skipped below it.
+// Only the platform run has been measured so far (Java 17, one core: status p99 8.7 s at 102/s, login p99 22.2 s);
+// add the virtual numbers from a Java 21 machine before drawing conclusions from the comparison
+@Tag("load")
+class ThreadingModeLoadTests {
+
+    private static final int EMPLOYEES = 20;
+    private static final int STATUS_REQUESTS = 6_000;
+    private static final int STATUS_CLIENTS = 400;
+    private static final int LOGINS = 300;
+    private static final int LOGIN_CLIENTS = 100;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper json = new ObjectMapper();
+
+    @BeforeAll
+    static void requireDatabase() {
+        assumeTrue(PostgresTestSupport.databaseAvailable(), "Set TEST_DB_URL or start Docker to run the Postgres tests");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"platform", "virtual"})
+    void statusAndLoginUnderLoad(String mode) throws Exception {
+        boolean virtual = mode.equals("virtual");
+        assumeTrue(!virtual || Runtime.version().feature() >= 21, "virtual threads need Java 21");
+
+        String profiles = virtual ? "test,virtual" : "test";
+        try (ConfigurableApplicationContext context = start(profiles)) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            seed(context);
+            String token = json.readTree(login(port, "user0").body()).get("token").asText();
+
+            LoadGenerator.Result status = LoadGenerator.run(mode + " status", STATUS_REQUESTS, STATUS_CLIENTS,
+                    () -> status(port, token).statusCode());
+            LoadGenerator.Result logins = LoadGenerator.run(mode + " login", LOGINS, LOGIN_CLIENTS,
+                    () -> login(port, "user" + ThreadLocalRandom.current().nextInt(EMPLOYEES)).statusCode());
+
+            assertEquals(STATUS_REQUESTS, status.count(200), status.toString());
+            assertEquals(LOGINS, logins.count(200) + logins.count(503), logins.toString());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String profiles) {
+        // command line arguments: builder default properties would lose to application.properties
+        String[] args = PostgresTestSupport.datasourceProperties().entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+        return new SpringApplicationBuilder(WebApplication.class)
+                .profiles(profiles.split(","))
+                .properties("server.port=0")
+                .run(args);
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        context.getBean(JdbcTemplate.class).execute("TRUNCATE daily_attendance, time_logs, employee RESTART IDENTITY CASCADE");
+        String hash = context.getBean(PasswordEncoder.class).encode("secret");
+        EmployeeRepo employeeRepo = context.getBean(EmployeeRepo.class);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employeeRepo.save(new Employee("user" + i, hash, "user" + i + "@example.com", "First" + i, "Last" + i,
+                    "0917", "Clerk", 22000));
+        }
+    }
+
+    private HttpResponse<String> login(int port, String username) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/employee/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + username + "\",\"password\":\"secret\"}"))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> status(int port, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/time-logs/status"))
+                .header("Authorization", "Bearer " + token).GET().build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}